@@ -9,7 +9,12 @@ import net.minecraft.core.SectionPos;
 import net.minecraft.network.protocol.game.ClientboundBlockDestructionPacket;
 import net.minecraft.network.protocol.game.ClientboundSectionBlocksUpdatePacket;
 import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import org.bukkit.World;
 import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.craftbukkit.v1_20_R1.CraftWorld;
 import org.bukkit.craftbukkit.v1_20_R1.block.CraftBlock;
 import org.bukkit.craftbukkit.v1_20_R1.block.CraftBlockState;
 import org.bukkit.craftbukkit.v1_20_R1.block.data.CraftBlockData;
@@ -103,6 +108,26 @@ public class Block_1_20_R1 implements BlockCompatibility {
         return packets;
     }
 
+    @Override
+    public @Nullable SectionSnapshot getSectionSnapshot(@NotNull World world, int sectionX, int sectionY, int sectionZ) {
+        LevelChunk chunk = ((CraftWorld) world).getHandle().getChunkSource().getChunkNow(sectionX, sectionZ);
+        if (chunk == null)
+            return null;
+
+        int index = chunk.getSectionIndexFromSectionY(sectionY);
+        if (index < 0 || index >= chunk.getSectionsCount())
+            return null;
+
+        // Only the palette and its packed indices are copied
+        PalettedContainer<BlockState> states = chunk.getSection(index).getStates().copy();
+        return (x, y, z) -> states.get(x & 15, y & 15, z & 15);
+    }
+
+    @Override
+    public @NotNull Object getState(@NotNull BlockData data) {
+        return ((CraftBlockData) data).getState();
+    }
+
     private ClientboundSectionBlocksUpdatePacket getMultiBlockMaskPacket(List<Block> blocks, @Nullable BlockState mask) {
 
         BlockPos position = ((CraftBlock) blocks.get(0)).getPosition();
@@ -12,6 +12,8 @@ import me.deecaad.core.compatibility.nbt.NBT_1_20_R1;
 import me.deecaad.core.utils.LogLevel;
 import me.deecaad.core.utils.ReflectionUtil;
 import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ClientGamePacketListener;
+import net.minecraft.network.protocol.game.ClientboundBundlePacket;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.server.network.ServerGamePacketListenerImpl;
 import org.bukkit.World;
@@ -22,6 +24,8 @@ import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
 
 public class v1_20_R1 implements ICompatibility {
 
@@ -35,6 +39,8 @@ public class v1_20_R1 implements ICompatibility {
         }
     }
 
+    private static final int MAX_BUNDLE_SIZE = 4096;
+
     private final EntityCompatibility entityCompatibility;
     private final BlockCompatibility blockCompatibility;
     private final NBTCompatibility nbtCompatibility;
@@ -66,6 +72,20 @@ public class v1_20_R1 implements ICompatibility {
         }
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public void sendBundledPackets(@NotNull Player player, @NotNull List<Object> packets) {
+        ServerGamePacketListenerImpl playerConnection = getEntityPlayer(player).connection;
+
+        // The client disconnects when a bundle has more than 4096 packets
+        for (int i = 0; i < packets.size(); i += MAX_BUNDLE_SIZE) {
+            List<Packet<ClientGamePacketListener>> bundle = new ArrayList<>(Math.min(MAX_BUNDLE_SIZE, packets.size() - i));
+            for (int j = i; j < i + MAX_BUNDLE_SIZE && j < packets.size(); j++)
+                bundle.add((Packet<ClientGamePacketListener>) packets.get(j));
+            playerConnection.send(new ClientboundBundlePacket(bundle));
+        }
+    }
+
     @Override
     public @NotNull NBTCompatibility getNBTCompatibility() {
         return nbtCompatibility;
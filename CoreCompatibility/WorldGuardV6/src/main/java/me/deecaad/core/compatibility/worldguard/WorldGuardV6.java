@@ -1,5 +1,6 @@
 package me.deecaad.core.compatibility.worldguard;
 
+import com.sk89q.worldedit.BlockVector;
 import com.sk89q.worldguard.LocalPlayer;
 import com.sk89q.worldguard.bukkit.WorldGuardPlugin;
 import com.sk89q.worldguard.protection.ApplicableRegionSet;
@@ -7,8 +8,12 @@ import com.sk89q.worldguard.protection.flags.*;
 import com.sk89q.worldguard.protection.flags.registry.FlagConflictException;
 import com.sk89q.worldguard.protection.flags.registry.FlagRegistry;
 import com.sk89q.worldguard.protection.managers.RegionManager;
+import com.sk89q.worldguard.protection.regions.GlobalProtectedRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -23,18 +28,33 @@ public class WorldGuardV6 implements WorldGuardCompatibility {
 
     private final Map<String, Flag<?>> flags;
     private final FlagRegistry registry;
+    private final SectionCache cache;
 
     public WorldGuardV6() {
         flags = new HashMap<>();
         registry = WorldGuardPlugin.inst().getFlagRegistry();
+        cache = new SectionCache();
     }
 
     @Override
     public boolean testFlag(@NotNull Location location, @Nullable Player player, @NotNull String flagName) {
+        StateFlag stateFlag = getStateFlag(flagName);
+
+        World world = location.getWorld();
+        if (world != null) {
+            Boolean cached = cache.testFlag(world, location.getBlockX(), location.getBlockY(), location.getBlockZ(), player, flagName);
+            if (cached != null)
+                return cached;
+        }
+
         RegionManager regionManager = WorldGuardPlugin.inst().getRegionManager(location.getWorld());
         ApplicableRegionSet applicableRegionSet = regionManager.getApplicableRegions(location);
         LocalPlayer local = player == null ? null : WorldGuardPlugin.inst().wrapPlayer(player);
 
+        return applicableRegionSet.testState(local, stateFlag);
+    }
+
+    private StateFlag getStateFlag(String flagName) {
         Flag<?> flag = flags.get(flagName);
         if (flag == null) {
             String flagList = "[" + String.join(", ", flags.keySet()) + "]";
@@ -43,9 +63,7 @@ public class WorldGuardV6 implements WorldGuardCompatibility {
             throw new IllegalArgumentException("Flag: " + flagName + " is not a StateFlag");
         }
 
-        StateFlag stateFlag = (StateFlag) flag;
-
-        return applicableRegionSet.testState(local, stateFlag);
+        return (StateFlag) flag;
     }
 
     @Override
@@ -99,4 +117,39 @@ public class WorldGuardV6 implements WorldGuardCompatibility {
     public boolean isInstalled() {
         return true;
     }
+
+    @Override
+    public void nextTick() {
+        cache.clear();
+    }
+
+    private class SectionCache extends RegionFlagCache<ApplicableRegionSet> {
+
+        @Override
+        protected ApplicableRegionSet getSectionRegions(@NotNull World world, int minX, int minY, int minZ) {
+            RegionManager manager = WorldGuardPlugin.inst().getRegionManager(world);
+            if (manager == null)
+                return null;
+
+            BlockVector min = new BlockVector(minX, minY, minZ);
+            BlockVector max = new BlockVector(minX + 15, minY + 15, minZ + 15);
+            ApplicableRegionSet regions = manager.getApplicableRegions(new ProtectedCuboidRegion("mechanicscore_section", true, min, max));
+
+            // A cuboid region containing 2 opposite corners contains the
+            // whole section. Other shapes are too expensive to check.
+            for (ProtectedRegion region : regions) {
+                if (region instanceof GlobalProtectedRegion)
+                    continue;
+                if (!(region instanceof ProtectedCuboidRegion) || !region.contains(min) || !region.contains(max))
+                    return null;
+            }
+            return regions;
+        }
+
+        @Override
+        protected boolean testState(@NotNull ApplicableRegionSet regions, @Nullable Player player, @NotNull String flagName) {
+            LocalPlayer local = player == null ? null : WorldGuardPlugin.inst().wrapPlayer(player);
+            return regions.testState(local, getStateFlag(flagName));
+        }
+    }
 }
@@ -1,9 +1,13 @@
 package me.deecaad.core;
 
+import me.deecaad.core.compatibility.CompatibilityAPI;
+import me.deecaad.core.compatibility.entity.FakeEntityViewers;
 import me.deecaad.core.events.QueueSerializerEvent;
 import me.deecaad.core.events.triggers.EquipListener;
 import me.deecaad.core.file.*;
 import me.deecaad.core.file.serializers.ItemSerializer;
+import me.deecaad.core.listeners.BlockSnapshotListener;
+import me.deecaad.core.listeners.EntitySpatialIndexListener;
 import me.deecaad.core.listeners.ItemCraftListener;
 import me.deecaad.core.listeners.MechanicsCastListener;
 import me.deecaad.core.mechanics.Mechanics;
@@ -21,6 +25,8 @@ import me.deecaad.core.utils.Debugger;
 import me.deecaad.core.utils.FileUtil;
 import me.deecaad.core.utils.LogLevel;
 import me.deecaad.core.utils.ReflectionUtil;
+import me.deecaad.core.utils.ray.BlockSnapshotCache;
+import me.deecaad.core.utils.ray.EntitySpatialIndex;
 import net.kyori.adventure.platform.bukkit.BukkitAudiences;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 import org.bukkit.Bukkit;
@@ -116,6 +122,21 @@ public class MechanicsCore extends JavaPlugin {
         }
         Bukkit.getPluginManager().registerEvents(new ItemCraftListener(), this);
         Bukkit.getPluginManager().registerEvents(new MechanicsCastListener(), this);
+        Bukkit.getPluginManager().registerEvents(new BlockSnapshotListener(), this);
+        Bukkit.getPluginManager().registerEvents(new EntitySpatialIndexListener(), this);
+
+        // Ray traces cache blocks for 1 tick, see BlockSnapshotCache, and
+        // EntitySpatialIndex drops the indexes of unused worlds. Fake entities
+        // cache their viewers for 1 tick, and packets queued after a plugin's
+        // flush are sent here. WorldGuard flag results are also cached for 1
+        // tick.
+        Bukkit.getScheduler().runTaskTimer(this, () -> {
+            BlockSnapshotCache.nextTick();
+            EntitySpatialIndex.nextTick();
+            FakeEntityViewers.flush();
+            FakeEntityViewers.nextTick();
+            CompatibilityAPI.getWorldGuardCompatibility().nextTick();
+        }, 0, 1);
 
         // Adventure Chat API
         adventure = BukkitAudiences.create(this);
@@ -147,6 +168,9 @@ public class MechanicsCore extends JavaPlugin {
     public void onDisable() {
         HandlerList.unregisterAll(this);
         Bukkit.getServer().getScheduler().cancelTasks(this);
+        BlockSnapshotCache.clear();
+        EntitySpatialIndex.clear();
+        FakeEntityViewers.clear();
         debug = null;
         adventure.close();
         adventure = null;
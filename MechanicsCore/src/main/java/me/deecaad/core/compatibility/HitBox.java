@@ -8,6 +8,7 @@ import org.bukkit.Color;
 import org.bukkit.Particle;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
+import org.bukkit.block.BlockState;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.util.Vector;
@@ -61,6 +62,13 @@ public class HitBox {
         voxelShape.add(hitBox);
     }
 
+    /**
+     * @return the voxel shape parts of this hit box, or null if it only has 1 box
+     */
+    public Collection<HitBox> getVoxelShape() {
+        return voxelShape;
+    }
+
     public double getMinX() {
         return minX;
     }
@@ -245,7 +253,7 @@ public class HitBox {
      * @return the ray trace result or null if there is no hit
      */
     public RayTraceResult rayTrace(Vector location, Vector normalizedMotion) {
-        RayTraceResult mainBoxHit = ray(location, normalizedMotion);
+        RayTraceResult mainBoxHit = ray(location, normalizedMotion, null);
 
         // Voxel shape not used or didn't hit main hitbox
         if (voxelShape == null || mainBoxHit == null) return mainBoxHit;
@@ -253,6 +261,7 @@ public class HitBox {
         // Here we know main hitbox was hit, now check all voxel shapes
         RayTraceResult hit = null;
         double closestHit = -1;
+        BlockState blockState = mainBoxHit instanceof BlockTraceResult blockHit ? blockHit.getBlockState() : null;
         for (HitBox boxPart : voxelShape) {
 
             if (mainBoxHit instanceof BlockTraceResult blockHit) {
@@ -261,7 +270,7 @@ public class HitBox {
                 boxPart.setLivingEntity(entityHit.getEntity());
             }
 
-            RayTraceResult boxPartHit = boxPart.ray(location, normalizedMotion);
+            RayTraceResult boxPartHit = boxPart.ray(location, normalizedMotion, blockState);
             if (boxPartHit == null) continue;
 
             // Only closest hit
@@ -277,8 +286,9 @@ public class HitBox {
     /**
      * Uses BoundingBox class method rayTrace(Vector, Vector, double) with slight modifications. Easier backwards compatibility this way.
      * <a href="https://hub.spigotmc.org/javadocs/bukkit/org/bukkit/util/BoundingBox.html#rayTrace(org.bukkit.util.Vector,org.bukkit.util.Vector,double)">...</a>
+     * The block state is copied from the block when null.
      */
-    private RayTraceResult ray(Vector location, Vector normalizedMotion) {
+    private RayTraceResult ray(Vector location, Vector normalizedMotion, BlockState blockState) {
 
         double startX = location.getX();
         double startY = location.getY();
@@ -361,7 +371,9 @@ public class HitBox {
         if (tMax < 0.0) return null;
 
         if (block != null) {
-            return new BlockTraceResult(location, normalizedMotion, this, hitBlockFaceMin, hitBlockFaceMax, tMin, tMax, block);
+            return blockState == null
+                    ? new BlockTraceResult(location, normalizedMotion, this, hitBlockFaceMin, hitBlockFaceMax, tMin, tMax, block)
+                    : new BlockTraceResult(location, normalizedMotion, this, hitBlockFaceMin, hitBlockFaceMax, tMin, tMax, block, blockState);
         } else if (livingEntity == null) {
             // When not entity or block hitbox
             return new RayTraceResult(location, normalizedMotion, this, hitBlockFaceMin, hitBlockFaceMax, tMin, tMax);
@@ -10,6 +10,8 @@ import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.List;
+
 /**
  * This interface outlines a version dependant api, where there is an
  * implementing class for each minecraft protocol version.
@@ -69,6 +71,20 @@ public interface ICompatibility {
      */
     void sendPackets(Player player, Object... packets);
 
+    /**
+     * Sends the given <code>packets</code> to the given <code>player</code>,
+     * so the client handles all of them during the same frame. In 1.19.4
+     * and higher, the packets are wrapped in bundle packets. In older
+     * versions, the packets are sent one by one.
+     *
+     * @param player  The non-null player to send the packets to.
+     * @param packets The non-null list of non-null packets to send to the
+     *                player.
+     */
+    default void sendBundledPackets(@NotNull Player player, @NotNull List<Object> packets) {
+        sendPackets(player, packets.toArray());
+    }
+
     /**
      * Returns this version's loaded {@link NBTCompatibility}. The classes for
      * each version can be found in the nbt package.
@@ -5,15 +5,14 @@ import me.deecaad.core.compatibility.ICompatibility;
 import org.bukkit.Material;
 import org.bukkit.Sound;
 import org.bukkit.SoundGroup;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockState;
 import org.bukkit.block.data.BlockData;
 import org.bukkit.entity.Player;
-import org.bukkit.util.BoundingBox;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -60,36 +59,19 @@ public interface BlockCompatibility {
         // This default should only be used after 1.17
         if (block.isEmpty()) return null;
 
-        boolean isLiquid = block.isLiquid();
-        if (!allowLiquid) {
-            if (block.isPassable() || block.isLiquid()) return null;
-        } else if (!isLiquid && block.isPassable()) {
-            // Check like this because liquid is also passable...
-            return null;
-        }
+        if (block.isLiquid()) {
+            if (!allowLiquid) return null;
 
-        HitBox hitBox;
-        if (isLiquid) {
-            hitBox = new HitBox(block.getX(), block.getY(), block.getZ(), block.getX() + 1, block.getY() + 1, block.getZ() + 1);
-        } else {
-            BoundingBox boundingBox = block.getBoundingBox();
-            hitBox = new HitBox(boundingBox.getMinX(), boundingBox.getMinY(), boundingBox.getMinZ(), boundingBox.getMaxX(), boundingBox.getMaxY(), boundingBox.getMaxZ());
-        }
-        hitBox.setBlockHitBox(block);
-
-        // This default should only be used after 1.17 R1
-        Collection<BoundingBox> voxelShape = block.getCollisionShape().getBoundingBoxes();
-        if (voxelShape.size() > 1) {
-            int x = block.getX();
-            int y = block.getY();
-            int z = block.getZ();
-            for (BoundingBox boxPart : voxelShape) {
-                hitBox.addVoxelShapePart(new HitBox(x + boxPart.getMinX(), y + boxPart.getMinY(), z + boxPart.getMinZ(),
-                        x + boxPart.getMaxX(), y + boxPart.getMaxY(), z + boxPart.getMaxZ()));
-            }
+            HitBox hitBox = new HitBox(block.getX(), block.getY(), block.getZ(), block.getX() + 1, block.getY() + 1, block.getZ() + 1);
+            hitBox.setBlockHitBox(block);
+            return hitBox;
         }
 
-        return hitBox;
+        // The shape only depends on the block state, so it is shared
+        double[] shape = VoxelShapeTable.getShape(block);
+        if (shape.length == 0) return null;
+
+        return VoxelShapeTable.toHitBox(block, shape);
     }
 
     /**
@@ -207,6 +189,35 @@ public interface BlockCompatibility {
         return block.getType().getBlastResistance();
     }
 
+    /**
+     * Copies the block states of the given chunk section, so they can be read
+     * from other threads. Only the section is copied, which is much cheaper
+     * than a {@link org.bukkit.ChunkSnapshot} of the whole chunk. This must
+     * be called from the main thread.
+     *
+     * @param world    The non-null world of the section.
+     * @param sectionX The chunk x coordinate of the section.
+     * @param sectionY The section y coordinate (block y / 16).
+     * @param sectionZ The chunk z coordinate of the section.
+     * @return The copy, or null if the chunk is not loaded or sections cannot be copied in this version.
+     */
+    @Nullable
+    default SectionSnapshot getSectionSnapshot(@NotNull World world, int sectionX, int sectionY, int sectionZ) {
+        return null;
+    }
+
+    /**
+     * Returns the state {@link SectionSnapshot#getState(int, int, int)}
+     * returns for blocks with the given data.
+     *
+     * @param data The non-null block data.
+     * @return The non-null state.
+     */
+    @NotNull
+    default Object getState(@NotNull BlockData data) {
+        return data;
+    }
+
     class SoundData {
         public SoundType type;
         public Sound sound;
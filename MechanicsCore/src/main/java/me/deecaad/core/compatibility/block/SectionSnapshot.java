@@ -0,0 +1,27 @@
+package me.deecaad.core.compatibility.block;
+
+import org.bukkit.block.data.BlockData;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Copy of the block states of 1 chunk section (16 x 16 x 16 blocks), which
+ * may be read from any thread.
+ *
+ * @see BlockCompatibility#getSectionSnapshot(org.bukkit.World, int, int, int)
+ */
+@FunctionalInterface
+public interface SectionSnapshot {
+
+    /**
+     * Returns the state of the block at the given coordinates. Only the
+     * lowest 4 bits of each coordinate are used. The returned state is equal
+     * to {@link BlockCompatibility#getState(BlockData)} of the same block.
+     *
+     * @param x The x coordinate of the block.
+     * @param y The y coordinate of the block.
+     * @param z The z coordinate of the block.
+     * @return The non-null state of the block.
+     */
+    @NotNull
+    Object getState(int x, int y, int z);
+}
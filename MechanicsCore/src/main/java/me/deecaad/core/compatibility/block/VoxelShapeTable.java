@@ -0,0 +1,249 @@
+package me.deecaad.core.compatibility.block;
+
+import me.deecaad.core.compatibility.HitBox;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.util.BoundingBox;
+import org.bukkit.util.Vector;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared table of block collision shapes. The shape of a block only depends
+ * on its {@link BlockData}, so instead of building new hit boxes from
+ * {@link Block#getBoundingBox()} and {@link Block#getCollisionShape()} for
+ * every block, each state's shape is computed once and stored as a flat
+ * <code>double[]</code> relative to the block's position.
+ *
+ * <p>Each shape is stored as groups of 6 values
+ * <code>minX, minY, minZ, maxX, maxY, maxZ</code>. The first group is the
+ * bounding box of the whole block. When the block is made up of more than
+ * 1 box (stairs, fences, etc.), each box follows. Passable blocks have an
+ * empty shape. The returned arrays are shared, and should never be
+ * modified.
+ *
+ * <p>This class is threadsafe. Shapes can only be <i>computed</i> from a
+ * {@link Block} (which should be done on the main thread), but previously
+ * computed shapes can be read from any thread using
+ * {@link #getIfPresent(BlockData)}.
+ *
+ * <p>This should only be used in 1.17 R1 and higher, since it uses
+ * {@link Block#getCollisionShape()}.
+ */
+public final class VoxelShapeTable {
+
+    /**
+     * The shape of passable blocks.
+     */
+    public static final double[] EMPTY = new double[0];
+
+    private static final Map<BlockData, double[]> SHAPES = new ConcurrentHashMap<>();
+
+    // These blocks are randomly offset based on their position, so their
+    // shape cannot be shared between blocks with the same BlockData.
+    private static final Set<Material> OFFSET_BLOCKS = EnumSet.noneOf(Material.class);
+
+    static {
+        for (String name : new String[]{ "BAMBOO", "POINTED_DRIPSTONE" }) {
+            try {
+                OFFSET_BLOCKS.add(Material.valueOf(name));
+            } catch (IllegalArgumentException ignore) {
+                // Material doesn't exist in this version
+            }
+        }
+    }
+
+    /**
+     * Don't let anyone instantiate this class
+     */
+    private VoxelShapeTable() {
+    }
+
+    /**
+     * Returns the shape of the given non-liquid block, computing it if it
+     * has not been computed yet.
+     *
+     * @param block The non-null block to get the shape of.
+     * @return The non-null shared shape, or {@link #EMPTY} when passable.
+     */
+    @NotNull
+    public static double[] getShape(@NotNull Block block) {
+        BlockData data = block.getBlockData();
+        if (OFFSET_BLOCKS.contains(data.getMaterial()))
+            return compute(block);
+
+        double[] shape = SHAPES.get(data);
+        if (shape == null) {
+            shape = compute(block);
+            SHAPES.putIfAbsent(data, shape);
+        }
+        return shape;
+    }
+
+    /**
+     * Returns the shape of the given block state if it was already computed.
+     * This method may be used from any thread.
+     *
+     * @param data The non-null block state.
+     * @return The shared shape, or null if it was not computed yet.
+     */
+    @Nullable
+    public static double[] getIfPresent(@NotNull BlockData data) {
+        return SHAPES.get(data);
+    }
+
+    /**
+     * Builds a new hit box for the block at the given position using the
+     * given shape.
+     *
+     * @param block The non-null block that the shape belongs to.
+     * @param shape The non-null, non-empty shape of the block.
+     * @return The non-null hit box.
+     */
+    @NotNull
+    public static HitBox toHitBox(@NotNull Block block, @NotNull double[] shape) {
+        int x = block.getX();
+        int y = block.getY();
+        int z = block.getZ();
+
+        HitBox hitBox = new HitBox(x + shape[0], y + shape[1], z + shape[2], x + shape[3], y + shape[4], z + shape[5]);
+        hitBox.setBlockHitBox(block);
+        for (int i = 6; i < shape.length; i += 6) {
+            hitBox.addVoxelShapePart(new HitBox(x + shape[i], y + shape[i + 1], z + shape[i + 2],
+                    x + shape[i + 3], y + shape[i + 4], z + shape[i + 5]));
+        }
+        return hitBox;
+    }
+
+    /**
+     * Returns <code>true</code> if the ray intersects the given shape placed
+     * at the given block position. This gives the same result as
+     * {@link HitBox#rayTrace(Vector, Vector)} on the hit box built by
+     * {@link #toHitBox(Block, double[])}, but does not allocate any objects,
+     * so it can be used to skip building a {@link HitBox} for blocks the ray
+     * only passes by.
+     *
+     * @param shape     The non-null shape to test.
+     * @param x         The x coordinate of the block.
+     * @param y         The y coordinate of the block.
+     * @param z         The z coordinate of the block.
+     * @param origin    The non-null start of the ray.
+     * @param direction The non-null normalized direction of the ray.
+     * @return true if the ray hits any box in the shape.
+     */
+    public static boolean intersects(@NotNull double[] shape, int x, int y, int z, @NotNull Vector origin, @NotNull Vector direction) {
+        if (shape.length == 0)
+            return false;
+
+        // Translate the ray instead of the shape
+        double startX = origin.getX() - x;
+        double startY = origin.getY() - y;
+        double startZ = origin.getZ() - z;
+        double dirX = direction.getX();
+        double dirY = direction.getY();
+        double dirZ = direction.getZ();
+
+        // Only the bounding box needs to be checked for single box shapes
+        if (!intersects(shape, 0, startX, startY, startZ, dirX, dirY, dirZ))
+            return false;
+        if (shape.length == 6)
+            return true;
+
+        for (int i = 6; i < shape.length; i += 6) {
+            if (intersects(shape, i, startX, startY, startZ, dirX, dirY, dirZ))
+                return true;
+        }
+        return false;
+    }
+
+    private static boolean intersects(double[] shape, int i, double startX, double startY, double startZ, double dirX, double dirY, double dirZ) {
+        double tMin = Double.NEGATIVE_INFINITY;
+        double tMax = Double.POSITIVE_INFINITY;
+
+        // When the ray is parallel to an axis, dividing by 0 would give
+        // 0 * Infinity = NaN for rays starting on a face. Those rays hit
+        // when they start between the 2 faces.
+        if (dirX == 0.0) {
+            if (startX < shape[i] || startX > shape[i + 3])
+                return false;
+        } else {
+            double t1 = (shape[i] - startX) / dirX;
+            double t2 = (shape[i + 3] - startX) / dirX;
+            tMin = Math.min(t1, t2);
+            tMax = Math.max(t1, t2);
+        }
+
+        if (dirY == 0.0) {
+            if (startY < shape[i + 1] || startY > shape[i + 4])
+                return false;
+        } else {
+            double t1 = (shape[i + 1] - startY) / dirY;
+            double t2 = (shape[i + 4] - startY) / dirY;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+
+        if (dirZ == 0.0) {
+            if (startZ < shape[i + 2] || startZ > shape[i + 5])
+                return false;
+        } else {
+            double t1 = (shape[i + 2] - startZ) / dirZ;
+            double t2 = (shape[i + 5] - startZ) / dirZ;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+
+        return tMin <= tMax && tMax >= 0.0;
+    }
+
+    /**
+     * Removes all computed shapes. Shapes never change while the server is
+     * running, so this is only useful to free memory.
+     */
+    public static void clear() {
+        SHAPES.clear();
+    }
+
+    private static double[] compute(Block block) {
+        if (block.isEmpty() || block.isPassable())
+            return EMPTY;
+
+        int x = block.getX();
+        int y = block.getY();
+        int z = block.getZ();
+
+        BoundingBox boundingBox = block.getBoundingBox();
+        Collection<BoundingBox> voxelShape = block.getCollisionShape().getBoundingBoxes();
+        int parts = voxelShape.size() > 1 ? voxelShape.size() : 0;
+
+        double[] shape = new double[6 + parts * 6];
+        shape[0] = boundingBox.getMinX() - x;
+        shape[1] = boundingBox.getMinY() - y;
+        shape[2] = boundingBox.getMinZ() - z;
+        shape[3] = boundingBox.getMaxX() - x;
+        shape[4] = boundingBox.getMaxY() - y;
+        shape[5] = boundingBox.getMaxZ() - z;
+
+        // Collision shape boxes are already relative to the block
+        if (parts != 0) {
+            int i = 6;
+            for (BoundingBox boxPart : voxelShape) {
+                shape[i++] = boxPart.getMinX();
+                shape[i++] = boxPart.getMinY();
+                shape[i++] = boxPart.getMinZ();
+                shape[i++] = boxPart.getMaxX();
+                shape[i++] = boxPart.getMaxY();
+                shape[i++] = boxPart.getMaxZ();
+            }
+        }
+
+        return shape;
+    }
+}
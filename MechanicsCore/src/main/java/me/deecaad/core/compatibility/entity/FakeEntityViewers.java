@@ -0,0 +1,180 @@
+package me.deecaad.core.compatibility.entity;
+
+import me.deecaad.core.compatibility.CompatibilityAPI;
+import me.deecaad.core.utils.DistanceUtil;
+import me.deecaad.core.utils.NumberUtil;
+import me.deecaad.core.utils.primitive.LongMap;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shared interest management for {@link FakeEntity fake entities}. Instead of
+ * every fake entity looping through every player in its world to find who
+ * can see it, the players who can see a chunk section (16x16x16 blocks) are
+ * found once per tick, and shared by every fake entity in that section.
+ *
+ * <p>Fake entities also queue their packets here instead of sending them
+ * immediately. Every packet a player received from fake entities during a
+ * tick is sent in 1 {@link me.deecaad.core.compatibility.ICompatibility#sendBundledPackets(Player, List) bundle}
+ * when {@link #flush()} is called, so the client applies all of them on the
+ * same frame.
+ *
+ * <p>This class is only used from the main server thread. Calls from other
+ * threads fall back to {@link DistanceUtil#getPlayersInRange(Location)} and
+ * sending packets immediately.
+ */
+public final class FakeEntityViewers {
+
+    private static final Map<World, WorldViewers> WORLDS = new HashMap<>();
+    private static final Map<Player, List<Object>> QUEUE = new LinkedHashMap<>();
+
+    /**
+     * Don't let anyone instantiate this class
+     */
+    private FakeEntityViewers() {
+    }
+
+    /**
+     * Returns the players who can see the chunk section of the given
+     * location. Players are in range when they are within the world's view
+     * distance of any block in the section, so this may include players up
+     * to 16 blocks further away than {@link DistanceUtil#getPlayersInRange(Location)}.
+     *
+     * <p>The returned list is shared, and is only valid for the current tick.
+     *
+     * @param location The non-null location of the fake entity.
+     * @return The non-null, unmodifiable list of players.
+     */
+    @NotNull
+    public static List<Player> getViewers(@NotNull Location location) {
+        World world = location.getWorld();
+        if (world == null)
+            throw new IllegalArgumentException("location.world cannot be null");
+        if (!Bukkit.isPrimaryThread())
+            return DistanceUtil.getPlayersInRange(location);
+
+        WorldViewers viewers = WORLDS.computeIfAbsent(world, WorldViewers::new);
+        int sectionX = NumberUtil.intFloor(location.getX()) >> 4;
+        int sectionY = NumberUtil.intFloor(location.getY()) >> 4;
+        int sectionZ = NumberUtil.intFloor(location.getZ()) >> 4;
+        long key = sectionKey(sectionX, sectionY, sectionZ);
+
+        List<Player> section = viewers.sections.get(key);
+        if (section == null) {
+            section = viewers.compute(sectionX, sectionY, sectionZ);
+            viewers.sections.put(key, section);
+        }
+        return section;
+    }
+
+    /**
+     * Queues the given packet to be sent to the player during the next
+     * {@link #flush()}. Packets are sent in the same order they were queued.
+     *
+     * @param player The non-null player to send the packet to.
+     * @param packet The non-null packet to send.
+     */
+    public static void queue(@NotNull Player player, @NotNull Object packet) {
+        if (!Bukkit.isPrimaryThread()) {
+            CompatibilityAPI.getCompatibility().sendPackets(player, packet);
+            return;
+        }
+
+        QUEUE.computeIfAbsent(player, k -> new ArrayList<>()).add(packet);
+    }
+
+    /**
+     * Sends every queued packet, 1 bundle per player, and clears the queue.
+     * This is called once every tick.
+     */
+    public static void flush() {
+        if (QUEUE.isEmpty())
+            return;
+
+        for (Map.Entry<Player, List<Object>> entry : QUEUE.entrySet()) {
+            if (entry.getKey().isOnline())
+                CompatibilityAPI.getCompatibility().sendBundledPackets(entry.getKey(), entry.getValue());
+        }
+
+        QUEUE.clear();
+    }
+
+    /**
+     * Marks every viewer list as outdated. This is called at the start of
+     * every tick.
+     */
+    public static void nextTick() {
+        WORLDS.clear();
+    }
+
+    /**
+     * Removes all viewer lists and queued packets. This should be called when
+     * the plugin is disabled.
+     */
+    public static void clear() {
+        WORLDS.clear();
+        QUEUE.clear();
+    }
+
+    private static long sectionKey(int sectionX, int sectionY, int sectionZ) {
+        return ((long) sectionX & 0x3FFFFFL) << 42 | ((long) sectionZ & 0x3FFFFFL) << 20 | ((long) sectionY & 0xFFFFFL);
+    }
+
+    private static final class WorldViewers {
+
+        private final int range;
+        private final Player[] players;
+        private final double[] positions;
+        private final LongMap<List<Player>> sections = new LongMap<>();
+
+        private WorldViewers(World world) {
+            this.range = DistanceUtil.getRange(world);
+
+            // Copy every player's position once, so each section doesn't
+            // need to ask every player for their location again
+            List<Player> list = world.getPlayers();
+            this.players = list.toArray(new Player[0]);
+            this.positions = new double[players.length * 3];
+
+            Location temp = new Location(null, 0, 0, 0);
+            for (int i = 0; i < players.length; i++) {
+                players[i].getLocation(temp);
+                positions[i * 3] = temp.getX();
+                positions[i * 3 + 1] = temp.getY();
+                positions[i * 3 + 2] = temp.getZ();
+            }
+        }
+
+        private List<Player> compute(int sectionX, int sectionY, int sectionZ) {
+            if (players.length == 0)
+                return Collections.emptyList();
+
+            double minX = (sectionX << 4) - range;
+            double minY = (sectionY << 4) - range;
+            double minZ = (sectionZ << 4) - range;
+            double maxX = (sectionX << 4) + 16 + range;
+            double maxY = (sectionY << 4) + 16 + range;
+            double maxZ = (sectionZ << 4) + 16 + range;
+
+            List<Player> viewers = new ArrayList<>(players.length);
+            for (int i = 0; i < players.length; i++) {
+                double x = positions[i * 3];
+                double y = positions[i * 3 + 1];
+                double z = positions[i * 3 + 2];
+                if (x > minX && x < maxX && y > minY && y < maxY && z > minZ && z < maxZ)
+                    viewers.add(players[i]);
+            }
+            return Collections.unmodifiableList(viewers);
+        }
+    }
+}
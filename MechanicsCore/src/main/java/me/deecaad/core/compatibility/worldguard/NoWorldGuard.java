@@ -1,11 +1,14 @@
 package me.deecaad.core.compatibility.worldguard;
 
 import org.bukkit.Location;
+import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -18,6 +21,13 @@ public class NoWorldGuard implements WorldGuardCompatibility {
         return true;
     }
 
+    @Override
+    public @NotNull BitSet testFlag(@NotNull List<Block> blocks, @Nullable Player player, @NotNull String flagName) {
+        BitSet enabled = new BitSet(blocks.size());
+        enabled.set(0, blocks.size());
+        return enabled;
+    }
+
     @Override
     public Object getValue(@NotNull Location location, @NotNull String flagName) {
         return null;
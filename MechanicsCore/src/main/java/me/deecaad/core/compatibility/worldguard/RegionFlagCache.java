@@ -0,0 +1,117 @@
+package me.deecaad.core.compatibility.worldguard;
+
+import me.deecaad.core.utils.primitive.LongMap;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Caches state flag results per chunk section (16x16x16 blocks) for 1 tick.
+ * Most sections are either outside every region, or completely inside the
+ * same regions. Every block in such a section shares 1 region query, and
+ * each flag is tested once per player (or <code>null</code>) per section.
+ * Blocks in sections cut by a region's border are not cached, and have to
+ * be queried at their exact location.
+ *
+ * <p>WorldGuard does not tell us when regions change, so the cache is
+ * cleared at the start of every tick, see {@link WorldGuardCompatibility#nextTick()}.
+ * This class is only used from the main server thread.
+ *
+ * @param <R> The region set type of the WorldGuard version.
+ */
+public abstract class RegionFlagCache<R> {
+
+    private final Map<World, LongMap<Section<R>>> worlds = new HashMap<>();
+
+    /**
+     * Returns the regions that contain every block of the given section, or
+     * <code>null</code> if some blocks of the section may be in different
+     * regions.
+     *
+     * @param world The non-null world of the section.
+     * @param minX  The x coordinate of the first block of the section.
+     * @param minY  The y coordinate of the first block of the section.
+     * @param minZ  The z coordinate of the first block of the section.
+     * @return The regions shared by the section, or <code>null</code>.
+     */
+    @Nullable
+    protected abstract R getSectionRegions(@NotNull World world, int minX, int minY, int minZ);
+
+    /**
+     * Tests the state flag for the given regions.
+     *
+     * @param regions  The non-null regions returned by {@link #getSectionRegions(World, int, int, int)}.
+     * @param player   The player involved, or <code>null</code>.
+     * @param flagName The non-null name of the flag.
+     * @return <code>true</code> if the flag is enabled.
+     */
+    protected abstract boolean testState(@NotNull R regions, @Nullable Player player, @NotNull String flagName);
+
+    /**
+     * Returns the cached result of the state flag at the given block, if the
+     * block's section is completely inside the same regions.
+     *
+     * @param world    The non-null world of the block.
+     * @param x        The x coordinate of the block.
+     * @param y        The y coordinate of the block.
+     * @param z        The z coordinate of the block.
+     * @param player   The player involved, or <code>null</code>.
+     * @param flagName The non-null name of the flag.
+     * @return The result, or <code>null</code> if the block has to be queried at its exact location.
+     */
+    @Nullable
+    public Boolean testFlag(@NotNull World world, int x, int y, int z, @Nullable Player player, @NotNull String flagName) {
+        if (!Bukkit.isPrimaryThread())
+            return null;
+
+        LongMap<Section<R>> sections = worlds.computeIfAbsent(world, k -> new LongMap<>());
+        long key = sectionKey(x >> 4, y >> 4, z >> 4);
+        Section<R> section = sections.get(key);
+        if (section == null) {
+            section = new Section<>(getSectionRegions(world, x & ~15, y & ~15, z & ~15));
+            sections.put(key, section);
+        }
+
+        R regions = section.regions;
+        if (regions == null)
+            return null;
+
+        FlagKey flagKey = new FlagKey(flagName, player == null ? null : player.getUniqueId());
+        Boolean result = section.results.get(flagKey);
+        if (result == null) {
+            result = testState(regions, player, flagName);
+            section.results.put(flagKey, result);
+        }
+        return result;
+    }
+
+    /**
+     * Removes every cached section.
+     */
+    public void clear() {
+        worlds.clear();
+    }
+
+    private static long sectionKey(int sectionX, int sectionY, int sectionZ) {
+        return ((long) sectionX & 0x3FFFFFL) << 42 | ((long) sectionZ & 0x3FFFFFL) << 20 | ((long) sectionY & 0xFFFFFL);
+    }
+
+    private record FlagKey(String flagName, UUID player) {
+    }
+
+    private static final class Section<R> {
+
+        private final R regions;
+        private final Map<FlagKey, Boolean> results = new HashMap<>(4);
+
+        private Section(R regions) {
+            this.regions = regions;
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package me.deecaad.core.compatibility.worldguard;
 
 import org.bukkit.Location;
+import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.BitSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -30,6 +33,29 @@ public interface WorldGuardCompatibility {
      */
     boolean testFlag(@NotNull Location location, @Nullable Player player, @NotNull String flagName);
 
+    /**
+     * Tests the state flag with the given <code>flagName</code> for every
+     * block in the list. This is the same as calling
+     * {@link #testFlag(Location, Player, String)} for each block, but blocks
+     * in the same chunk section share their region query whenever the whole
+     * section is inside the same regions.
+     *
+     * @param blocks   The non-null blocks to test.
+     * @param player   The player involved, or <code>null</code>.
+     * @param flagName The non-null name of the flag.
+     * @return The non-null set of the indexes of the blocks where the flag is enabled.
+     */
+    @NotNull
+    default BitSet testFlag(@NotNull List<Block> blocks, @Nullable Player player, @NotNull String flagName) {
+        BitSet enabled = new BitSet(blocks.size());
+        Location temp = new Location(null, 0, 0, 0);
+        for (int i = 0; i < blocks.size(); i++) {
+            if (testFlag(blocks.get(i).getLocation(temp), player, flagName))
+                enabled.set(i);
+        }
+        return enabled;
+    }
+
     /**
      * Returns the value of a flag with the given <code>flagName</code>. The
      * returned value depends on the region that contains the
@@ -71,6 +97,13 @@ public interface WorldGuardCompatibility {
     @NotNull
     Set<String> getRegisteredFlags();
 
+    /**
+     * Clears cached flag results. This is called at the start of every tick,
+     * since WorldGuard does not tell us when regions change.
+     */
+    default void nextTick() {
+    }
+
     /**
      * This enum outlines the different data types that a flag can store.
      */
@@ -6,6 +6,8 @@ import org.bukkit.scheduler.BukkitRunnable;
 
 import org.jetbrains.annotations.Nullable;
 import java.sql.*;
+import java.util.Arrays;
+import java.util.List;
 import java.util.function.Consumer;
 
 public abstract class Database {
@@ -104,6 +106,84 @@ public abstract class Database {
         }
     }
 
+    /**
+     * Runs given parameterized SQL statement once for every given row of
+     * parameters, as 1 batch in 1 transaction. Parameters are bound using
+     * {@link PreparedStatement#setObject(int, Object)}, so values never have
+     * to be quoted or escaped.
+     * <p>
+     * This blocks until the batch is written, so it should not be called
+     * from the main server thread, unless the server is shutting down.
+     *
+     * @param sql the sql statement to run, using ? for parameters
+     * @param rows the parameters of each row
+     * @return true if every row was written
+     */
+    public boolean executeBatch(String sql, List<Object[]> rows) {
+        if (rows.isEmpty()) return true;
+
+        Connection connection = null;
+        PreparedStatement preparedStatement = null;
+        try {
+            connection = getConnection();
+            connection.setAutoCommit(false);
+            preparedStatement = connection.prepareStatement(sql);
+
+            for (Object[] row : rows) {
+                setParameters(preparedStatement, row);
+                preparedStatement.addBatch();
+            }
+
+            preparedStatement.executeBatch();
+            connection.commit();
+            connection.setAutoCommit(true);
+            return true;
+        } catch (SQLException e) {
+            MechanicsCore.debug.log(LogLevel.ERROR, e);
+            if (connection != null) try { connection.rollback(); connection.setAutoCommit(true); } catch (SQLException ignore) { }
+            return false;
+        } finally {
+            close(connection, preparedStatement, null);
+        }
+    }
+
+    /**
+     * Returns a parameterized statement which inserts a row, or updates the
+     * row when a row with the same primary key already exists. The statement
+     * has 1 parameter for each column, in the given order.
+     *
+     * @param table the table to insert into
+     * @param columns every column of the table
+     * @param keys the columns of the primary key
+     * @return the non-null upsert statement
+     */
+    public String getUpsertString(String table, String[] columns, String... keys) {
+        StringBuilder builder = new StringBuilder();
+
+        // Old servers bundle SQLite versions without ON CONFLICT upserts.
+        // Every column is written anyway, so replacing the row is the same.
+        builder.append(type == DatabaseType.SQLITE ? "INSERT OR REPLACE INTO " : "INSERT INTO ").append(table).append(" (");
+        builder.append(String.join(", ", columns)).append(") VALUES (");
+        for (int i = 0; i < columns.length; i++) {
+            if (i != 0) builder.append(", ");
+            builder.append('?');
+        }
+        builder.append(')');
+
+        if (type == DatabaseType.MYSQL) {
+            List<String> keyList = Arrays.asList(keys);
+            boolean first = true;
+            for (String column : columns) {
+                if (keyList.contains(column)) continue;
+                builder.append(first ? " ON DUPLICATE KEY UPDATE " : ", ");
+                builder.append(column).append("=VALUES(").append(column).append(')');
+                first = false;
+            }
+        }
+
+        return builder.toString();
+    }
+
     /**
      * Runs given SQL query in async.
      * Used to SELECT.
@@ -116,7 +196,21 @@ public abstract class Database {
      * @param consumer the consumer for result set of query
      */
     public void executeQuery(String sql, Consumer<ResultSet> consumer) {
-        if (sql == null || sql.isEmpty() || consumer == null) throw new IllegalArgumentException("Empty statement or null consumer");
+        executeQuery(sql, new Object[0], consumer);
+    }
+
+    /**
+     * Runs given parameterized SQL query in async. Parameters are bound the
+     * same way as in {@link #executeBatch(String, List)}.
+     * <p>
+     * Keep in mind that the consumer is still ran in async.
+     *
+     * @param sql the sql query to run, using ? for parameters
+     * @param params the parameters of the query
+     * @param consumer the consumer for result set of query
+     */
+    public void executeQuery(String sql, Object[] params, Consumer<ResultSet> consumer) {
+        if (sql == null || sql.isEmpty() || params == null || consumer == null) throw new IllegalArgumentException("Empty statement, null params or null consumer");
         new BukkitRunnable() {
             public void run() {
                 Connection connection = null;
@@ -125,6 +219,7 @@ public abstract class Database {
                 try {
                     connection = getConnection();
                     preparedStatement = connection.prepareStatement(sql);
+                    setParameters(preparedStatement, params);
                     resultSet = preparedStatement.executeQuery();
                     consumer.accept(resultSet);
                 } catch (SQLException e) {
@@ -136,6 +231,13 @@ public abstract class Database {
         }.runTaskAsynchronously(MechanicsCore.getPlugin());
     }
 
+    private static void setParameters(PreparedStatement preparedStatement, Object[] params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            if (params[i] == null) preparedStatement.setNull(i + 1, Types.NULL);
+            else preparedStatement.setObject(i + 1, params[i]);
+        }
+    }
+
     /**
      * Simple method to print the result set to console.
      * Requires LogLevel.DEBUG
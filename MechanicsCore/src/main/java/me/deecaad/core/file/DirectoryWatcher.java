@@ -0,0 +1,140 @@
+package me.deecaad.core.file;
+
+import me.deecaad.core.MechanicsCore;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches a directory (and every directory inside it) for changes, and runs
+ * a task on the main server thread after the files stop changing. Editors
+ * often save a file in multiple steps, so changes are collected until no
+ * change has happened for the given delay.
+ *
+ * <p>Only changes to <code>.yml</code> files (and new directories) are
+ * counted, so files the plugin writes itself, like its database, do not
+ * trigger the task.
+ *
+ * <p>The task is only a notification, it does not know which files changed.
+ * Use something like {@link FileReader#findChangedFiles()} to find them.
+ */
+public class DirectoryWatcher implements Runnable {
+
+    private final Plugin plugin;
+    private final Path directory;
+    private final long delayMillis;
+    private final Runnable onChange;
+    private final WatchService service;
+    private final Thread thread;
+
+    /**
+     * Starts watching the given directory.
+     *
+     * @param plugin      The non-null plugin to run the task with.
+     * @param directory   The non-null directory to watch.
+     * @param delayMillis How long the files must stay unchanged before the
+     *                    task is run.
+     * @param onChange    The non-null task to run on the main thread.
+     * @throws IOException If the directory cannot be watched.
+     */
+    public DirectoryWatcher(@NotNull Plugin plugin, @NotNull Path directory, long delayMillis, @NotNull Runnable onChange) throws IOException {
+        this.plugin = plugin;
+        this.directory = directory;
+        this.delayMillis = delayMillis;
+        this.onChange = onChange;
+        this.service = FileSystems.getDefault().newWatchService();
+
+        register(directory);
+
+        thread = new Thread(this, plugin.getName() + "-DirectoryWatcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops watching the directory. The task is not run after this.
+     */
+    public void close() {
+        try {
+            service.close();
+        } catch (IOException ex) {
+            MechanicsCore.debug.debug("Could not close watcher of " + directory + ": " + ex);
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                // Wait for the first change, then until the changes stop
+                boolean changed = poll(service.take());
+                WatchKey key;
+                while ((key = service.poll(delayMillis, TimeUnit.MILLISECONDS)) != null)
+                    changed |= poll(key);
+
+                if (changed && plugin.isEnabled())
+                    Bukkit.getScheduler().runTask(plugin, onChange);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ex) {
+            // Closed, stop watching
+        }
+    }
+
+    private boolean poll(WatchKey key) {
+        Path parent = (Path) key.watchable();
+        boolean changed = false;
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+
+            // Some events were lost, so we cannot know what changed
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed = true;
+                continue;
+            }
+
+            // New directories have to be watched as well
+            Path path = parent.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                try {
+                    register(path);
+                } catch (IOException ex) {
+                    MechanicsCore.debug.debug("Could not watch " + path + ": " + ex);
+                }
+                changed = true;
+                continue;
+            }
+
+            // The plugin writes its database, journal and config.cache into
+            // this directory while running. Only config files are changes.
+            if (path.getFileName().toString().endsWith(".yml"))
+                changed = true;
+        }
+
+        key.reset();
+        return changed;
+    }
+
+    private void register(Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                dir.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
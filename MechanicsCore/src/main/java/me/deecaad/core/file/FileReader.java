@@ -9,6 +9,10 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.stream.Collectors;
 
 public class FileReader {
@@ -19,6 +23,14 @@ public class FileReader {
     private final Map<String, Serializer<?>> serializers;
     private final List<ValidatorData> validatorDatas;
     private final Map<String, IValidator> validators;
+    private boolean parallel;
+    private YamlCache cache;
+
+    // Every file read by fillAllFiles, in the order they were read, so
+    // changed files can be read again without reading every file
+    private final Map<File, FileResult> fileResults;
+    private File directory;
+    private Set<String> fileBlacklist;
 
     public FileReader(@NotNull Debugger debug, @Nullable List<Serializer<?>> serializers, @Nullable List<IValidator> validators) {
         this.debug = debug;
@@ -27,6 +39,7 @@ public class FileReader {
         this.pathToSerializers = new ArrayList<>();
         this.nestedPathToSerializers = new ArrayList<>();
         this.validatorDatas = new ArrayList<>();
+        this.fileResults = new LinkedHashMap<>();
         addSerializers(serializers);
         addValidators(validators);
     }
@@ -112,6 +125,47 @@ public class FileReader {
         this.validators.put(validatorLowerCase, validator);
     }
 
+    /**
+     * When parallel, {@link #fillAllFiles(File, String...)} reads and
+     * serializes the files on multiple threads. Every serializer and
+     * validator has to be thread safe for this, and serializers which
+     * change server state (like registering recipes) have to do so using
+     * {@link #runOnMainThread(Runnable)}. Files are still merged in the same
+     * order, and path-to serializers and validators are still used on the
+     * calling thread, so the result is the same either way.
+     *
+     * @param parallel true to read the files on multiple threads
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Runs the given task now, unless it is called while files are being
+     * serialized in parallel. Then the task is run after every file has
+     * been read, on the thread that called {@link #fillAllFiles(File, String...)}.
+     * Serializers use this for anything that has to happen on the main
+     * thread, like registering recipes.
+     *
+     * @param task The non-null task to run.
+     */
+    public static void runOnMainThread(@NotNull Runnable task) {
+        if (Thread.currentThread() instanceof ReaderThread thread)
+            thread.deferred.add(task);
+        else
+            task.run();
+    }
+
+    /**
+     * Sets the cache used to skip parsing yaml files which did not change.
+     * The cache is not loaded or saved by this reader.
+     *
+     * @param cache The cache to use, or null to always parse the files.
+     */
+    public void setCache(@Nullable YamlCache cache) {
+        this.cache = cache;
+    }
+
     /**
      * Iterates through all .yml files inside every directory starting from the given directory.
      * It is recommended to give this method plugin's data folder directory.
@@ -125,10 +179,28 @@ public class FileReader {
         if (directory == null || directory.listFiles() == null) {
             throw new IllegalArgumentException("The given file MUST be a directory!");
         }
-        Configuration filledMap = fillAllFilesLoop(directory, ignoreFiles);
 
-        // Only run this once
-        // That's why fillAllFilesLoop method is required
+        // A set to determine if a file should be ignored
+        this.directory = directory;
+        this.fileBlacklist = ignoreFiles == null ? new HashSet<>() : Arrays.stream(ignoreFiles).collect(Collectors.toSet());
+        this.fileResults.clear();
+
+        List<File> files = new ArrayList<>();
+        listFiles(directory, fileBlacklist, files);
+        List<FileResult> results = parallel ? readFilesParallel(files) : files.stream().map(this::readFile).collect(Collectors.toList());
+
+        // Merge in file order, so duplicates are always reported in the
+        // same file. Path-to serializers are only used after every file
+        // has been read.
+        Configuration filledMap = new LinkedConfig();
+        for (FileResult result : results) {
+            fileResults.put(result.file.getAbsoluteFile(), result);
+            pathToSerializers.addAll(result.pathToSerializers);
+            nestedPathToSerializers.addAll(result.nestedPathToSerializers);
+            validatorDatas.addAll(result.validatorDatas);
+            add(filledMap, result);
+        }
+
         usePathToSerializersAndValidators(filledMap);
 
         // Filter out anything with a null value... Sometimes validators will
@@ -141,42 +213,189 @@ public class FileReader {
         return filledMap;
     }
 
-    private Configuration fillAllFilesLoop(File directory, @Nullable String... ignoreFiles) {
-        // A set to determine if a file should be ignored
-        Set<String> fileBlacklist = ignoreFiles == null ? new HashSet<>() : Arrays.stream(ignoreFiles).collect(Collectors.toSet());
+    /**
+     * Returns the .yml files which were added, changed or deleted since the
+     * last time they were read by {@link #fillAllFiles(File, String...)} or
+     * {@link #refillFiles(Configuration, Collection)}. Files are compared by
+     * their last modified time and size.
+     *
+     * @return The non-null list of changed files.
+     */
+    @NotNull
+    public List<File> findChangedFiles() {
+        if (directory == null)
+            throw new IllegalStateException("Cannot find changed files before using fillAllFiles()");
+
+        List<File> files = new ArrayList<>();
+        listFiles(directory, fileBlacklist, files);
+
+        List<File> changed = new ArrayList<>();
+        Set<File> deleted = new LinkedHashSet<>(fileResults.keySet());
+        for (File file : files) {
+            File absolute = file.getAbsoluteFile();
+            deleted.remove(absolute);
+
+            FileResult result = fileResults.get(absolute);
+            if (result == null || result.lastModified != file.lastModified() || result.length != file.length())
+                changed.add(absolute);
+        }
 
-        // Dummy map to fill
-        Configuration filledMap = new LinkedConfig();
+        changed.addAll(deleted);
+        return changed;
+    }
 
-        for (File directoryFile : directory.listFiles()) {
+    /**
+     * Reads the given files again, and replaces their values in the
+     * configuration returned by {@link #fillAllFiles(File, String...)}. Every
+     * other file is left untouched, unless it uses 'Path To' to pull values
+     * from a changed file (then it is read again too). Deleted files have
+     * their values removed.
+     *
+     * <p>Values are replaced per root key (the first key of each path, like
+     * the weapon title), so path-to serializers and validators only run for
+     * the roots of the files which were read again.
+     *
+     * @param filledMap The configuration returned by fillAllFiles().
+     * @param files     The changed files, see {@link #findChangedFiles()}.
+     * @return The non-null root keys which were removed or replaced.
+     */
+    @NotNull
+    public Set<String> refillFiles(@NotNull Configuration filledMap, @NotNull Collection<File> files) {
+        Set<File> changed = new LinkedHashSet<>();
+        for (File file : files)
+            changed.add(file.getAbsoluteFile());
+
+        Set<String> roots = new HashSet<>();
+        Map<File, FileResult> read = new LinkedHashMap<>();
+        Deque<File> queue = new ArrayDeque<>(changed);
+        while (!queue.isEmpty()) {
+            File file = queue.poll();
+
+            Set<String> fileRoots = new HashSet<>();
+            FileResult old = fileResults.get(file);
+            if (old != null)
+                fileRoots.addAll(old.roots);
+
+            // Deleted files are only removed
+            if (file.isFile()) {
+                FileResult result = readFile(file);
+                read.put(file, result);
+                fileRoots.addAll(result.roots);
+            }
+            roots.addAll(fileRoots);
+
+            // Files pulling values from this file (or sharing its roots)
+            // have to be read again as well
+            for (Map.Entry<File, FileResult> entry : fileResults.entrySet()) {
+                if (!changed.contains(entry.getKey()) && entry.getValue().dependsOn(fileRoots)) {
+                    changed.add(entry.getKey());
+                    queue.add(entry.getKey());
+                }
+            }
+        }
 
-            String name = directoryFile.getName();
-            if (fileBlacklist.contains(name)) continue;
+        LinkedConfig linked = (LinkedConfig) filledMap;
+        linked.keySet().removeIf(key -> roots.contains(getRoot(key)));
+        fileResults.keySet().removeAll(changed);
+
+        List<PathToSerializer> pathToSerializers = new ArrayList<>();
+        List<NestedPathToSerializer> nestedPathToSerializers = new ArrayList<>();
+        List<ValidatorData> validatorDatas = new ArrayList<>();
+        for (Map.Entry<File, FileResult> entry : read.entrySet()) {
+            FileResult result = entry.getValue();
+            fileResults.put(entry.getKey(), result);
+            pathToSerializers.addAll(result.pathToSerializers);
+            nestedPathToSerializers.addAll(result.nestedPathToSerializers);
+            validatorDatas.addAll(result.validatorDatas);
+            add(filledMap, result);
+        }
 
-            try {
-                if (name.endsWith(".yml")) {
-                    Configuration newFilledMap = fillOneFile(directoryFile);
+        usePathToSerializersAndValidators(filledMap, pathToSerializers, nestedPathToSerializers, validatorDatas);
+        linked.values().removeAll(Collections.singleton(null));
+        return roots;
+    }
 
-                    // This occurs when the yml file is empty
-                    if (newFilledMap == null) {
-                        continue;
-                    }
+    private void add(Configuration filledMap, FileResult result) {
+        // This occurs when the yml file is empty
+        if (result.config == null) return;
 
-                    filledMap.add(newFilledMap);
-                } else if (directoryFile.isDirectory()) {
-                    filledMap.add(fillAllFilesLoop(directoryFile));
-                }
-            } catch (DuplicateKeyException ex) {
-                debug.log(LogLevel.ERROR, "Found duplicate keys in configuration!",
-                        "This occurs when you have 2 lines in configuration with the same name",
-                        "This is a huge error and WILL 100% cause issues in your guns.",
-                        "Duplicates Found: " + Arrays.toString(ex.getKeys()),
-                        "Found in file: " + name);
-
-                debug.log(LogLevel.DEBUG, "Duplicate Key Exception: ", ex);
+        try {
+            filledMap.add(result.config);
+        } catch (DuplicateKeyException ex) {
+            logDuplicateKeys(ex, result.file.getName());
+        }
+    }
+
+    private List<FileResult> readFilesParallel(List<File> files) {
+        // Plugin classes are not visible from the default pool's threads
+        Queue<Runnable> deferred = new ConcurrentLinkedQueue<>();
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), forkJoinPool -> {
+            ForkJoinWorkerThread thread = new ReaderThread(forkJoinPool, deferred);
+            thread.setContextClassLoader(FileReader.class.getClassLoader());
+            thread.setName("FileReader-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+
+        try {
+            List<FileResult> results = pool.submit(() -> files.parallelStream().map(this::readFile).collect(Collectors.toList())).get();
+
+            // Serializers left main thread work for after every file was read
+            Runnable task;
+            while ((task = deferred.poll()) != null)
+                task.run();
+
+            return results;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InternalError("Interrupted while reading files", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) throw runtime;
+            if (ex.getCause() instanceof Error error) throw error;
+            throw new InternalError("Failed to read files", ex.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void listFiles(File directory, Set<String> fileBlacklist, List<File> files) {
+        for (File directoryFile : directory.listFiles()) {
+            String name = directoryFile.getName();
+            if (fileBlacklist.contains(name)) continue;
+
+            if (name.endsWith(".yml")) {
+                files.add(directoryFile);
+            } else if (directoryFile.isDirectory()) {
+                // Ignored files only apply to the top directory
+                listFiles(directoryFile, Collections.emptySet(), files);
             }
         }
-        return filledMap;
+    }
+
+    private FileResult readFile(File file) {
+        FileResult result = new FileResult(file);
+        result.config = fillOneFile(file, result.pathToSerializers, result.nestedPathToSerializers, result.validatorDatas);
+
+        if (result.config != null)
+            result.config.getKeys().forEach(key -> result.roots.add(getRoot(key)));
+        result.pathToSerializers.forEach(pathTo -> result.roots.add(getRoot(pathTo.pathWhereToStore())));
+        result.nestedPathToSerializers.forEach(pathTo -> result.roots.add(getRoot(pathTo.path())));
+        result.validatorDatas.forEach(validator -> result.roots.add(getRoot(validator.path())));
+        return result;
+    }
+
+    private static String getRoot(String key) {
+        int index = key.indexOf('.');
+        return index == -1 ? key : key.substring(0, index);
+    }
+
+    private void logDuplicateKeys(DuplicateKeyException ex, String name) {
+        debug.log(LogLevel.ERROR, "Found duplicate keys in configuration!",
+                "This occurs when you have 2 lines in configuration with the same name",
+                "This is a huge error and WILL 100% cause issues in your guns.",
+                "Duplicates Found: " + Arrays.toString(ex.getKeys()),
+                "Found in file: " + name);
+
+        debug.log(LogLevel.DEBUG, "Duplicate Key Exception: ", ex);
     }
 
     /**
@@ -187,6 +406,10 @@ public class FileReader {
      * @return the map with file's configurations
      */
     public Configuration fillOneFile(File file) {
+        return fillOneFile(file, pathToSerializers, nestedPathToSerializers, validatorDatas);
+    }
+
+    private Configuration fillOneFile(File file, List<PathToSerializer> pathToSerializers, List<NestedPathToSerializer> nestedPathToSerializers, List<ValidatorData> validatorDatas) {
         Configuration filledMap = new LinkedConfig();
 
         // If a serializer is found, it's path is saved here. Any
@@ -195,7 +418,7 @@ public class FileReader {
         String startsWithDeny = null;
         Serializer<?> savedSerializer = null;
 
-        YamlConfiguration configuration = YamlConfiguration.loadConfiguration(file);
+        YamlConfiguration configuration = cache == null ? YamlConfiguration.loadConfiguration(file) : cache.loadConfiguration(file);
         for (String key : configuration.getKeys(true)) {
 
             // Remove the starsWithDeny if the key does no longer start with it
@@ -312,6 +535,10 @@ public class FileReader {
      * @return the map with used path to serializers and validators
      */
     public Configuration usePathToSerializersAndValidators(Configuration filledMap) {
+        return usePathToSerializersAndValidators(filledMap, pathToSerializers, nestedPathToSerializers, validatorDatas);
+    }
+
+    private Configuration usePathToSerializersAndValidators(Configuration filledMap, List<PathToSerializer> pathToSerializers, List<NestedPathToSerializer> nestedPathToSerializers, List<ValidatorData> validatorDatas) {
 
         // Handle nested-path-to serializers
         for (NestedPathToSerializer nestedPathTo : nestedPathToSerializers) {
@@ -352,6 +579,64 @@ public class FileReader {
         return filledMap;
     }
 
+    /**
+     * The threads used to read files in parallel, see {@link #runOnMainThread(Runnable)}.
+     */
+    private static final class ReaderThread extends ForkJoinWorkerThread {
+
+        private final Queue<Runnable> deferred;
+
+        private ReaderThread(ForkJoinPool pool, Queue<Runnable> deferred) {
+            super(pool);
+            this.deferred = deferred;
+        }
+    }
+
+    /**
+     * The configuration of 1 file, and the serializers and validators which
+     * have to be used after every file has been read.
+     */
+    private static final class FileResult {
+
+        private final File file;
+        private final long lastModified;
+        private final long length;
+        private final List<PathToSerializer> pathToSerializers = new ArrayList<>();
+        private final List<NestedPathToSerializer> nestedPathToSerializers = new ArrayList<>();
+        private final List<ValidatorData> validatorDatas = new ArrayList<>();
+        private final Set<String> roots = new HashSet<>();
+        private Configuration config;
+
+        private FileResult(File file) {
+            this.file = file;
+
+            // Read before the file, so changes made while reading are
+            // found by the next findChangedFiles()
+            this.lastModified = file.lastModified();
+            this.length = file.length();
+        }
+
+        /**
+         * Returns true if this file has to be read again when the given
+         * roots change.
+         */
+        private boolean dependsOn(Set<String> changedRoots) {
+            for (String root : roots) {
+                if (changedRoots.contains(root))
+                    return true;
+            }
+            for (PathToSerializer pathTo : pathToSerializers) {
+                if (changedRoots.contains(getRoot(pathTo.pathTo())))
+                    return true;
+            }
+            for (NestedPathToSerializer pathTo : nestedPathToSerializers) {
+                if (changedRoots.contains(getRoot(pathTo.ex().pullFrom)))
+                    return true;
+            }
+            return false;
+        }
+    }
+
     /**
      * Stores temporary data to help with the 'Path To' feature of serializers,
      * specifically when used nested in {@link SerializeData}.
@@ -0,0 +1,332 @@
+package me.deecaad.core.file;
+
+import me.deecaad.core.MechanicsCore;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+/**
+ * Caches parsed yaml files on the disk, so files which did not change since
+ * the last startup skip SnakeYAML. Files are identified by the hash of their
+ * content, and the cache is thrown away when its version does not match
+ * (e.g. after a server or plugin update).
+ *
+ * <p>The cache file is read into memory once, and each file's configuration
+ * is only decoded when that file is loaded. This class is thread safe, so it
+ * can be used with {@link FileReader#setParallel(boolean)}.
+ *
+ * <p>The binary format is: magic, format version, version string, entry
+ * count, then for each entry the SHA-256 hash of the file, the length of
+ * the encoded configuration, and the encoded configuration.
+ */
+public class YamlCache {
+
+    private static final int MAGIC = 0x4D435943; // MCYC
+    private static final int FORMAT_VERSION = 1;
+
+    private static final byte NULL = 0;
+    private static final byte SECTION = 1;
+    private static final byte STRING = 2;
+    private static final byte INT = 3;
+    private static final byte LONG = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte BOOLEAN = 6;
+    private static final byte LIST = 7;
+    private static final byte MAP = 8;
+
+    private final File cacheFile;
+    private final String version;
+
+    // The cache file, and where each entry is in it
+    private byte[] data = new byte[0];
+    private final Map<ByteBuffer, int[]> index = new ConcurrentHashMap<>();
+
+    // Entries used by this load, written back by save()
+    private final Map<ByteBuffer, byte[]> used = new ConcurrentHashMap<>();
+    private volatile boolean changed;
+
+    /**
+     * @param cacheFile The non-null file to store the cache in.
+     * @param version   The non-null version of the cache. When the version of
+     *                  the saved cache is different, the saved cache is not used.
+     */
+    public YamlCache(@NotNull File cacheFile, @NotNull String version) {
+        this.cacheFile = cacheFile;
+        this.version = version;
+    }
+
+    /**
+     * Reads the cache file, if it exists and its version matches.
+     */
+    public void load() {
+        index.clear();
+        used.clear();
+        data = new byte[0];
+        changed = true;
+        if (!cacheFile.exists())
+            return;
+
+        try {
+            byte[] bytes = Files.readAllBytes(cacheFile.toPath());
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION || !version.equals(readString(buffer)))
+                return;
+
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                byte[] hash = new byte[32];
+                buffer.get(hash);
+                int length = buffer.getInt();
+                index.put(ByteBuffer.wrap(hash), new int[]{buffer.position(), length});
+                buffer.position(buffer.position() + length);
+            }
+
+            data = bytes;
+            changed = false;
+        } catch (IOException | RuntimeException ex) {
+            // A corrupt cache is simply rebuilt
+            index.clear();
+            MechanicsCore.debug.debug("Could not read config cache " + cacheFile + ": " + ex);
+        }
+    }
+
+    /**
+     * Loads the given yaml file, using the cached configuration if the file
+     * did not change. Behaves like {@link YamlConfiguration#loadConfiguration(File)}.
+     *
+     * @param file The non-null yaml file.
+     * @return The non-null loaded configuration.
+     */
+    @NotNull
+    public YamlConfiguration loadConfiguration(@NotNull File file) {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file.toPath());
+        } catch (IOException ex) {
+            Bukkit.getLogger().log(Level.SEVERE, "Cannot load " + file, ex);
+            return new YamlConfiguration();
+        }
+
+        ByteBuffer hash = hash(bytes);
+        int[] entry = index.get(hash);
+        if (entry != null) {
+            try {
+                YamlConfiguration configuration = new YamlConfiguration();
+                readSection(ByteBuffer.wrap(data, entry[0], entry[1]), configuration);
+                used.put(hash, slice(entry));
+                return configuration;
+            } catch (RuntimeException ex) {
+                MechanicsCore.debug.debug("Could not read cached config of " + file + ": " + ex);
+            }
+        }
+
+        YamlConfiguration configuration = new YamlConfiguration();
+        try {
+            configuration.loadFromString(new String(bytes, StandardCharsets.UTF_8));
+        } catch (InvalidConfigurationException ex) {
+            Bukkit.getLogger().log(Level.SEVERE, "Cannot load " + file, ex);
+            return configuration;
+        }
+
+        // Files using values which cannot be encoded are just not cached
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            writeSection(new DataOutputStream(out), configuration);
+            used.put(hash, out.toByteArray());
+        } catch (IOException | IllegalArgumentException ex) {
+            MechanicsCore.debug.debug("Could not cache config of " + file + ": " + ex);
+        }
+        changed = true;
+        return configuration;
+    }
+
+    /**
+     * Writes the configurations used since {@link #load()} to the cache file.
+     * Configurations of files which were not loaded are dropped.
+     */
+    public void save() {
+        if (!changed && used.size() == index.size())
+            return;
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            writeString(out, version);
+
+            List<Map.Entry<ByteBuffer, byte[]>> entries = new ArrayList<>(used.entrySet());
+            out.writeInt(entries.size());
+            for (Map.Entry<ByteBuffer, byte[]> entry : entries) {
+                out.write(entry.getKey().array());
+                out.writeInt(entry.getValue().length);
+                out.write(entry.getValue());
+            }
+
+            // Write to a temporary file first, so a crash never leaves half
+            // a cache behind
+            Path target = cacheFile.toPath();
+            Path temp = target.resolveSibling(cacheFile.getName() + ".tmp");
+            if (target.getParent() != null)
+                Files.createDirectories(target.getParent());
+            Files.write(temp, bytes.toByteArray());
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            changed = false;
+        } catch (IOException ex) {
+            MechanicsCore.debug.warn("Could not save config cache " + cacheFile + ": " + ex);
+        }
+    }
+
+    private byte[] slice(int[] entry) {
+        byte[] bytes = new byte[entry[1]];
+        System.arraycopy(data, entry[0], bytes, 0, entry[1]);
+        return bytes;
+    }
+
+    /**
+     * Returns the SHA-256 hash of the given bytes. ByteBuffer compares its
+     * content in equals() and hashCode(), so the hash can be used as a key.
+     * The returned buffer must not be modified.
+     */
+    private static ByteBuffer hash(byte[] bytes) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException ex) {
+            // Every java implementation is required to support SHA-256
+            throw new InternalError(ex);
+        }
+    }
+
+    private static void writeSection(DataOutputStream out, ConfigurationSection section) throws IOException {
+        Map<String, Object> values = section.getValues(false);
+        out.writeInt(values.size());
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            writeString(out, entry.getKey());
+            writeValue(out, entry.getValue());
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof ConfigurationSection section) {
+            out.writeByte(SECTION);
+            writeSection(out, section);
+        } else if (value instanceof String string) {
+            out.writeByte(STRING);
+            writeString(out, string);
+        } else if (value instanceof Integer integer) {
+            out.writeByte(INT);
+            out.writeInt(integer);
+        } else if (value instanceof Long number) {
+            out.writeByte(LONG);
+            out.writeLong(number);
+        } else if (value instanceof Double number) {
+            out.writeByte(DOUBLE);
+            out.writeDouble(number);
+        } else if (value instanceof Boolean bool) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean(bool);
+        } else if (value instanceof List<?> list) {
+            out.writeByte(LIST);
+            out.writeInt(list.size());
+            for (Object element : list)
+                writeValue(out, element);
+        } else if (value instanceof Map<?, ?> map) {
+            out.writeByte(MAP);
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeValue(out, entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+        } else {
+            throw new IllegalArgumentException("Cannot cache " + value.getClass() + " values");
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void readSection(ByteBuffer buffer, ConfigurationSection section) {
+        int size = buffer.getInt();
+        for (int i = 0; i < size; i++) {
+            String key = readString(buffer);
+            byte type = buffer.get();
+            if (type == SECTION)
+                readSection(buffer, section.createSection(key));
+            else
+                section.set(key, readValue(buffer, type));
+        }
+    }
+
+    private static Object readValue(ByteBuffer buffer, byte type) {
+        switch (type) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(buffer);
+            case INT:
+                return buffer.getInt();
+            case LONG:
+                return buffer.getLong();
+            case DOUBLE:
+                return buffer.getDouble();
+            case BOOLEAN:
+                return buffer.get() != 0;
+            case LIST: {
+                int size = buffer.getInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++)
+                    list.add(readValue(buffer, buffer.get()));
+                return list;
+            }
+            case MAP: {
+                int size = buffer.getInt();
+                Map<Object, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < size; i++) {
+                    Object key = readValue(buffer, buffer.get());
+                    map.put(key, readValue(buffer, buffer.get()));
+                }
+                return map;
+            }
+            default:
+                // Sections are only allowed directly inside of sections
+                throw new IllegalStateException("Unknown type " + type);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        String string = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return string;
+    }
+}
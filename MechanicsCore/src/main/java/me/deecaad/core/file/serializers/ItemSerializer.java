@@ -30,12 +30,14 @@ import org.jetbrains.annotations.NotNull;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public class ItemSerializer implements Serializer<ItemStack> {
 
-    public static final Map<String, Supplier<ItemStack>> ITEM_REGISTRY = new HashMap<>();
+    // Concurrent, since serializers may read it while files are read in parallel
+    public static final Map<String, Supplier<ItemStack>> ITEM_REGISTRY = new ConcurrentHashMap<>();
 
     /**
      * Reflection support for versions before 1.11 when setting unbreakable tag
@@ -433,12 +435,6 @@ public class ItemSerializer implements Serializer<ItemStack> {
             recipe = new ShapedRecipe(result);
         } else {
             recipe = new ShapedRecipe(new NamespacedKey(MechanicsCore.getPlugin(), data.key), result);
-
-            // Bukkit.getRecipe was added in 1.16. We have a try-catch block
-            // below in this method to handle 1.12 through 1.15
-            if (ReflectionUtil.getMCVersion() >= 16 && Bukkit.getRecipe(recipe.getKey()) != null) {
-                return itemStack;
-            }
         }
 
         // The Recipe.Shape should be a list looking similar to:
@@ -493,8 +489,19 @@ public class ItemSerializer implements Serializer<ItemStack> {
                 ingredients.put(c, new RecipeChoice.ExactChoice(item));
         }
 
-        // Finalize and register the new recipe.
+        // Finalize and register the new recipe. Recipes can only be
+        // registered on the main thread.
         ReflectionUtil.setField(ingredientsField, recipe, ingredients);
+        FileReader.runOnMainThread(() -> registerRecipe(recipe));
+        return itemStack;
+    }
+
+    private static void registerRecipe(ShapedRecipe recipe) {
+        // Bukkit.getRecipe was added in 1.16. The try-catch block below
+        // handles 1.12 through 1.15
+        if (ReflectionUtil.getMCVersion() >= 16 && Bukkit.getRecipe(recipe.getKey()) != null)
+            return;
+
         try {
             Bukkit.addRecipe(recipe);
         } catch (IllegalStateException ex) {
@@ -502,7 +509,6 @@ public class ItemSerializer implements Serializer<ItemStack> {
             if (!ex.getMessage().startsWith("Duplicate recipe ignored with ID mechanicscore:"))
                 throw ex;
         }
-        return itemStack;
     }
 
     /**
@@ -0,0 +1,90 @@
+package me.deecaad.core.listeners;
+
+import me.deecaad.core.utils.ray.BlockSnapshotCache;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.*;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+
+import java.util.List;
+
+/**
+ * Invalidates the {@link BlockSnapshotCache} when blocks are changed during a
+ * tick, so ray traces later in the same tick see the new blocks.
+ */
+public class BlockSnapshotListener implements Listener {
+
+    @EventHandler (ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onBreak(BlockBreakEvent event) {
+        BlockSnapshotCache.invalidate(event.getBlock());
+    }
+
+    @EventHandler (ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onPlace(BlockPlaceEvent event) {
+        BlockSnapshotCache.invalidate(event.getBlock());
+    }
+
+    @EventHandler (ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onBurn(BlockBurnEvent event) {
+        BlockSnapshotCache.invalidate(event.getBlock());
+    }
+
+    @EventHandler (ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onFade(BlockFadeEvent event) {
+        BlockSnapshotCache.invalidate(event.getBlock());
+    }
+
+    @EventHandler (ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onForm(BlockFormEvent event) {
+        BlockSnapshotCache.invalidate(event.getBlock());
+    }
+
+    @EventHandler (ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onFlow(BlockFromToEvent event) {
+        BlockSnapshotCache.invalidate(event.getToBlock());
+    }
+
+    @EventHandler (ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onEntityChange(EntityChangeBlockEvent event) {
+        BlockSnapshotCache.invalidate(event.getBlock());
+    }
+
+    @EventHandler (ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        invalidateAll(event.blockList());
+    }
+
+    @EventHandler (ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        invalidateAll(event.blockList());
+    }
+
+    @EventHandler (ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        BlockSnapshotCache.invalidate(event.getBlock());
+        invalidateMoved(event.getBlocks(), event);
+    }
+
+    @EventHandler (ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        BlockSnapshotCache.invalidate(event.getBlock());
+        invalidateMoved(event.getBlocks(), event);
+    }
+
+    private static void invalidateAll(List<Block> blocks) {
+        for (Block block : blocks)
+            BlockSnapshotCache.invalidate(block);
+    }
+
+    private static void invalidateMoved(List<Block> blocks, BlockPistonEvent event) {
+        for (Block block : blocks) {
+            BlockSnapshotCache.invalidate(block);
+
+            // The block is moved 1 block, which may be in the next section
+            BlockSnapshotCache.invalidate(block.getRelative(event.getDirection()));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package me.deecaad.core.listeners;
+
+import me.deecaad.core.utils.ray.EntitySpatialIndex;
+import org.bukkit.Location;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntitySpawnEvent;
+import org.bukkit.event.entity.EntityTeleportEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+
+/**
+ * Updates the {@link EntitySpatialIndex} when entities spawn or teleport
+ * during a phase, so ray traces and explosions later in the same phase find
+ * them.
+ */
+public class EntitySpatialIndexListener implements Listener {
+
+    @EventHandler (ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onSpawn(EntitySpawnEvent event) {
+        if (event.getEntity() instanceof LivingEntity entity)
+            EntitySpatialIndex.update(entity, null, event.getLocation());
+    }
+
+    @EventHandler (ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onTeleport(EntityTeleportEvent event) {
+        Location to = event.getTo();
+        if (to != null && event.getEntity() instanceof LivingEntity entity)
+            EntitySpatialIndex.update(entity, event.getFrom().getWorld(), to);
+    }
+
+    @EventHandler (ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onPlayerTeleport(PlayerTeleportEvent event) {
+        Location to = event.getTo();
+        if (to != null)
+            EntitySpatialIndex.update(event.getPlayer(), event.getFrom().getWorld(), to);
+    }
+
+    @EventHandler (priority = EventPriority.MONITOR)
+    public void onRespawn(PlayerRespawnEvent event) {
+        EntitySpatialIndex.update(event.getPlayer(), event.getPlayer().getWorld(), event.getRespawnLocation());
+    }
+
+    @EventHandler (priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        EntitySpatialIndex.update(event.getPlayer(), null, event.getPlayer().getLocation());
+    }
+}
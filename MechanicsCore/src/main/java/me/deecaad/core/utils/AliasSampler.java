@@ -0,0 +1,135 @@
+package me.deecaad.core.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An immutable set of weighted elements, which can draw random elements in
+ * O(1) time using Vose's alias method. Each element gets 1 column in a table.
+ * A draw picks a random column, then either that column's element or its
+ * alias, so draws never allocate or search.
+ *
+ * <p>This class is thread safe, since it is never modified after it is
+ * created.
+ *
+ * @param <E> The type of the element to store.
+ */
+public final class AliasSampler<E> {
+
+    private final Object[] elements;
+    private final double[] probability;
+    private final int[] alias;
+
+    /**
+     * Builds the alias table of the given elements. This takes O(n) time.
+     *
+     * @param elements The non-null elements.
+     * @param weights  The positive weight of each element, in the same order.
+     */
+    public AliasSampler(@NotNull List<E> elements, @NotNull double[] weights) {
+        int n = elements.size();
+        if (n != weights.length)
+            throw new IllegalArgumentException("Got " + n + " elements, but " + weights.length + " weights");
+
+        this.elements = elements.toArray();
+        this.probability = new double[n];
+        this.alias = new int[n];
+
+        double total = 0.0;
+        for (double weight : weights) {
+            if (!(weight > 0.0))
+                throw new IllegalArgumentException("weight <= 0.0");
+            total += weight;
+        }
+
+        // Scale every weight, so the average column is exactly 1
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallSize = 0;
+        int largeSize = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1.0)
+                small[smallSize++] = i;
+            else
+                large[largeSize++] = i;
+        }
+
+        // Fill each small column with part of a large column
+        while (smallSize > 0 && largeSize > 0) {
+            int less = small[--smallSize];
+            int more = large[--largeSize];
+
+            probability[less] = scaled[less];
+            alias[less] = more;
+
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0)
+                small[smallSize++] = more;
+            else
+                large[largeSize++] = more;
+        }
+
+        // Whatever is left is 1 (give or take rounding errors)
+        while (largeSize > 0)
+            probability[large[--largeSize]] = 1.0;
+        while (smallSize > 0)
+            probability[small[--smallSize]] = 1.0;
+    }
+
+    /**
+     * Returns a random element based on each element's weight, or
+     * <code>null</code> if there are no elements.
+     *
+     * @return The randomized element.
+     */
+    public E get() {
+        return get(ThreadLocalRandom.current());
+    }
+
+    /**
+     * Returns a random element based on each element's weight, or
+     * <code>null</code> if there are no elements.
+     *
+     * @param random The non-null random number generator to use.
+     * @return The randomized element.
+     */
+    @SuppressWarnings("unchecked")
+    public E get(@NotNull Random random) {
+        if (elements.length == 0)
+            return null;
+
+        int column = random.nextInt(elements.length);
+        return (E) elements[random.nextDouble() < probability[column] ? column : alias[column]];
+    }
+
+    /**
+     * Returns the element at the given index, in the order the elements were
+     * given to the constructor.
+     *
+     * @param index The index of the element.
+     * @return The element.
+     */
+    @SuppressWarnings("unchecked")
+    public E getElement(int index) {
+        return (E) elements[index];
+    }
+
+    /**
+     * @return true if there are no elements
+     */
+    public boolean isEmpty() {
+        return elements.length == 0;
+    }
+
+    /**
+     * @return the number of elements
+     */
+    public int size() {
+        return elements.length;
+    }
+}
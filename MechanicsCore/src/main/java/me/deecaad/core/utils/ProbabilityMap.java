@@ -4,25 +4,28 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * This class outlines a mapping of elements to a weight. This data structure
  * allows real time getting of random elements with weight.
  *
+ * <p>Random elements are drawn from an {@link AliasSampler}, which is built
+ * the first time {@link #get()} is used after the map was modified. Once
+ * built, {@link #get()} is O(1) and safe to use from any thread (as long as
+ * the map is not modified at the same time).
+ *
  * @param <E> The type of the element to store.
  */
 public class ProbabilityMap<E> implements Iterable<ProbabilityMap.Node<E>> {
 
-    private final Node<E> dummy;
     private final NavigableSet<Node<E>> set;
     private double totalProbability;
+    private volatile AliasSampler<E> sampler;
 
     /**
      * Default constructor.
      */
     public ProbabilityMap() {
-        this.dummy = new Node<>();
         this.set = new TreeSet<>(Comparator.comparingDouble(Node::getOffset));
     }
 
@@ -40,6 +43,7 @@ public class ProbabilityMap<E> implements Iterable<ProbabilityMap.Node<E>> {
         Node<E> node = new Node<>(element, chance, totalProbability);
         if (set.add(node)) {
             totalProbability += chance;
+            sampler = null;
             return true;
         } else {
             return false;
@@ -70,6 +74,7 @@ public class ProbabilityMap<E> implements Iterable<ProbabilityMap.Node<E>> {
                 iterator.remove();
                 totalProbability -= node.chance;
                 removedElement = node;
+                sampler = null;
             }
         }
 
@@ -84,9 +89,28 @@ public class ProbabilityMap<E> implements Iterable<ProbabilityMap.Node<E>> {
      */
     @Nullable
     public E get() {
-        dummy.offset = ThreadLocalRandom.current().nextDouble(totalProbability);
-        Node<E> temp = set.floor(dummy);
-        return temp == null ? null : temp.value;
+        return getSampler().get();
+    }
+
+    /**
+     * Returns an immutable sampler of the elements currently in this map.
+     * The sampler is not updated when this map is modified.
+     *
+     * @return The non-null sampler.
+     */
+    @NotNull
+    public AliasSampler<E> getSampler() {
+        AliasSampler<E> sampler = this.sampler;
+        if (sampler == null) {
+            List<E> elements = new ArrayList<>(set.size());
+            double[] weights = new double[set.size()];
+            for (Node<E> node : set) {
+                weights[elements.size()] = node.chance;
+                elements.add(node.value);
+            }
+            this.sampler = sampler = new AliasSampler<>(elements, weights);
+        }
+        return sampler;
     }
 
     /**
@@ -119,11 +143,6 @@ public class ProbabilityMap<E> implements Iterable<ProbabilityMap.Node<E>> {
         private final double chance;
         private double offset;
 
-        Node() {
-            value = null;
-            chance = 0.0;
-        }
-
         Node(E value, double chance, double offset) {
             this.chance = chance;
             this.value = value;
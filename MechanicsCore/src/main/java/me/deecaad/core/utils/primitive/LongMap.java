@@ -0,0 +1,220 @@
+package me.deecaad.core.utils.primitive;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+
+/**
+ * An optimized implementation of a {@link java.util.HashMap} that maps a
+ * <code>long</code> key to a value. Has the advantage of not needing to
+ * wrap/unwrap keys, and does not create an entry object for each mapping.
+ *
+ * <p>This map uses open addressing with linear probing. <code>null</code>
+ * values are not allowed. The map holds at most 2^30 - 1 entries, since
+ * probing needs at least 1 free slot.
+ *
+ * @param <V> The value type.
+ */
+public class LongMap<V> {
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 1 << 4;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final int maximumCapacity;
+    private long[] keys;
+    private Object[] values;
+    private int threshold;
+    private int size;
+
+    public LongMap() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    public LongMap(int cap) {
+        this(cap, MAXIMUM_CAPACITY);
+    }
+
+    LongMap(int cap, int maximumCapacity) {
+        this.maximumCapacity = maximumCapacity;
+
+        int capacity = DEFAULT_INITIAL_CAPACITY;
+        while (capacity < cap / LOAD_FACTOR && capacity < maximumCapacity)
+            capacity <<= 1;
+
+        keys = new long[capacity];
+        values = new Object[capacity];
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int hash(long key) {
+        // Spread the bits, since packed positions have very similar low bits
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private int indexOf(long key) {
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+
+        while (values[index] != null) {
+            if (keys[index] == key)
+                return index;
+            index = (index + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return indexOf(key) != -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int index = indexOf(key);
+        return index == -1 ? null : (V) values[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null)
+            throw new IllegalArgumentException("Cannot put null values");
+
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (values[index] != null) {
+            if (keys[index] == key) {
+                V old = (V) values[index];
+                values[index] = value;
+                return old;
+            }
+            index = (index + 1) & mask;
+        }
+
+        // The last free slot stops probing for missing keys
+        if (size == keys.length - 1)
+            throw new IllegalStateException("LongMap is full (" + size + " entries)");
+
+        keys[index] = key;
+        values[index] = value;
+        if (++size > threshold)
+            resize();
+        return null;
+    }
+
+    /**
+     * Returns the value mapped to the given key, or computes a new value using
+     * the given function and maps it to the key.
+     *
+     * @param key      The key to get the value of.
+     * @param function The function to compute the value when the key is not mapped.
+     * @return The non-null value mapped to the key.
+     */
+    public V computeIfAbsent(long key, LongFunction<V> function) {
+        V value = get(key);
+        if (value == null) {
+            value = function.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int index = indexOf(key);
+        if (index == -1)
+            return null;
+
+        V old = (V) values[index];
+        values[index] = null;
+        size--;
+
+        // Shift the following entries back, so probing never stops early
+        int mask = keys.length - 1;
+        int gap = index;
+        int next = (index + 1) & mask;
+        while (values[next] != null) {
+            int home = hash(keys[next]) & mask;
+
+            // Move the entry if its home is not between the gap and itself
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                values[next] = null;
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+
+        return old;
+    }
+
+    public void clear() {
+        if (size == 0)
+            return;
+
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Calls the given consumer for every value in this map. The map should
+     * not be modified by the consumer.
+     *
+     * @param consumer The non-null consumer.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<? super V> consumer) {
+        for (Object value : values) {
+            if (value != null)
+                consumer.accept((V) value);
+        }
+    }
+
+    /**
+     * Calls the given consumer for every key in this map. The map should not
+     * be modified by the consumer.
+     *
+     * @param consumer The non-null consumer.
+     */
+    public void forEachKey(LongConsumer consumer) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null)
+                consumer.accept(keys[i]);
+        }
+    }
+
+    private void resize() {
+        if (keys.length >= maximumCapacity)
+            return;
+
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[oldKeys.length << 1];
+        values = new Object[oldValues.length << 1];
+        threshold = (int) (keys.length * LOAD_FACTOR);
+
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] == null)
+                continue;
+
+            int index = hash(oldKeys[i]) & mask;
+            while (values[index] != null)
+                index = (index + 1) & mask;
+
+            keys[index] = oldKeys[i];
+            values[index] = oldValues[i];
+        }
+    }
+}
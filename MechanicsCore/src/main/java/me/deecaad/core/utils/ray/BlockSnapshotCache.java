@@ -0,0 +1,325 @@
+package me.deecaad.core.utils.ray;
+
+import me.deecaad.core.compatibility.CompatibilityAPI;
+import me.deecaad.core.compatibility.HitBox;
+import me.deecaad.core.compatibility.block.VoxelShapeTable;
+import me.deecaad.core.utils.ReflectionUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.util.Vector;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Tick scoped cache of the blocks and block hit boxes resolved by
+ * {@link RayTrace}. When many projectiles fly through the same area, they
+ * would otherwise call {@link World#getBlockAt(int, int, int)} and
+ * {@link me.deecaad.core.compatibility.block.BlockCompatibility#getHitBox(Block, boolean)}
+ * for the same blocks over and over again, allocating a new {@link HitBox}
+ * every time.
+ *
+ * <p>Blocks are grouped into 16x16x16 chunk sections, which are stored by
+ * their packed <code>long</code> position. Every cached {@link HitBox} is
+ * shared between all ray traces during the tick, so it should never be
+ * modified (use {@link HitBox#cloneDimensions()} instead).
+ *
+ * <p>The whole cache is invalidated at the start of every tick. Blocks which
+ * change mid-tick should be invalidated using {@link #invalidate(Block)},
+ * otherwise ray traces may see the old block for the rest of the tick.
+ *
+ * <p>This cache is only used from the main server thread. Calls from other
+ * threads bypass the cache completely.
+ */
+public final class BlockSnapshotCache {
+
+    // Used to mark a block as resolved to "no hit box" (passable)
+    private static final HitBox PASSABLE = new HitBox(0, 0, 0, 0, 0, 0);
+
+    // Used to mark a block as liquid, which has no VoxelShapeTable shape
+    private static final double[] LIQUID_SHAPE = new double[0];
+
+    private static final Map<World, Map<Long, Section>> WORLDS = new HashMap<>();
+    private static int tick;
+
+    // Every clear of a section gets a new epoch, never reused by any section
+    private static int nextEpoch = 1;
+
+    // Rays are very coherent, so most lookups hit the same section again
+    private static World lastWorld;
+    private static long lastKey;
+    private static Section lastSection;
+
+    /**
+     * Don't let anyone instantiate this class
+     */
+    private BlockSnapshotCache() {
+    }
+
+    /**
+     * Returns the block at the given coordinates, reusing the block instance
+     * resolved earlier this tick when possible.
+     *
+     * @param world The non-null world that contains the block.
+     * @param x     The x coordinate of the block.
+     * @param y     The y coordinate of the block.
+     * @param z     The z coordinate of the block.
+     * @return The non-null block.
+     */
+    @NotNull
+    public static Block getBlockAt(@NotNull World world, int x, int y, int z) {
+        Section section = getSection(world, x, y, z);
+        if (section == null)
+            return world.getBlockAt(x, y, z);
+
+        int index = section.slot(index(x, y, z));
+        Block block = section.blocks[index];
+        if (block == null) {
+            block = world.getBlockAt(x, y, z);
+            section.blocks[index] = block;
+        }
+        return block;
+    }
+
+    /**
+     * Returns the cached hit box of the given block. The returned hit box is
+     * shared, and should not be modified.
+     *
+     * @param block       The non-null block to get the hit box of.
+     * @param allowLiquid Whether liquid should be considered as having hit box.
+     * @return The shared hit box, or null if the block is passable.
+     * @see me.deecaad.core.compatibility.block.BlockCompatibility#getHitBox(Block, boolean)
+     */
+    @Nullable
+    public static HitBox getHitBox(@NotNull Block block, boolean allowLiquid) {
+        Section section = getSection(block.getWorld(), block.getX(), block.getY(), block.getZ());
+        if (section == null)
+            return CompatibilityAPI.getBlockCompatibility().getHitBox(block, allowLiquid);
+
+        int index = section.slot(index(block.getX(), block.getY(), block.getZ()));
+        HitBox[] shapes = allowLiquid ? section.liquidShapes : section.shapes;
+        HitBox hitBox = shapes[index];
+        if (hitBox == null) {
+            hitBox = CompatibilityAPI.getBlockCompatibility().getHitBox(block, allowLiquid);
+            shapes[index] = hitBox == null ? PASSABLE : hitBox;
+            if (WorldSnapshot.isLearning())
+                WorldSnapshot.learn(block, allowLiquid, hitBox != null);
+            return hitBox;
+        }
+
+        return hitBox == PASSABLE ? null : hitBox;
+    }
+
+    /**
+     * Ray traces the cached hit box of the given block. In 1.17+, the
+     * block's shared {@link VoxelShapeTable} shape is tested first, so no
+     * {@link HitBox} is built for blocks the ray misses.
+     *
+     * @param block       The non-null block to ray trace.
+     * @param allowLiquid Whether liquid should be considered as having hit box.
+     * @param start       The non-null start of the ray.
+     * @param direction   The non-null normalized direction of the ray.
+     * @return The hit, or null if the ray missed the block.
+     */
+    @Nullable
+    public static RayTraceResult rayTrace(@NotNull Block block, boolean allowLiquid, @NotNull Vector start, @NotNull Vector direction) {
+        double[] shape = getShape(block, allowLiquid);
+        if (shape != null && !VoxelShapeTable.intersects(shape, block.getX(), block.getY(), block.getZ(), start, direction))
+            return null;
+
+        HitBox hitBox = getHitBox(block, allowLiquid);
+        return hitBox == null ? null : hitBox.rayTrace(start, direction);
+    }
+
+    /**
+     * Returns the shared shape of the given non-liquid block, or null when
+     * the shape cannot be used (liquids, versions before 1.17 and calls from
+     * other threads).
+     */
+    @Nullable
+    private static double[] getShape(Block block, boolean allowLiquid) {
+        if (ReflectionUtil.getMCVersion() < 17)
+            return null;
+
+        Section section = getSection(block.getWorld(), block.getX(), block.getY(), block.getZ());
+        if (section == null)
+            return null;
+
+        int index = section.slot(index(block.getX(), block.getY(), block.getZ()));
+        double[] shape = section.voxelShapes[index];
+        if (shape == null) {
+            shape = isLiquid(block) ? LIQUID_SHAPE : VoxelShapeTable.getShape(block);
+            section.voxelShapes[index] = shape;
+            if (shape != LIQUID_SHAPE && WorldSnapshot.isLearning())
+                WorldSnapshot.learn(block, allowLiquid, shape.length != 0);
+        }
+        return shape == LIQUID_SHAPE ? null : shape;
+    }
+
+    /**
+     * Returns <code>true</code> if the given block is a liquid, using the
+     * value resolved earlier this tick when possible.
+     *
+     * @param block The non-null block to test.
+     * @return true if the block is a liquid.
+     */
+    public static boolean isLiquid(@NotNull Block block) {
+        Section section = getSection(block.getWorld(), block.getX(), block.getY(), block.getZ());
+        if (section == null)
+            return block.isLiquid();
+
+        int index = section.slot(index(block.getX(), block.getY(), block.getZ()));
+        byte liquid = section.liquid[index];
+        if (liquid == 0) {
+            liquid = block.isLiquid() ? Section.LIQUID : Section.NOT_LIQUID;
+            section.liquid[index] = liquid;
+        }
+        return liquid == Section.LIQUID;
+    }
+
+    /**
+     * Removes the cached values of the chunk section containing the given
+     * block. This should be called whenever a block is changed during a tick.
+     *
+     * @param block The non-null block that was changed.
+     */
+    public static void invalidate(@NotNull Block block) {
+        invalidate(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+
+    /**
+     * Removes the cached values of the chunk section containing the given
+     * coordinates. This should be called whenever a block is changed during a
+     * tick.
+     *
+     * @param world The non-null world that contains the block.
+     * @param x     The x coordinate of the block.
+     * @param y     The y coordinate of the block.
+     * @param z     The z coordinate of the block.
+     */
+    public static void invalidate(@NotNull World world, int x, int y, int z) {
+        if (!Bukkit.isPrimaryThread())
+            return;
+
+        Map<Long, Section> sections = WORLDS.get(world);
+        if (sections == null)
+            return;
+
+        Section section = sections.get(sectionKey(x >> 4, y >> 4, z >> 4));
+        if (section != null)
+            section.clear();
+    }
+
+    /**
+     * Invalidates every cached block. This is called at the start of every
+     * tick. Sections which were not used during the previous tick are
+     * removed, the other ones are reused. Reused sections are not filled
+     * with nulls, each slot is reset when it is first used again.
+     */
+    public static void nextTick() {
+        tick++;
+        lastWorld = null;
+        lastSection = null;
+
+        Iterator<Map<Long, Section>> worlds = WORLDS.values().iterator();
+        while (worlds.hasNext()) {
+            Map<Long, Section> sections = worlds.next();
+            Iterator<Section> iterator = sections.values().iterator();
+            while (iterator.hasNext()) {
+                Section section = iterator.next();
+                if (section.lastUsed < tick - 1)
+                    iterator.remove();
+                else
+                    section.clear();
+            }
+
+            // Don't hold on to unloaded worlds
+            if (sections.isEmpty())
+                worlds.remove();
+        }
+    }
+
+    /**
+     * Removes all cached values. This should be called when the plugin is
+     * disabled.
+     */
+    public static void clear() {
+        WORLDS.clear();
+        lastWorld = null;
+        lastSection = null;
+    }
+
+    @Nullable
+    private static Section getSection(World world, int x, int y, int z) {
+        if (!Bukkit.isPrimaryThread())
+            return null;
+
+        long key = sectionKey(x >> 4, y >> 4, z >> 4);
+        if (lastSection != null && lastKey == key && lastWorld == world) {
+            lastSection.lastUsed = tick;
+            return lastSection;
+        }
+
+        Section section = WORLDS.computeIfAbsent(world, k -> new HashMap<>()).computeIfAbsent(key, k -> new Section());
+        section.lastUsed = tick;
+        lastWorld = world;
+        lastKey = key;
+        lastSection = section;
+        return section;
+    }
+
+    /**
+     * Packs the given chunk section coordinates into a <code>long</code>,
+     * using the same layout as vanilla minecraft (22 bits for x and z, 20 bits
+     * for y).
+     */
+    private static long sectionKey(int sectionX, int sectionY, int sectionZ) {
+        return ((long) sectionX & 0x3FFFFFL) << 42 | ((long) sectionZ & 0x3FFFFFL) << 20 | ((long) sectionY & 0xFFFFFL);
+    }
+
+    private static int index(int x, int y, int z) {
+        return (y & 15) << 8 | (z & 15) << 4 | (x & 15);
+    }
+
+    private static final class Section {
+
+        private static final byte LIQUID = 1;
+        private static final byte NOT_LIQUID = 2;
+
+        private final Block[] blocks = new Block[4096];
+        private final HitBox[] shapes = new HitBox[4096];
+        private final HitBox[] liquidShapes = new HitBox[4096];
+        private final byte[] liquid = new byte[4096];
+        private final double[][] voxelShapes = new double[4096][];
+        private final int[] stamps = new int[4096];
+        private int epoch = nextEpoch++;
+        private int lastUsed = -1;
+
+        /**
+         * Resets the given slot if it was written before the last clear.
+         *
+         * @param index The index of the slot.
+         * @return The same index.
+         */
+        private int slot(int index) {
+            if (stamps[index] != epoch) {
+                stamps[index] = epoch;
+                blocks[index] = null;
+                shapes[index] = null;
+                liquidShapes[index] = null;
+                liquid[index] = 0;
+                voxelShapes[index] = null;
+            }
+            return index;
+        }
+
+        private void clear() {
+            epoch = nextEpoch++;
+            lastUsed = -1;
+        }
+    }
+}
@@ -21,10 +21,29 @@ public class BlockTraceResult extends RayTraceResult {
             double hitMin,
             double hitMax,
             @NotNull Block block
+    ) {
+        this(origin, direction, hitBox, hitFace, exitFace, hitMin, hitMax, block, block.getState());
+    }
+
+    /**
+     * Same as the other constructor, but uses an already copied state of the
+     * block. Used when 1 block is ray traced multiple times (e.g. each box of
+     * its voxel shape), so the state is only copied once.
+     */
+    public BlockTraceResult(
+            @NotNull Vector origin,
+            @NotNull Vector direction,
+            @NotNull HitBox hitBox,
+            @NotNull BlockFace hitFace,
+            @NotNull BlockFace exitFace,
+            double hitMin,
+            double hitMax,
+            @NotNull Block block,
+            @NotNull BlockState blockState
     ) {
         super(origin, direction, hitBox, hitFace, exitFace, hitMin, hitMax);
         this.block = block;
-        this.blockState = block.getState();
+        this.blockState = blockState;
     }
 
     /**
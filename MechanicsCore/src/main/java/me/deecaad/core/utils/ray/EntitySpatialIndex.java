@@ -0,0 +1,483 @@
+package me.deecaad.core.utils.ray;
+
+import me.deecaad.core.compatibility.CompatibilityAPI;
+import me.deecaad.core.compatibility.HitBox;
+import me.deecaad.core.compatibility.entity.EntityCompatibility;
+import me.deecaad.core.utils.NumberUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.ComplexLivingEntity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.util.Vector;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Uniform grid of the living entities in a world. Instead of looping through
+ * every entity in the world (or every entity in every chunk a ray passes
+ * through), queries only look at the grid cells that overlap the query.
+ *
+ * <p>Entities move between the tasks and events of a tick, so the grid is
+ * only trusted inside a <i>phase</i>, like the projectile tick. A phase is
+ * started with {@link #beginPhase()} and ended with {@link #endPhase()}.
+ * The grid is built the first time it is queried during a phase, and then
+ * reused for the rest of that phase. Outside of a phase, {@link #get(World)}
+ * returns <code>null</code>, and callers should fall back to looping through
+ * the entities.
+ *
+ * <p>Each entity's bounding box is padded by {@link #PADDING} blocks, so
+ * queries return <i>candidates</i>, and the caller is expected to do exact
+ * checks using the entity's current position. Entities which spawn or
+ * teleport during a phase are added using
+ * {@link #update(LivingEntity, World, Location)}, see
+ * {@link me.deecaad.core.listeners.EntitySpatialIndexListener}.
+ *
+ * <p>Building the grid loops through every entity in the world, which costs
+ * more than it saves when the world is only queried a few times during a
+ * phase. {@link #getIfWorthBuilding(World)} returns <code>null</code> until
+ * the world has been queried {@link #MIN_QUERIES} times during the phase.
+ *
+ * <p>This index is only used from the main server thread.
+ * {@link #get(World)} returns <code>null</code> on other threads.
+ */
+public final class EntitySpatialIndex {
+
+    /**
+     * How many blocks each entity's bounding box is grown by.
+     */
+    public static final double PADDING = 2.0;
+
+    /**
+     * How many times a world is queried during a phase before
+     * {@link #getIfWorthBuilding(World)} builds its grid.
+     */
+    public static final int MIN_QUERIES = 8;
+
+    // Cells are 8x8 block columns, spanning the whole world height
+    private static final int CELL_SHIFT = 3;
+
+    private static final Map<World, EntitySpatialIndex> INDEXES = new HashMap<>();
+    private static int tick;
+    private static int phase;
+    private static int depth;
+
+    private final World world;
+    private int builtPhase = -1;
+    private int queriesPhase = -1;
+    private int lastUsed;
+    private int queries;
+
+    private LivingEntity[] entities = new LivingEntity[64];
+    private double[] boxes = new double[64 * 6];
+    private int size;
+
+    // Stamps are used so entities in multiple cells are only returned once
+    private int[] stamps = new int[64];
+    private int query;
+
+    private final Map<Long, Cell> cells = new HashMap<>();
+
+    private EntitySpatialIndex(World world) {
+        this.world = world;
+    }
+
+    /**
+     * Starts a phase, during which entities are assumed to not move (except
+     * when they teleport). Every call must be followed by a call to
+     * {@link #endPhase()}, usually in a <code>finally</code> block. Phases
+     * may be nested, the outermost phase is used.
+     */
+    public static void beginPhase() {
+        if (depth++ == 0)
+            phase++;
+    }
+
+    /**
+     * Ends the phase started by {@link #beginPhase()}. Indexes built during
+     * the phase are not used again.
+     */
+    public static void endPhase() {
+        if (depth == 0)
+            throw new IllegalStateException("No phase was started");
+        depth--;
+    }
+
+    /**
+     * Returns the index of the given world, building it if it has not been
+     * built yet this phase.
+     *
+     * @param world The non-null world to get the index of.
+     * @return The index, or null when not in a phase or not called from the
+     *         main thread.
+     */
+    @Nullable
+    public static EntitySpatialIndex get(@NotNull World world) {
+        if (depth == 0 || !Bukkit.isPrimaryThread())
+            return null;
+
+        EntitySpatialIndex index = use(world);
+        if (index.builtPhase != phase)
+            index.build();
+        return index;
+    }
+
+    /**
+     * Same as {@link #get(World)}, but returns <code>null</code> until the
+     * given world has been queried {@link #MIN_QUERIES} times during this
+     * phase (or the grid was already built). Callers should fall back to
+     * looping through the entities in the chunks they need, which is cheaper
+     * than building the grid for a few queries.
+     *
+     * @param world The non-null world to get the index of.
+     * @return The index, or null.
+     */
+    @Nullable
+    public static EntitySpatialIndex getIfWorthBuilding(@NotNull World world) {
+        if (depth == 0 || !Bukkit.isPrimaryThread())
+            return null;
+
+        EntitySpatialIndex index = use(world);
+        if (index.builtPhase != phase) {
+            if (++index.queries < MIN_QUERIES)
+                return null;
+            index.build();
+        }
+        return index;
+    }
+
+    /**
+     * Adds the given entity to the index of the world it moved to, so queries
+     * later in the same phase find it. If the entity left a world, it is
+     * removed from the index of that world. Indexes which were not built
+     * during the current phase are not changed, since they are built from
+     * the world's current entities anyway.
+     *
+     * @param entity The non-null entity which spawned or teleported.
+     * @param from   The world the entity left, or null if it spawned.
+     * @param to     The non-null location the entity moved to.
+     */
+    public static void update(@NotNull LivingEntity entity, @Nullable World from, @NotNull Location to) {
+        if (depth == 0 || !Bukkit.isPrimaryThread())
+            return;
+
+        if (from != null && from != to.getWorld()) {
+            EntitySpatialIndex index = INDEXES.get(from);
+            if (index != null && index.builtPhase == phase)
+                index.remove(entity);
+        }
+
+        EntitySpatialIndex index = INDEXES.get(to.getWorld());
+        if (index != null && index.builtPhase == phase)
+            index.put(entity, to);
+    }
+
+    private static EntitySpatialIndex use(World world) {
+        EntitySpatialIndex index = INDEXES.computeIfAbsent(world, EntitySpatialIndex::new);
+        index.lastUsed = tick;
+        if (index.queriesPhase != phase) {
+            index.queriesPhase = phase;
+            index.queries = 0;
+        }
+        return index;
+    }
+
+    /**
+     * Removes the indexes of worlds which were not queried during the
+     * previous tick. This is called at the start of every tick.
+     */
+    public static void nextTick() {
+        tick++;
+        INDEXES.values().removeIf(index -> index.lastUsed < tick - 1);
+    }
+
+    /**
+     * Removes all indexes. This should be called when the plugin is disabled.
+     */
+    public static void clear() {
+        INDEXES.clear();
+    }
+
+    /**
+     * Adds every entity whose (padded) bounding box overlaps the given box to
+     * <code>out</code>.
+     *
+     * @param out The non-null list to add the candidates to.
+     */
+    public void getEntities(double minX, double minY, double minZ, double maxX, double maxY, double maxZ, @NotNull List<LivingEntity> out) {
+        query++;
+        forEachCell(minX, minZ, maxX, maxZ, (cell) -> {
+            for (int j = 0; j < cell.size; j++) {
+                int i = cell.indices[j];
+                if (stamps[i] == query || entities[i] == null)
+                    continue;
+
+                int b = i * 6;
+                if (boxes[b] <= maxX && boxes[b + 3] >= minX && boxes[b + 1] <= maxY && boxes[b + 4] >= minY && boxes[b + 2] <= maxZ && boxes[b + 5] >= minZ) {
+                    stamps[i] = query;
+                    out.add(entities[i]);
+                }
+            }
+        });
+    }
+
+    /**
+     * Adds every entity whose (padded) bounding box overlaps the given sphere
+     * to <code>out</code>.
+     *
+     * @param center The non-null center of the sphere.
+     * @param radius The radius of the sphere.
+     * @param out    The non-null list to add the candidates to.
+     */
+    public void getEntitiesInSphere(@NotNull Location center, double radius, @NotNull List<LivingEntity> out) {
+        double x = center.getX();
+        double y = center.getY();
+        double z = center.getZ();
+        double radiusSquared = radius * radius;
+
+        query++;
+        forEachCell(x - radius, z - radius, x + radius, z + radius, (cell) -> {
+            for (int j = 0; j < cell.size; j++) {
+                int i = cell.indices[j];
+                if (stamps[i] == query || entities[i] == null)
+                    continue;
+
+                // Distance from the center to the closest point in the box
+                int b = i * 6;
+                double dx = Math.max(Math.max(boxes[b] - x, x - boxes[b + 3]), 0.0);
+                double dy = Math.max(Math.max(boxes[b + 1] - y, y - boxes[b + 4]), 0.0);
+                double dz = Math.max(Math.max(boxes[b + 2] - z, z - boxes[b + 5]), 0.0);
+                if (dx * dx + dy * dy + dz * dz <= radiusSquared) {
+                    stamps[i] = query;
+                    out.add(entities[i]);
+                }
+            }
+        });
+    }
+
+    /**
+     * Adds every entity whose (padded) bounding box is hit by the line
+     * segment from <code>start</code> to <code>end</code> to
+     * <code>out</code>.
+     *
+     * @param start The non-null start of the segment.
+     * @param end   The non-null end of the segment.
+     * @param grow  Extra distance to grow each bounding box by, like the ray size.
+     * @param out   The non-null list to add the candidates to.
+     */
+    public void getEntitiesAlongSegment(@NotNull Vector start, @NotNull Vector end, double grow, @NotNull List<LivingEntity> out) {
+        double startX = start.getX(), startY = start.getY(), startZ = start.getZ();
+        double dirX = end.getX() - startX, dirY = end.getY() - startY, dirZ = end.getZ() - startZ;
+        double divX = 1.0 / dirX, divY = 1.0 / dirY, divZ = 1.0 / dirZ;
+
+        query++;
+        forEachCell(Math.min(startX, end.getX()) - grow, Math.min(startZ, end.getZ()) - grow,
+                Math.max(startX, end.getX()) + grow, Math.max(startZ, end.getZ()) + grow, (cell) -> {
+            for (int j = 0; j < cell.size; j++) {
+                int i = cell.indices[j];
+                if (stamps[i] == query || entities[i] == null)
+                    continue;
+
+                // Slab test with t in [0, 1] along the segment
+                int b = i * 6;
+                double tMin = 0.0, tMax = 1.0;
+                double t1 = (boxes[b] - grow - startX) * divX, t2 = (boxes[b + 3] + grow - startX) * divX;
+                tMin = Math.max(tMin, Math.min(t1, t2));
+                tMax = Math.min(tMax, Math.max(t1, t2));
+                t1 = (boxes[b + 1] - grow - startY) * divY;
+                t2 = (boxes[b + 4] + grow - startY) * divY;
+                tMin = Math.max(tMin, Math.min(t1, t2));
+                tMax = Math.min(tMax, Math.max(t1, t2));
+                t1 = (boxes[b + 2] - grow - startZ) * divZ;
+                t2 = (boxes[b + 5] + grow - startZ) * divZ;
+                tMin = Math.max(tMin, Math.min(t1, t2));
+                tMax = Math.min(tMax, Math.max(t1, t2));
+
+                // NaN happens when the segment lies exactly on a box's face
+                if (tMin <= tMax || Double.isNaN(tMin) || Double.isNaN(tMax)) {
+                    stamps[i] = query;
+                    out.add(entities[i]);
+                }
+            }
+        });
+    }
+
+    /**
+     * @return the number of entities in this index
+     */
+    public int size() {
+        return size;
+    }
+
+    private void forEachCell(double minX, double minZ, double maxX, double maxZ, CellConsumer consumer) {
+        int minCellX = NumberUtil.intFloor(minX) >> CELL_SHIFT;
+        int minCellZ = NumberUtil.intFloor(minZ) >> CELL_SHIFT;
+        int maxCellX = NumberUtil.intFloor(maxX) >> CELL_SHIFT;
+        int maxCellZ = NumberUtil.intFloor(maxZ) >> CELL_SHIFT;
+
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                Cell cell = cells.get(cellKey(cellX, cellZ));
+                if (cell != null && cell.size != 0)
+                    consumer.accept(cell);
+            }
+        }
+    }
+
+    private void build() {
+        builtPhase = phase;
+
+        // Reuse cells that were used last tick, and drop the others
+        Iterator<Cell> iterator = cells.values().iterator();
+        while (iterator.hasNext()) {
+            Cell cell = iterator.next();
+            if (cell.size == 0)
+                iterator.remove();
+            else
+                cell.size = 0;
+        }
+
+        Arrays.fill(entities, 0, size, null);
+        size = 0;
+
+        EntityCompatibility compatibility = CompatibilityAPI.getEntityCompatibility();
+        for (LivingEntity entity : world.getLivingEntities()) {
+            grow();
+            if (!setBox(size * 6, entity, entity.getLocation(), compatibility))
+                continue;
+
+            entities[size] = entity;
+            stamps[size] = 0;
+            insert(size, size * 6);
+            size++;
+        }
+
+        query = 0;
+    }
+
+    private void put(LivingEntity entity, Location location) {
+
+        // The dragon's parts have not moved yet, so build the grid again
+        if (entity instanceof ComplexLivingEntity) {
+            builtPhase = -1;
+            return;
+        }
+
+        int i = indexOf(entity);
+        if (i == -1) {
+            grow();
+            i = size++;
+            entities[i] = entity;
+            stamps[i] = 0;
+        }
+
+        // The entity stays in the cells of its old box, but those cells
+        // check the new box
+        setBox(i * 6, entity, location, CompatibilityAPI.getEntityCompatibility());
+        insert(i, i * 6);
+    }
+
+    private void remove(LivingEntity entity) {
+        int i = indexOf(entity);
+        if (i != -1)
+            entities[i] = null;
+    }
+
+    private int indexOf(LivingEntity entity) {
+        for (int i = 0; i < size; i++) {
+            if (entities[i] == entity)
+                return i;
+        }
+        return -1;
+    }
+
+    private void grow() {
+        if (size == entities.length) {
+            entities = Arrays.copyOf(entities, size * 2);
+            boxes = Arrays.copyOf(boxes, size * 2 * 6);
+            stamps = Arrays.copyOf(stamps, size * 2);
+        }
+    }
+
+    private boolean setBox(int b, LivingEntity entity, Location location, EntityCompatibility compatibility) {
+        if (entity instanceof ComplexLivingEntity) {
+
+            // Ender dragon parts are far away from its location
+            HitBox hitBox = compatibility.getHitBox(entity);
+            if (hitBox == null)
+                return false;
+            boxes[b] = hitBox.getMinX();
+            boxes[b + 1] = hitBox.getMinY();
+            boxes[b + 2] = hitBox.getMinZ();
+            boxes[b + 3] = hitBox.getMaxX();
+            boxes[b + 4] = hitBox.getMaxY();
+            boxes[b + 5] = hitBox.getMaxZ();
+            Collection<HitBox> parts = hitBox.getVoxelShape();
+            for (HitBox part : parts == null ? List.<HitBox>of() : parts) {
+                boxes[b] = Math.min(boxes[b], part.getMinX());
+                boxes[b + 1] = Math.min(boxes[b + 1], part.getMinY());
+                boxes[b + 2] = Math.min(boxes[b + 2], part.getMinZ());
+                boxes[b + 3] = Math.max(boxes[b + 3], part.getMaxX());
+                boxes[b + 4] = Math.max(boxes[b + 4], part.getMaxY());
+                boxes[b + 5] = Math.max(boxes[b + 5], part.getMaxZ());
+            }
+        } else {
+            double halfWidth = compatibility.getWidth(entity) / 2.0;
+            boxes[b] = location.getX() - halfWidth;
+            boxes[b + 1] = location.getY();
+            boxes[b + 2] = location.getZ() - halfWidth;
+            boxes[b + 3] = location.getX() + halfWidth;
+            boxes[b + 4] = location.getY() + compatibility.getHeight(entity);
+            boxes[b + 5] = location.getZ() + halfWidth;
+        }
+
+        boxes[b] -= PADDING;
+        boxes[b + 1] -= PADDING;
+        boxes[b + 2] -= PADDING;
+        boxes[b + 3] += PADDING;
+        boxes[b + 4] += PADDING;
+        boxes[b + 5] += PADDING;
+        return true;
+    }
+
+    private void insert(int i, int b) {
+        int minCellX = NumberUtil.intFloor(boxes[b]) >> CELL_SHIFT;
+        int minCellZ = NumberUtil.intFloor(boxes[b + 2]) >> CELL_SHIFT;
+        int maxCellX = NumberUtil.intFloor(boxes[b + 3]) >> CELL_SHIFT;
+        int maxCellZ = NumberUtil.intFloor(boxes[b + 5]) >> CELL_SHIFT;
+
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                cells.computeIfAbsent(cellKey(cellX, cellZ), k -> new Cell()).add(i);
+            }
+        }
+    }
+
+    private static long cellKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    private static final class Cell {
+
+        private int[] indices = new int[8];
+        private int size;
+
+        private void add(int i) {
+            if (size == indices.length)
+                indices = Arrays.copyOf(indices, size * 2);
+            indices[size++] = i;
+        }
+    }
+
+    @FunctionalInterface
+    private interface CellConsumer {
+        void accept(Cell cell);
+    }
+}
@@ -0,0 +1,100 @@
+package me.deecaad.core.utils.ray;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * List of ray trace hits which is kept sorted by {@link RayTraceResult#getHitMin()}
+ * while hits are {@link #insert(RayTraceResult) inserted}. A ray trace only
+ * hits a handful of blocks and entities, so inserting each hit at its place
+ * is cheaper than sorting the whole list with a comparator afterward. Hits
+ * with the same distance keep the order they were inserted in, just like a
+ * stable sort.
+ *
+ * <p>The array only grows when a cast hits more than it can hold, so a
+ * buffer that is {@link #reset()} and reused stops allocating after the
+ * first few casts.
+ */
+final class HitBuffer extends AbstractList<RayTraceResult> implements RandomAccess {
+
+    private RayTraceResult[] hits;
+    private int size;
+
+    HitBuffer(int capacity) {
+        this.hits = new RayTraceResult[capacity];
+    }
+
+    /**
+     * Adds the given hit after every hit that is closer or equally close to
+     * the start of the ray.
+     *
+     * @param hit The non-null hit to add.
+     */
+    void insert(RayTraceResult hit) {
+        grow();
+        modCount++;
+
+        double hitMin = hit.getHitMin();
+        int i = size++;
+        while (i > 0 && hits[i - 1].getHitMin() > hitMin) {
+            hits[i] = hits[i - 1];
+            i--;
+        }
+        hits[i] = hit;
+    }
+
+    /**
+     * Removes every hit, keeping the array for the next cast.
+     */
+    void reset() {
+        modCount++;
+        Arrays.fill(hits, 0, size, null);
+        size = 0;
+    }
+
+    @Override
+    public RayTraceResult get(int index) {
+        Objects.checkIndex(index, size);
+        return hits[index];
+    }
+
+    @Override
+    public RayTraceResult set(int index, RayTraceResult element) {
+        Objects.checkIndex(index, size);
+        RayTraceResult old = hits[index];
+        hits[index] = element;
+        return old;
+    }
+
+    @Override
+    public void add(int index, RayTraceResult element) {
+        Objects.checkIndex(index, size + 1);
+        grow();
+        modCount++;
+        System.arraycopy(hits, index, hits, index + 1, size - index);
+        hits[index] = element;
+        size++;
+    }
+
+    @Override
+    public RayTraceResult remove(int index) {
+        Objects.checkIndex(index, size);
+        modCount++;
+        RayTraceResult old = hits[index];
+        System.arraycopy(hits, index + 1, hits, index, size - index - 1);
+        hits[--size] = null;
+        return old;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private void grow() {
+        if (size == hits.length)
+            hits = Arrays.copyOf(hits, Math.max(hits.length << 1, 4));
+    }
+}
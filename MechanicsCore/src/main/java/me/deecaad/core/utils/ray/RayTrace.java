@@ -9,9 +9,10 @@ import org.bukkit.block.Block;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.util.Vector;
+import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.List;
 import java.util.function.Predicate;
 
@@ -26,6 +27,18 @@ public class RayTrace {
     private boolean outlineHitBox;
     private boolean allowLiquid;
     private double raySize = 0.1;
+    private boolean reuseHits;
+    private HitBuffer hitBuffer;
+    private final List<LivingEntity> entityCandidates = new ArrayList<>();
+
+    // Set by prepare(), possibly on another thread, and used by the next cast
+    // with the same start and end. Holds the x-y-z of each block with a hit box.
+    private World preparedWorld;
+    private Vector preparedStart;
+    private Vector preparedEnd;
+    private int[] preparedBlocks;
+    private int preparedSize;
+    private boolean preparedStartBlock;
 
     public RayTrace() { }
 
@@ -71,6 +84,19 @@ public class RayTrace {
         return this;
     }
 
+    /**
+     * Reuses 1 list for the hits of every cast instead of allocating a new
+     * list each time. The list returned by a cast is then only valid until
+     * the next cast, so copy it if it needs to be kept. The hits themselves
+     * are never reused.
+     *
+     * @return A non-null reference to this (builder pattern).
+     */
+    public RayTrace withReusedHits() {
+        this.reuseHits = true;
+        return this;
+    }
+
     public List<RayTraceResult> cast(World world, Vector start, Vector direction, double range) {
         return cast(world, start, start.clone().add(direction.clone().multiply(range)), direction);
     }
@@ -83,16 +109,72 @@ public class RayTrace {
         return cast(world, start, end, direction, 0);
     }
 
+    /**
+     * Walks through the blocks between <code>start</code> and <code>end</code>
+     * ahead of time, using the given snapshot instead of the world. The next
+     * cast with exactly the same start and end then only checks the blocks
+     * which had a hit box in the snapshot, instead of every block along the
+     * way. Any other cast discards the prepared blocks.
+     *
+     * <p>This method is thread safe, as long as this ray trace is not cast at
+     * the same time.
+     *
+     * @param snapshot The non-null snapshot containing the segment.
+     * @param start    The non-null start of the next cast.
+     * @param end      The non-null end of the next cast.
+     * @return true if the blocks were prepared.
+     */
+    public boolean prepare(@NotNull WorldSnapshot snapshot, @NotNull Vector start, @NotNull Vector end) {
+        preparedBlocks = null;
+        if (this.disableBlockChecks) return false;
+
+        int[] blocks = new int[3 * 8];
+        int size = 0;
+        boolean startBlock = false;
+
+        VoxelWalker walker = new VoxelWalker(start, end);
+        boolean first = true;
+        do {
+            int hitBox = snapshot.hasHitBox(walker.x, walker.y, walker.z, allowLiquid);
+            if (hitBox == -1) return false;
+            if (hitBox == 1) {
+                if (size == blocks.length) blocks = Arrays.copyOf(blocks, size * 2);
+                blocks[size++] = walker.x;
+                blocks[size++] = walker.y;
+                blocks[size++] = walker.z;
+                startBlock |= first;
+            }
+            first = false;
+        } while (walker.next());
+
+        preparedWorld = snapshot.getWorld();
+        preparedStart = start.clone();
+        preparedEnd = end.clone();
+        preparedSize = size;
+        preparedStartBlock = startBlock;
+        preparedBlocks = blocks;
+        return true;
+    }
+
     public List<RayTraceResult> cast(World world, Vector start, Vector end, Vector direction, double maximumBlockThrough) {
-        List<RayTraceResult> hits = new ArrayList<>(5);
-        getBlockHits(hits, world, start, end, direction, maximumBlockThrough);
+        HitBuffer hits;
+        if (reuseHits) {
+            if (hitBuffer == null) hitBuffer = new HitBuffer(8);
+            hits = hitBuffer;
+            hits.reset();
+        } else {
+            hits = new HitBuffer(5);
+        }
+
+        if (isPrepared(world, start, end))
+            getPreparedBlockHits(hits, world, start, direction, maximumBlockThrough);
+        else
+            getBlockHits(hits, world, start, end, direction, maximumBlockThrough);
+        preparedBlocks = null;
         getEntityHits(hits, world, start, end, direction);
 
+        // Hits are already sorted based on distance travelled (lowest to highest)
         if (!hits.isEmpty()) {
-
-            // If more than 1 hit, sort based on distance travelled (lowest to highest)
-            if (hits.size() > 1) hits.sort(Comparator.comparingDouble(RayTraceResult::getHitMin));
-
             if (this.outlineHitPosition) hits.get(0).outlineOnlyHitPosition(entity);
             if (this.outlineHitBox) {
                 RayTraceResult firstHit = hits.get(0);
@@ -110,75 +192,31 @@ public class RayTrace {
         return null;
     }
 
-    private void getBlockHits(List<RayTraceResult> hits, World world, Vector start, Vector end, Vector direction, double maximumBlockThrough) {
+    private void getBlockHits(HitBuffer hits, World world, Vector start, Vector end, Vector direction, double maximumBlockThrough) {
         if (this.disableBlockChecks) return;
 
         // Method based on NMS block traversing
+        VoxelWalker walker = new VoxelWalker(start, end);
 
-        double startX = NumberUtil.lerp(start.getX(), end.getX(), -1.0E-7);
-        double startY = NumberUtil.lerp(start.getY(), end.getY(), -1.0E-7);
-        double startZ = NumberUtil.lerp(start.getZ(), end.getZ(), -1.0E-7);
-
-        int currentX = NumberUtil.intFloor(startX);
-        int currentY = NumberUtil.intFloor(startY);
-        int currentZ = NumberUtil.intFloor(startZ);
-
-        Block startBlock = world.getBlockAt(currentX, currentY, currentZ);
+        Block startBlock = BlockSnapshotCache.getBlockAt(world, walker.x, walker.y, walker.z);
         RayTraceResult rayStartBlock = rayBlock(startBlock, start, direction);
         if (rayStartBlock != null) {
-            hits.add(rayStartBlock);
+            hits.insert(rayStartBlock);
 
             // Don't count liquid as actual hits along the path
-            if (!allowLiquid || !startBlock.isLiquid()) {
+            if (!allowLiquid || !BlockSnapshotCache.isLiquid(startBlock)) {
                 if (maximumBlockThrough != -1.0 && (maximumBlockThrough -= rayStartBlock.getThroughDistance()) < 0) return;
             }
         }
 
-        double endX = NumberUtil.lerp(end.getX(), start.getX(), -1.0E-7);
-        double endY = NumberUtil.lerp(end.getY(), start.getY(), -1.0E-7);
-        double endZ = NumberUtil.lerp(end.getZ(), start.getZ(), -1.0E-7);
-
-        double directionX = endX - startX;
-        double directionY = endY - startY;
-        double directionZ = endZ - startZ;
-        int blockX = NumberUtil.sign(directionX);
-        int blockY = NumberUtil.sign(directionY);
-        int blockZ = NumberUtil.sign(directionZ);
-        double addX = blockX == 0 ? Double.MAX_VALUE : (double) blockX / directionX;
-        double addY = blockY == 0 ? Double.MAX_VALUE : (double) blockY / directionY;
-        double addZ = blockZ == 0 ? Double.MAX_VALUE : (double) blockZ / directionZ;
-        double maxX = addX * (blockX > 0 ? 1.0 - NumberUtil.frac(startX) : NumberUtil.frac(startX));
-        double maxY = addY * (blockY > 0 ? 1.0 - NumberUtil.frac(startY) : NumberUtil.frac(startY));
-        double maxZ = addZ * (blockZ > 0 ? 1.0 - NumberUtil.frac(startZ) : NumberUtil.frac(startZ));
-
-        while (maximumBlockThrough > -1) {
-            if (maxX > 1.0 && maxY > 1.0 && maxZ > 1.0) {
-                break;
-            }
-
-            if (maxX < maxY) {
-                if (maxX < maxZ) {
-                    currentX += blockX;
-                    maxX += addX;
-                } else {
-                    currentZ += blockZ;
-                    maxZ += addZ;
-                }
-            } else if (maxY < maxZ) {
-                currentY += blockY;
-                maxY += addY;
-            } else {
-                currentZ += blockZ;
-                maxZ += addZ;
-            }
-
-            Block newBlock = world.getBlockAt(currentX, currentY, currentZ);
+        while (maximumBlockThrough > -1 && walker.next()) {
+            Block newBlock = BlockSnapshotCache.getBlockAt(world, walker.x, walker.y, walker.z);
             RayTraceResult rayNewBlock = rayBlock(newBlock, start, direction);
             if (rayNewBlock != null) {
-                hits.add(rayNewBlock);
+                hits.insert(rayNewBlock);
 
                 // Don't count liquid as actual hits along the path
-                if (!allowLiquid || !newBlock.isLiquid()) {
+                if (!allowLiquid || !BlockSnapshotCache.isLiquid(newBlock)) {
                     if (--maximumBlockThrough < 0) break;
                 }
 
@@ -186,19 +224,65 @@ public class RayTrace {
         }
     }
 
+    /**
+     * Same as {@link #getBlockHits(HitBuffer, World, Vector, Vector, Vector, double)},
+     * but only checks the blocks found by {@link #prepare(WorldSnapshot, Vector, Vector)}.
+     * Blocks without a hit box never produce hits, and recorded blocks are
+     * resolved again from the world, so blocks removed since the snapshot are
+     * not hit. Blocks which gained a hit box since the snapshot are missed.
+     */
+    private void getPreparedBlockHits(HitBuffer hits, World world, Vector start, Vector direction, double maximumBlockThrough) {
+        if (this.disableBlockChecks) return;
+
+        int[] blocks = preparedBlocks;
+        for (int i = 0; i < preparedSize; i += 3) {
+            boolean isStartBlock = i == 0 && preparedStartBlock;
+            if (!isStartBlock && maximumBlockThrough <= -1) break;
+
+            Block block = BlockSnapshotCache.getBlockAt(world, blocks[i], blocks[i + 1], blocks[i + 2]);
+            RayTraceResult rayBlock = rayBlock(block, start, direction);
+            if (rayBlock == null) continue;
+            hits.insert(rayBlock);
+
+            // Don't count liquid as actual hits along the path
+            if (allowLiquid && BlockSnapshotCache.isLiquid(block)) continue;
+            if (isStartBlock) {
+                if (maximumBlockThrough != -1.0 && (maximumBlockThrough -= rayBlock.getThroughDistance()) < 0) return;
+            } else if (--maximumBlockThrough < 0) {
+                break;
+            }
+        }
+    }
+
+    private boolean isPrepared(World world, Vector start, Vector end) {
+        return preparedBlocks != null && preparedWorld == world
+                && preparedStart.getX() == start.getX() && preparedStart.getY() == start.getY() && preparedStart.getZ() == start.getZ()
+                && preparedEnd.getX() == end.getX() && preparedEnd.getY() == end.getY() && preparedEnd.getZ() == end.getZ();
+    }
+
     private RayTraceResult rayBlock(Block block, Vector start, Vector direction) {
         if (blockFilter != null && blockFilter.test(block)) return null;
 
-        HitBox blockBox = CompatibilityAPI.getBlockCompatibility().getHitBox(block, allowLiquid);
-        if (blockBox == null) return null;
-
-        return blockBox.rayTrace(start, direction);
+        return BlockSnapshotCache.rayTrace(block, allowLiquid, start, direction);
     }
 
-    private void getEntityHits(List<RayTraceResult> hits, World world, Vector start, Vector end, Vector direction) {
+    private void getEntityHits(HitBuffer hits, World world, Vector start, Vector end, Vector direction) {
         if (this.disableEntityChecks) return;
         HitBox hitBox = new HitBox(start, end);
 
+        EntitySpatialIndex index = EntitySpatialIndex.getIfWorthBuilding(world);
+        if (index != null) {
+            index.getEntitiesAlongSegment(start, end, raySize, entityCandidates);
+            for (LivingEntity entity : entityCandidates) {
+                RayTraceResult rayNewEntity = rayEntity(hitBox, entity, start, direction);
+                if (rayNewEntity != null) {
+                    hits.insert(rayNewEntity);
+                }
+            }
+            entityCandidates.clear();
+            return;
+        }
+
         int minX = NumberUtil.intFloor((hitBox.getMinX() - 2.0) / 16.0);
         int maxX = NumberUtil.intFloor((hitBox.getMaxX() + 2.0) / 16.0);
         int minZ = NumberUtil.intFloor((hitBox.getMinZ() - 2.0) / 16.0);
@@ -210,7 +294,7 @@ public class RayTrace {
                 for (final Entity entity : chunk.getEntities()) {
                     RayTraceResult rayNewEntity = rayEntity(hitBox, entity, start, direction);
                     if (rayNewEntity != null) {
-                        hits.add(rayNewEntity);
+                        hits.insert(rayNewEntity);
                     }
                 }
             }
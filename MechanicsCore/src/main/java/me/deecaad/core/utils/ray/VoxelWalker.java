@@ -0,0 +1,84 @@
+package me.deecaad.core.utils.ray;
+
+import me.deecaad.core.utils.NumberUtil;
+import org.bukkit.util.Vector;
+
+/**
+ * Walks through every block a line segment passes through, in order. This is
+ * the same traversal minecraft uses for its own ray traces. The walker does
+ * not touch the world, so it may be used from any thread.
+ */
+final class VoxelWalker {
+
+    int x;
+    int y;
+    int z;
+
+    private final int blockX;
+    private final int blockY;
+    private final int blockZ;
+    private final double addX;
+    private final double addY;
+    private final double addZ;
+    private double maxX;
+    private double maxY;
+    private double maxZ;
+
+    /**
+     * Creates a walker positioned at the first block of the segment.
+     */
+    VoxelWalker(Vector start, Vector end) {
+        double startX = NumberUtil.lerp(start.getX(), end.getX(), -1.0E-7);
+        double startY = NumberUtil.lerp(start.getY(), end.getY(), -1.0E-7);
+        double startZ = NumberUtil.lerp(start.getZ(), end.getZ(), -1.0E-7);
+
+        x = NumberUtil.intFloor(startX);
+        y = NumberUtil.intFloor(startY);
+        z = NumberUtil.intFloor(startZ);
+
+        double endX = NumberUtil.lerp(end.getX(), start.getX(), -1.0E-7);
+        double endY = NumberUtil.lerp(end.getY(), start.getY(), -1.0E-7);
+        double endZ = NumberUtil.lerp(end.getZ(), start.getZ(), -1.0E-7);
+
+        double directionX = endX - startX;
+        double directionY = endY - startY;
+        double directionZ = endZ - startZ;
+        blockX = NumberUtil.sign(directionX);
+        blockY = NumberUtil.sign(directionY);
+        blockZ = NumberUtil.sign(directionZ);
+        addX = blockX == 0 ? Double.MAX_VALUE : (double) blockX / directionX;
+        addY = blockY == 0 ? Double.MAX_VALUE : (double) blockY / directionY;
+        addZ = blockZ == 0 ? Double.MAX_VALUE : (double) blockZ / directionZ;
+        maxX = addX * (blockX > 0 ? 1.0 - NumberUtil.frac(startX) : NumberUtil.frac(startX));
+        maxY = addY * (blockY > 0 ? 1.0 - NumberUtil.frac(startY) : NumberUtil.frac(startY));
+        maxZ = addZ * (blockZ > 0 ? 1.0 - NumberUtil.frac(startZ) : NumberUtil.frac(startZ));
+    }
+
+    /**
+     * Moves to the next block of the segment.
+     *
+     * @return false if the end of the segment was already reached.
+     */
+    boolean next() {
+        if (maxX > 1.0 && maxY > 1.0 && maxZ > 1.0) {
+            return false;
+        }
+
+        if (maxX < maxY) {
+            if (maxX < maxZ) {
+                x += blockX;
+                maxX += addX;
+            } else {
+                z += blockZ;
+                maxZ += addZ;
+            }
+        } else if (maxY < maxZ) {
+            y += blockY;
+            maxY += addY;
+        } else {
+            z += blockZ;
+            maxZ += addZ;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,184 @@
+package me.deecaad.core.utils.ray;
+
+import me.deecaad.core.compatibility.CompatibilityAPI;
+import me.deecaad.core.compatibility.block.SectionSnapshot;
+import me.deecaad.core.utils.NumberUtil;
+import me.deecaad.core.utils.ReflectionUtil;
+import me.deecaad.core.utils.primitive.LongMap;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.util.Vector;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable copy of the chunk sections (16 x 16 x 16 blocks) that some ray
+ * traces will pass through, so {@link RayTrace#prepare(WorldSnapshot, Vector, Vector)}
+ * can walk through blocks on other threads. Sections are captured on the main
+ * thread using {@link #addSegment(Vector, Vector)}, after which the snapshot
+ * may be read from any thread. Only the sections a segment's bounds cover
+ * are copied, not whole chunks.
+ *
+ * <p>Whether a block has a hit box is not known off the main thread. Instead,
+ * it is learned from the hit boxes {@link BlockSnapshotCache} resolves on the
+ * main thread while {@link #setLearning(boolean) learning} is enabled. Blocks
+ * whose state was never seen count as unknown, and ray traces through them
+ * are not prepared.
+ *
+ * <p>A snapshot is a copy, so blocks changed after it was captured (for
+ * example, placed by a listener or an explosion later in the same tick) are
+ * not seen by the ray traces prepared from it.
+ *
+ * <p>Copying sections needs {@link me.deecaad.core.compatibility.block.BlockCompatibility#getSectionSnapshot(World, int, int, int)},
+ * so snapshots can only be used in 1.18+.
+ */
+public final class WorldSnapshot {
+
+    // Bits of each learned block state
+    private static final byte KNOWN = 1;
+    private static final byte HIT_BOX = 2;
+    private static final byte KNOWN_LIQUID = 4;
+    private static final byte HIT_BOX_LIQUID = 8;
+
+    private static final Map<Object, Byte> STATES = new ConcurrentHashMap<>();
+    private static volatile boolean learning;
+
+    private final World world;
+    private final int minHeight;
+    private final int maxHeight;
+    private final LongMap<SectionSnapshot> sections = new LongMap<>();
+
+    /**
+     * Creates an empty snapshot of the given world. This must be called from
+     * the main thread.
+     *
+     * @param world The non-null world to copy chunks from.
+     */
+    public WorldSnapshot(@NotNull World world) {
+        if (ReflectionUtil.getMCVersion() < 18)
+            throw new IllegalStateException("World snapshots need 1.18+");
+
+        this.world = world;
+        this.minHeight = ReflectionUtil.getMCVersion() < 17 ? 0 : world.getMinHeight();
+        this.maxHeight = world.getMaxHeight();
+    }
+
+    /**
+     * @return true if block states are being learned
+     */
+    public static boolean isLearning() {
+        return learning;
+    }
+
+    /**
+     * Sets whether {@link BlockSnapshotCache} should remember which block
+     * states have a hit box. Learning costs a little for every block resolved
+     * by a ray trace, so this should only be enabled while snapshots are used.
+     *
+     * @param learning true to learn block states.
+     */
+    public static void setLearning(boolean learning) {
+        WorldSnapshot.learning = learning;
+    }
+
+    /**
+     * Remembers whether the state of the given block has a hit box. This
+     * must be called from the main thread.
+     *
+     * @param block       The non-null block whose hit box was resolved.
+     * @param allowLiquid Whether liquids were considered as having hit box.
+     * @param hitBox      Whether the block has a hit box.
+     */
+    public static void learn(@NotNull Block block, boolean allowLiquid, boolean hitBox) {
+        byte bits = allowLiquid
+                ? (byte) (KNOWN_LIQUID | (hitBox ? HIT_BOX_LIQUID : 0))
+                : (byte) (KNOWN | (hitBox ? HIT_BOX : 0));
+        Object state = CompatibilityAPI.getBlockCompatibility().getState(block.getBlockData());
+        STATES.merge(state, bits, (a, b) -> (byte) (a | b));
+    }
+
+    /**
+     * Forgets every learned block state.
+     */
+    public static void clearLearned() {
+        STATES.clear();
+    }
+
+    /**
+     * @return the world this is a snapshot of
+     */
+    @NotNull
+    public World getWorld() {
+        return world;
+    }
+
+    /**
+     * Copies every chunk section the given segment may pass through. This
+     * must be called from the main thread.
+     *
+     * @param start The non-null start of the segment.
+     * @param end   The non-null end of the segment.
+     * @return false if one of the chunks is not loaded.
+     */
+    public boolean addSegment(@NotNull Vector start, @NotNull Vector end) {
+        int minX = NumberUtil.intFloor(Math.min(start.getX(), end.getX())) >> 4;
+        int minY = Math.max(NumberUtil.intFloor(Math.min(start.getY(), end.getY())), minHeight) >> 4;
+        int minZ = NumberUtil.intFloor(Math.min(start.getZ(), end.getZ())) >> 4;
+        int maxX = NumberUtil.intFloor(Math.max(start.getX(), end.getX())) >> 4;
+        int maxY = Math.min(NumberUtil.intFloor(Math.max(start.getY(), end.getY())), maxHeight - 1) >> 4;
+        int maxZ = NumberUtil.intFloor(Math.max(start.getZ(), end.getZ())) >> 4;
+
+        boolean loaded = true;
+        for (int sectionX = minX; sectionX <= maxX; sectionX++) {
+            for (int sectionZ = minZ; sectionZ <= maxZ; sectionZ++) {
+                for (int sectionY = minY; sectionY <= maxY; sectionY++) {
+                    long key = sectionKey(sectionX, sectionY, sectionZ);
+                    if (sections.containsKey(key))
+                        continue;
+
+                    SectionSnapshot section = CompatibilityAPI.getBlockCompatibility().getSectionSnapshot(world, sectionX, sectionY, sectionZ);
+                    if (section == null) {
+                        loaded = false;
+                        continue;
+                    }
+                    sections.put(key, section);
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Returns whether the block at the given coordinates has a hit box. This
+     * method is thread safe.
+     *
+     * @param x           The x coordinate of the block.
+     * @param y           The y coordinate of the block.
+     * @param z           The z coordinate of the block.
+     * @param allowLiquid Whether liquids should be considered as having hit box.
+     * @return 1 if the block has a hit box, 0 if it doesn't, or -1 if unknown.
+     */
+    public int hasHitBox(int x, int y, int z, boolean allowLiquid) {
+        if (y < minHeight || y >= maxHeight)
+            return 0;
+
+        SectionSnapshot section = sections.get(sectionKey(x >> 4, y >> 4, z >> 4));
+        if (section == null)
+            return -1;
+
+        Byte bits = STATES.get(section.getState(x, y, z));
+        if (bits == null)
+            return -1;
+
+        if (allowLiquid)
+            return (bits & KNOWN_LIQUID) == 0 ? -1 : (bits & HIT_BOX_LIQUID) == 0 ? 0 : 1;
+        else
+            return (bits & KNOWN) == 0 ? -1 : (bits & HIT_BOX) == 0 ? 0 : 1;
+    }
+
+    private static long sectionKey(int sectionX, int sectionY, int sectionZ) {
+        return ((long) sectionX & 0x3FFFFFL) << 42 | ((long) sectionZ & 0x3FFFFFL) << 20 | ((long) sectionY & 0xFFFFFL);
+    }
+}
@@ -0,0 +1,58 @@
+package me.deecaad.core.compatibility.block;
+
+import org.bukkit.util.Vector;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VoxelShapeTableTest {
+
+    private static final double[] FULL = { 0, 0, 0, 1, 1, 1 };
+
+    // A bottom slab, and a top slab over the back half (like a stair)
+    private static final double[] STAIR = {
+            0, 0, 0, 1, 1, 1,
+            0, 0, 0, 1, 0.5, 1,
+            0, 0.5, 0.5, 1, 1, 1
+    };
+
+    @Test
+    void test_empty() {
+        assertFalse(VoxelShapeTable.intersects(VoxelShapeTable.EMPTY, 0, 0, 0, new Vector(-1, 0.5, 0.5), new Vector(1, 0, 0)));
+    }
+
+    @Test
+    void test_axisAligned() {
+        assertTrue(VoxelShapeTable.intersects(FULL, 10, 64, -5, new Vector(8, 64.5, -4.5), new Vector(1, 0, 0)));
+        assertTrue(VoxelShapeTable.intersects(FULL, 10, 64, -5, new Vector(10.5, 70, -4.5), new Vector(0, -1, 0)));
+        assertFalse(VoxelShapeTable.intersects(FULL, 10, 64, -5, new Vector(8, 66, -4.5), new Vector(1, 0, 0)));
+        assertFalse(VoxelShapeTable.intersects(FULL, 10, 64, -5, new Vector(13, 64.5, -4.5), new Vector(1, 0, 0)));
+    }
+
+    @Test
+    void test_startOnFace() {
+
+        // These rays divided 0 by 0 before, which gave NaN and missed
+        assertTrue(VoxelShapeTable.intersects(FULL, 0, 0, 0, new Vector(-1, 1, 0.5), new Vector(1, 0, 0)));
+        assertTrue(VoxelShapeTable.intersects(FULL, 0, 0, 0, new Vector(0, 5, 0), new Vector(0, -1, 0)));
+        assertTrue(VoxelShapeTable.intersects(FULL, 0, 0, 0, new Vector(1, 0.5, -3), new Vector(0, 0, 1)));
+    }
+
+    @Test
+    void test_diagonal() {
+        Vector direction = new Vector(1, 1, 1).normalize();
+        assertTrue(VoxelShapeTable.intersects(FULL, 0, 0, 0, new Vector(-1, -1, -1), direction));
+        assertFalse(VoxelShapeTable.intersects(FULL, 0, 0, 0, new Vector(-1, 0.5, -3), direction));
+        assertFalse(VoxelShapeTable.intersects(FULL, 0, 0, 0, new Vector(2, 2, 2), direction));
+    }
+
+    @Test
+    void test_parts() {
+
+        // Hits the bounding box, but passes over the bottom slab
+        assertFalse(VoxelShapeTable.intersects(STAIR, 0, 0, 0, new Vector(-1, 0.75, 0.25), new Vector(1, 0, 0)));
+        assertTrue(VoxelShapeTable.intersects(STAIR, 0, 0, 0, new Vector(0.5, 0.75, -1), new Vector(0, -0.5, 1).normalize()));
+        assertTrue(VoxelShapeTable.intersects(STAIR, 0, 0, 0, new Vector(-1, 0.75, 0.75), new Vector(1, 0, 0)));
+    }
+}
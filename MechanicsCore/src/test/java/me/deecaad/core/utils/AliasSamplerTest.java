@@ -0,0 +1,69 @@
+package me.deecaad.core.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AliasSamplerTest {
+
+    @Test
+    public void test_empty() {
+        AliasSampler<String> sampler = new AliasSampler<>(List.of(), new double[0]);
+
+        assertTrue(sampler.isEmpty());
+        assertNull(sampler.get());
+    }
+
+    @Test
+    public void test_single() {
+        AliasSampler<String> sampler = new AliasSampler<>(List.of("Only"), new double[]{0.25});
+
+        for (int i = 0; i < 100; i++)
+            assertEquals("Only", sampler.get());
+    }
+
+    @Test
+    public void test_illegalWeights() {
+        assertThrows(IllegalArgumentException.class, () -> new AliasSampler<>(List.of("A", "B"), new double[]{1.0}));
+        assertThrows(IllegalArgumentException.class, () -> new AliasSampler<>(List.of("A"), new double[]{0.0}));
+        assertThrows(IllegalArgumentException.class, () -> new AliasSampler<>(List.of("A"), new double[]{Double.NaN}));
+    }
+
+    @Test
+    public void test_distribution() {
+        List<Integer> elements = List.of(0, 1, 2, 3);
+        double[] weights = {1.0, 2.0, 3.0, 4.0};
+        AliasSampler<Integer> sampler = new AliasSampler<>(elements, weights);
+
+        Random random = new Random(12345);
+        int draws = 1_000_000;
+        int[] counts = new int[elements.size()];
+        for (int i = 0; i < draws; i++)
+            counts[sampler.get(random)]++;
+
+        for (int i = 0; i < counts.length; i++)
+            assertEquals(weights[i] / 10.0, (double) counts[i] / draws, 0.005);
+    }
+
+    @Test
+    public void test_probabilityMap() {
+        ProbabilityMap<String> map = new ProbabilityMap<>();
+        map.add("Common", 99.0);
+        map.add("Rare", 1.0);
+
+        Random random = new Random(12345);
+        int rare = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if ("Rare".equals(map.getSampler().get(random)))
+                rare++;
+        }
+        assertEquals(0.01, rare / 100_000.0, 0.002);
+
+        // Removing should rebuild the sampler
+        map.remove("Common");
+        assertEquals("Rare", map.get());
+    }
+}
@@ -0,0 +1,130 @@
+package me.deecaad.core.utils.primitive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LongMapTest {
+
+    private static LongMap<String> provideStrings() {
+        LongMap<String> strings = new LongMap<>();
+        strings.put(0L, "Zero");
+        strings.put(1L, "One");
+        strings.put(-1L, "Negative");
+        strings.put(1L << 42, "Chunk");
+        strings.put(Long.MAX_VALUE, "Max");
+
+        return strings;
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0,Zero", "1,One", "-1,Negative", "4398046511104,Chunk", "9223372036854775807,Max"})
+    public void test_get(long key, String expected) {
+        LongMap<String> strings = provideStrings();
+
+        assertEquals(expected, strings.get(key));
+        assertTrue(strings.containsKey(key));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"2", "-2", "4398046511105", "-9223372036854775808"})
+    public void test_missing(long key) {
+        LongMap<String> strings = provideStrings();
+
+        assertNull(strings.get(key));
+        assertFalse(strings.containsKey(key));
+    }
+
+    @Test
+    public void test_emptyMap() {
+        LongMap<String> empty = new LongMap<>();
+
+        assertTrue(empty.isEmpty());
+        assertEquals(0, empty.size());
+        assertNull(empty.get(0L));
+        assertNull(empty.remove(0L));
+    }
+
+    @Test
+    public void test_replace() {
+        LongMap<String> strings = provideStrings();
+
+        assertEquals("One", strings.put(1L, "Uno"));
+        assertEquals("Uno", strings.get(1L));
+        assertEquals(5, strings.size());
+    }
+
+    @Test
+    public void test_nullValue() {
+        LongMap<String> strings = new LongMap<>();
+
+        assertThrows(IllegalArgumentException.class, () -> strings.put(1L, null));
+    }
+
+    @Test
+    public void test_computeIfAbsent() {
+        LongMap<String> strings = provideStrings();
+
+        assertEquals("One", strings.computeIfAbsent(1L, key -> "Uno"));
+        assertEquals("2", strings.computeIfAbsent(2L, Long::toString));
+        assertEquals(6, strings.size());
+    }
+
+    @Test
+    public void test_clear() {
+        LongMap<String> strings = provideStrings();
+        strings.clear();
+
+        assertTrue(strings.isEmpty());
+        assertNull(strings.get(1L));
+    }
+
+    @Test
+    public void test_againstHashMap() {
+        LongMap<Long> map = new LongMap<>();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(12345);
+
+        // Small key range, so there are many collisions and removals
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(2048) - 1024;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, (long) i), map.put(key, (long) i));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Long, Long> entry : expected.entrySet())
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+
+        int[] count = new int[1];
+        map.forEachKey(key -> {
+            assertTrue(expected.containsKey(key));
+            count[0]++;
+        });
+        assertEquals(expected.size(), count[0]);
+    }
+
+    @Test
+    public void test_full() {
+        LongMap<String> map = new LongMap<>(16, 16);
+        for (long key = 0; key < 15; key++)
+            map.put(key, "Value");
+
+        assertThrows(IllegalStateException.class, () -> map.put(15L, "Full"));
+        assertEquals(15, map.size());
+        assertEquals("Value", map.put(14L, "Replaced"));
+
+        // Lookups of missing keys still find the free slot
+        assertNull(map.get(15L));
+        assertFalse(map.containsKey(-1L));
+    }
+}
@@ -8,6 +8,7 @@ import me.cjcrafter.auto.UpdateInfo;
 import me.deecaad.core.MechanicsCore;
 import me.deecaad.core.commands.MainCommand;
 import me.deecaad.core.compatibility.CompatibilityAPI;
+import me.deecaad.core.compatibility.entity.FakeEntityViewers;
 import me.deecaad.core.compatibility.worldguard.WorldGuardCompatibility;
 import me.deecaad.core.database.Database;
 import me.deecaad.core.database.MySQL;
@@ -35,17 +36,21 @@ import me.deecaad.weaponmechanics.packetlisteners.OutRemoveEntityEffectListener;
 import me.deecaad.weaponmechanics.packetlisteners.OutSetSlotBobFix;
 import me.deecaad.weaponmechanics.weapon.WeaponHandler;
 import me.deecaad.weaponmechanics.weapon.damage.AssistData;
+import me.deecaad.weaponmechanics.weapon.damage.BlockCrackQueue;
 import me.deecaad.weaponmechanics.weapon.damage.BlockDamageData;
 import me.deecaad.weaponmechanics.weapon.damage.DamageModifier;
+import me.deecaad.weaponmechanics.weapon.explode.regeneration.BlockRegenerationRunnable;
 import me.deecaad.weaponmechanics.weapon.info.InfoHandler;
 import me.deecaad.weaponmechanics.weapon.placeholders.PlaceholderValidator;
 import me.deecaad.weaponmechanics.weapon.projectile.HitBoxValidator;
 import me.deecaad.weaponmechanics.weapon.projectile.ProjectilesRunnable;
 import me.deecaad.weaponmechanics.weapon.reload.ammo.AmmoRegistry;
 import me.deecaad.weaponmechanics.weapon.shoot.recoil.Recoil;
+import me.deecaad.weaponmechanics.weapon.shoot.recoil.RecoilScheduler;
 import me.deecaad.weaponmechanics.weapon.stats.PlayerStat;
 import me.deecaad.weaponmechanics.weapon.stats.WeaponStat;
 import me.deecaad.weaponmechanics.wrappers.EntityWrapper;
+import me.deecaad.weaponmechanics.wrappers.MoveTracker;
 import me.deecaad.weaponmechanics.wrappers.PlayerWrapper;
 import net.kyori.adventure.audience.Audience;
 import net.kyori.adventure.text.Component;
@@ -75,6 +80,7 @@ import java.io.IOException;
 import java.lang.reflect.Method;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.jar.JarFile;
 import java.util.logging.Logger;
 
@@ -85,10 +91,16 @@ public class WeaponMechanics {
     Map<LivingEntity, EntityWrapper> entityWrappers;
     Configuration configurations;
     Configuration basicConfiguration;
+    FileReader configReader;
+    YamlCache configCache;
+    DirectoryWatcher configWatcher;
     MainCommand mainCommand;
     WeaponHandler weaponHandler;
     UpdateChecker updateChecker;
     ProjectilesRunnable projectilesRunnable;
+    BlockRegenerationRunnable blockRegenerationRunnable;
+    MoveTracker moveTracker;
+    RecoilScheduler recoilScheduler;
     ProtocolManager protocolManager;
     Metrics metrics;
     Database database;
@@ -164,9 +176,21 @@ public class WeaponMechanics {
 
         // Start custom projectile runnable
         projectilesRunnable = new ProjectilesRunnable(getPlugin());
+        setupProjectileTickBudget();
+
+        // Start explosion regeneration runnable
+        blockRegenerationRunnable = new BlockRegenerationRunnable(getPlugin());
+        setupBlockRegeneration();
+
+        // Send the block cracks and fake entity packets of each tick together
+        Bukkit.getScheduler().runTaskTimer(getPlugin(), WeaponMechanics::flushPackets, 0, 1);
+
+        // Start the movement tracker of every entity
+        moveTracker = new MoveTracker(getPlugin(), basicConfiguration);
 
         // Set millis between recoil rotations
         Recoil.MILLIS_BETWEEN_ROTATIONS = basicConfiguration.getInt("Recoil_Millis_Between_Rotations", 20);
+        recoilScheduler = new RecoilScheduler(getPlugin(), Recoil.MILLIS_BETWEEN_ROTATIONS);
 
         setupDatabase();
         registerPlaceholders();
@@ -186,6 +210,7 @@ public class WeaponMechanics {
         new TaskChain(javaPlugin)
                 .thenRunSync(() -> {
                     loadConfig();
+                    setupConfigWatcher();
                     registerListeners();
                     registerBStats();
                     registerPermissions();
@@ -306,9 +331,37 @@ public class WeaponMechanics {
                 database = new MySQL(hostname, port, databaseName, username, password);
             }
             database.executeUpdate(true, PlayerStat.getCreateTableString(), WeaponStat.getCreateTableString());
+
+            int saveInterval = basicConfiguration.getInt("Database.Save_Interval_Ticks", 1200);
+            int maxRowsPerSave = basicConfiguration.getInt("Database.Max_Rows_Per_Save", 500);
+            weaponHandler.getStatsHandler().startSaving(getPlugin(), Math.max(1, saveInterval), Math.max(1, maxRowsPerSave));
         }
     }
 
+    void setupProjectileTickBudget() {
+        int budgetMillis = basicConfiguration.getInt("Projectile_Tick_Budget_Millis", 0);
+        projectilesRunnable.setTickBudget(TimeUnit.MILLISECONDS.toNanos(Math.max(0, budgetMillis)));
+
+        if (basicConfiguration.getBool("Parallel_Projectile_Tracing.Enable", false)) {
+            int threads = basicConfiguration.getInt("Parallel_Projectile_Tracing.Threads", 2);
+            int minimumProjectiles = basicConfiguration.getInt("Parallel_Projectile_Tracing.Minimum_Projectiles", 64);
+            projectilesRunnable.setParallelTracing(Math.max(1, threads), Math.max(0, minimumProjectiles));
+        }
+    }
+
+    void setupBlockRegeneration() {
+        int blocksPerTick = basicConfiguration.getInt("Regeneration_Max_Blocks_Per_Tick", 0);
+        blockRegenerationRunnable.setBlocksPerTick(Math.max(0, blocksPerTick));
+        BlockDamageData.setMaxBlocks(Math.max(0, basicConfiguration.getInt("Max_Damaged_Blocks", 0)));
+    }
+
+    static void flushPackets() {
+        // Runs after the projectile runnable, so each player gets the
+        // disguise movements of this tick in 1 bundle
+        BlockCrackQueue.flush();
+        FakeEntityViewers.flush();
+    }
+
     void loadConfig() {
         debug.debug("Loading and serializing config");
 
@@ -335,13 +388,85 @@ public class WeaponMechanics {
             event.addValidators(validators);
             Bukkit.getPluginManager().callEvent(event);
 
-            Configuration temp = new FileReader(debug, event.getSerializers(), event.getValidators()).fillAllFiles(getDataFolder(), "config.yml", "repair_kits", "attachments", "ammos", "placeholders");
+            FileReader reader = new FileReader(debug, event.getSerializers(), event.getValidators());
+            reader.setParallel(basicConfiguration.getBool("Parallel_Config_Loading", false));
+
+            // The cache is thrown away whenever the server or plugins update
+            YamlCache cache = null;
+            if (basicConfiguration.getBool("Config_Cache", false)) {
+                String version = Bukkit.getBukkitVersion() + "/" + javaPlugin.getDescription().getVersion() + "/" + MechanicsCore.getPlugin().getDescription().getVersion();
+                cache = new YamlCache(new File(getDataFolder(), "config.cache"), version);
+                cache.load();
+                reader.setCache(cache);
+            }
+
+            Configuration temp = reader.fillAllFiles(getDataFolder(), "config.yml", "repair_kits", "attachments", "ammos", "placeholders");
             configurations.add(temp);
+            if (cache != null)
+                cache.save();
+
+            // Kept, so changed files can be read again later
+            configReader = reader;
+            configCache = cache;
         } catch (IOException e) {
             e.printStackTrace();
         } catch (DuplicateKeyException e) {
             debug.error("Error loading config: " + e.getMessage());
         }
+
+        // Compile the per-weapon values used while shooting, so they don't
+        // need to be looked up from the configuration for every shot.
+        weaponHandler.getInfoHandler().compileDefinitions(configurations);
+    }
+
+    void setupConfigWatcher() {
+        if (configWatcher != null) {
+            configWatcher.close();
+            configWatcher = null;
+        }
+
+        if (!basicConfiguration.getBool("Hot_Reload.Enable", false))
+            return;
+
+        debug.debug("Watching weapon files for changes");
+        try {
+            long delay = Math.max(0, basicConfiguration.getInt("Hot_Reload.Delay_Millis", 500));
+            configWatcher = new DirectoryWatcher(getPlugin(), getDataFolder().toPath(), delay, this::reloadChangedFiles);
+        } catch (IOException e) {
+            debug.log(LogLevel.WARN, "Could not watch weapon files for changes", e);
+        }
+    }
+
+    /**
+     * Reads only the weapon files which were added, changed or deleted since
+     * they were last read, and updates the weapons in those files. Unlike
+     * {@link #onReload()}, players, running projectiles and block
+     * regeneration are left untouched. Files which are not weapon files
+     * (like config.yml, ammos or attachments) still require a full reload.
+     *
+     * <p>This method must be run on the main server thread.
+     *
+     * @return The number of files which were read again, or -1 if the config
+     *         was not loaded yet.
+     */
+    public int reloadChangedFiles() {
+        if (configReader == null || configurations == null)
+            return -1;
+
+        List<File> changed = configReader.findChangedFiles();
+        if (changed.isEmpty())
+            return 0;
+
+        long start = System.nanoTime();
+        Set<String> weaponTitles = configReader.refillFiles(configurations, changed);
+        weaponHandler.getInfoHandler().recompileDefinitions(configurations, weaponTitles);
+        registerPermissions();
+        if (configCache != null)
+            configCache.save();
+
+        double millis = NumberUtil.getAsRounded((System.nanoTime() - start) / 1_000_000.0, 2);
+        debug.info("Reloaded " + changed.size() + " changed file(s) in " + millis + "ms: " + weaponTitles);
+        return changed.size();
     }
 
     void registerPlaceholders() {
@@ -592,12 +717,19 @@ public class WeaponMechanics {
         entityWrappers = new HashMap<>();
         weaponHandler = new WeaponHandler();
         projectilesRunnable = new ProjectilesRunnable(getPlugin());
+        blockRegenerationRunnable = new BlockRegenerationRunnable(getPlugin());
+        Bukkit.getScheduler().runTaskTimer(getPlugin(), WeaponMechanics::flushPackets, 0, 1);
 
         return new TaskChain(getPlugin())
                 .thenRunAsync(this::writeFiles)
                 .thenRunSync(() -> {
 
+                    moveTracker = new MoveTracker(getPlugin(), basicConfiguration);
+                    recoilScheduler = new RecoilScheduler(getPlugin(), Recoil.MILLIS_BETWEEN_ROTATIONS);
                     loadConfig();
+                    setupConfigWatcher();
+                    setupProjectileTickBudget();
+                    setupBlockRegeneration();
                     registerPacketListeners();
                     registerListeners();
                     registerCommands();
@@ -616,6 +748,7 @@ public class WeaponMechanics {
 
     public void onDisable() {
         BlockDamageData.regenerateAll();
+        flushPackets();
 
         HandlerList.unregisterAll(getPlugin());
         Bukkit.getServer().getScheduler().cancelTasks(getPlugin());
@@ -624,8 +757,9 @@ public class WeaponMechanics {
         if (database != null) {
             for (EntityWrapper entityWrapper : entityWrappers.values()) {
                 if (!entityWrapper.isPlayer()) continue;
-                weaponHandler.getStatsHandler().save((PlayerWrapper) entityWrapper, true);
+                weaponHandler.getStatsHandler().save((PlayerWrapper) entityWrapper, false);
             }
+            weaponHandler.getStatsHandler().flush(true);
             try {
                 database.close();
             } catch (SQLException e) {
@@ -636,6 +770,13 @@ public class WeaponMechanics {
         // Unregister packet listeners
         protocolManager.removePacketListeners(javaPlugin);
 
+        if (configWatcher != null)
+            configWatcher.close();
+        if (recoilScheduler != null)
+            recoilScheduler.shutdown();
+        if (projectilesRunnable != null)
+            projectilesRunnable.setParallelTracing(0, 0);
+
         database = null;
         weaponHandler = null;
         //updateChecker = null; do not reset update checker
@@ -643,7 +784,13 @@ public class WeaponMechanics {
         mainCommand = null;
         configurations = null;
         basicConfiguration = null;
+        configReader = null;
+        configCache = null;
+        configWatcher = null;
         projectilesRunnable = null;
+        blockRegenerationRunnable = null;
+        moveTracker = null;
+        recoilScheduler = null;
         plugin = null;
         debug = null;
     }
@@ -655,6 +802,27 @@ public class WeaponMechanics {
         return plugin.projectilesRunnable;
     }
 
+    /**
+     * @return The BukkitRunnable regenerating the blocks broken by explosions
+     */
+    public static BlockRegenerationRunnable getBlockRegenerationRunnable() {
+        return plugin.blockRegenerationRunnable;
+    }
+
+    /**
+     * @return The BukkitRunnable tracking the movement of every entity
+     */
+    public static MoveTracker getMoveTracker() {
+        return plugin.moveTracker;
+    }
+
+    /**
+     * @return The scheduler rotating the camera of every player's recoil
+     */
+    public static RecoilScheduler getRecoilScheduler() {
+        return plugin.recoilScheduler;
+    }
+
     /**
      * @return the WeaponMechanics plugin instance
      */
@@ -725,17 +893,15 @@ public class WeaponMechanics {
 
     /**
      * Removes entity (and player) wrapper and all of its content.
-     * Move task is also cancelled.
+     * Movement is no longer tracked.
      *
      * @param entity the entity (or player)
      */
     public static void removeEntityWrapper(LivingEntity entity) {
         EntityWrapper oldWrapper = plugin.entityWrappers.remove(entity);
         if (oldWrapper != null) {
-            int oldMoveTask = oldWrapper.getMoveTaskId();
-            if (oldMoveTask != 0) {
-                Bukkit.getScheduler().cancelTask(oldMoveTask);
-            }
+            if (plugin.moveTracker != null)
+                plugin.moveTracker.untrack(oldWrapper);
             oldWrapper.getMainHandData().cancelTasks();
             oldWrapper.getOffHandData().cancelTasks();
         }
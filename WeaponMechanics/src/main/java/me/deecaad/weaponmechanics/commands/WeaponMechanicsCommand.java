@@ -200,8 +200,9 @@ public class WeaponMechanicsCommand {
                 .withSubcommand(new CommandBuilder("reload")
                         .withPermission("weaponmechanics.commands.reload")
                         .withDescription("Reloads config")
+                        .withArgument(new Argument<>("mode", new StringArgumentType().withLiterals("all", "changed"), "all").withDesc("Reload everything, or only changed weapon files"))
                         .executes(CommandExecutor.any((sender, args) -> {
-                            WeaponMechanicsAPI.getInstance().onReload().thenRunSync(() -> sender.sendMessage(GREEN + "Reloaded configuration"));
+                            reload(sender, (String) args[0]);
                         })))
 
                 .withSubcommand(new CommandBuilder("repair")
@@ -713,6 +714,21 @@ public class WeaponMechanicsCommand {
         MechanicsCore.getPlugin().adventure.sender(sender).sendMessage(table);
     }
 
+    public static void reload(CommandSender sender, String mode) {
+        if (!"changed".equalsIgnoreCase(mode)) {
+            WeaponMechanicsAPI.getInstance().onReload().thenRunSync(() -> sender.sendMessage(GREEN + "Reloaded configuration"));
+            return;
+        }
+
+        int changed = WeaponMechanicsAPI.getInstance().reloadChangedFiles();
+        if (changed == -1)
+            sender.sendMessage(RED + "Configuration is not loaded yet");
+        else if (changed == 0)
+            sender.sendMessage(GREEN + "No weapon files changed");
+        else
+            sender.sendMessage(GREEN + "Reloaded " + changed + " changed file(s)");
+    }
+
     public static void convert(CommandSender sender, String plugin) {
         if (plugin.equalsIgnoreCase("crackshot")) {
 
@@ -1,6 +1,8 @@
 package me.deecaad.weaponmechanics.utils;
 
 import me.deecaad.core.compatibility.CompatibilityAPI;
+import me.deecaad.weaponmechanics.wrappers.WeaponState;
+import org.bukkit.NamespacedKey;
 import org.bukkit.inventory.ItemStack;
 
 import java.util.Locale;
@@ -126,6 +128,7 @@ public enum CustomTag {
 
     private final String owningPlugin;
     private final String id;
+    private NamespacedKey namespacedKey;
 
     CustomTag() {
         this.id = name().toLowerCase(Locale.ROOT).replace('_', '-');
@@ -159,28 +162,63 @@ public enum CustomTag {
         return owningPlugin + ":" + getId();
     }
 
+    /**
+     * Returns the key used to store this tag in an item's persistent data
+     * container. The key is only created once.
+     *
+     * @return The non-null namespaced key.
+     */
+    public NamespacedKey getNamespacedKey() {
+        if (namespacedKey == null)
+            namespacedKey = CompatibilityAPI.getNBTCompatibility().getKey(owningPlugin, id);
+        return namespacedKey;
+    }
+
+    // The string and integer methods check for a cached WeaponState first,
+    // so weapons being used by a hand are not decoded again for every access
+
     public boolean hasString(ItemStack item) {
+        WeaponState state = WeaponState.getCached(item, this);
+        if (state != null)
+            return state.has(this);
         return CompatibilityAPI.getNBTCompatibility().hasString(item, owningPlugin, id);
     }
 
     public String getString(ItemStack item) {
+        WeaponState state = WeaponState.getCached(item, this);
+        if (state != null)
+            return state.getString(this);
         return CompatibilityAPI.getNBTCompatibility().getString(item, owningPlugin, id);
     }
 
     public void setString(ItemStack item, String value) {
-        CompatibilityAPI.getNBTCompatibility().setString(item, owningPlugin, id, value);
+        WeaponState state = WeaponState.getCached(item, this);
+        if (state != null)
+            state.setString(this, value);
+        else
+            CompatibilityAPI.getNBTCompatibility().setString(item, owningPlugin, id, value);
     }
 
     public boolean hasInteger(ItemStack item) {
+        WeaponState state = WeaponState.getCached(item, this);
+        if (state != null)
+            return state.has(this);
         return CompatibilityAPI.getNBTCompatibility().hasInt(item, owningPlugin, id);
     }
 
     public int getInteger(ItemStack item) {
+        WeaponState state = WeaponState.getCached(item, this);
+        if (state != null)
+            return state.getInteger(this);
         return CompatibilityAPI.getNBTCompatibility().getInt(item, owningPlugin, id);
     }
 
     public void setInteger(ItemStack item, int value) {
-        CompatibilityAPI.getNBTCompatibility().setInt(item, owningPlugin, id, value);
+        WeaponState state = WeaponState.getCached(item, this);
+        if (state != null)
+            state.setInteger(this, value);
+        else
+            CompatibilityAPI.getNBTCompatibility().setInt(item, owningPlugin, id, value);
     }
 
     public boolean hasDouble(ItemStack item) {
@@ -220,6 +258,10 @@ public enum CustomTag {
     }
 
     public void remove(ItemStack item) {
-        CompatibilityAPI.getNBTCompatibility().remove(item, owningPlugin, id);
+        WeaponState state = WeaponState.getCached(item, this);
+        if (state != null)
+            state.remove(this);
+        else
+            CompatibilityAPI.getNBTCompatibility().remove(item, owningPlugin, id);
     }
 }
\ No newline at end of file
@@ -11,6 +11,7 @@ import me.deecaad.core.utils.ray.EntityTraceResult;
 import me.deecaad.core.utils.ray.RayTraceResult;
 import me.deecaad.weaponmechanics.WeaponMechanics;
 import me.deecaad.weaponmechanics.weapon.damage.DamagePoint;
+import me.deecaad.weaponmechanics.weapon.damage.HitboxProfile;
 import me.deecaad.weaponmechanics.weapon.explode.Explosion;
 import me.deecaad.weaponmechanics.weapon.explode.ExplosionTrigger;
 import me.deecaad.weaponmechanics.weapon.projectile.weaponprojectile.WeaponProjectile;
@@ -68,7 +69,7 @@ public class HitHandler {
     public boolean handleMeleeHit(EntityTraceResult result, LivingEntity shooter, Vector shooterDirection, String weaponTitle, ItemStack weaponStack, EquipmentSlot slot) {
         // Handle worldguard flags
         WorldGuardCompatibility worldGuard = CompatibilityAPI.getWorldGuardCompatibility();
-        Location loc = result.getHitLocation().clone().toLocation(shooter.getWorld());
+        Location loc = result.getHitLocation().toLocation(shooter.getWorld());
 
         if (!worldGuard.testFlag(loc, shooter instanceof Player ? (Player) shooter : null, "weapon-damage")) { // is cancelled check
             Object obj = worldGuard.getValue(loc, "weapon-damage-message");
@@ -100,12 +101,16 @@ public class HitHandler {
     }
 
     private boolean handleBlockHit(BlockTraceResult result, WeaponProjectile projectile) {
-        ProjectileHitBlockEvent hitBlockEvent = new ProjectileHitBlockEvent(projectile, result.getBlock(), result.getHitFace(), result.getHitLocation().clone());
-        Bukkit.getPluginManager().callEvent(hitBlockEvent);
-        if (hitBlockEvent.isCancelled()) return true;
+        // Only copy the hit into an event when some plugin listens to it
+        if (ProjectileHitBlockEvent.getHandlerList().getRegisteredListeners().length != 0) {
+            ProjectileHitBlockEvent hitBlockEvent = new ProjectileHitBlockEvent(projectile, result.getBlock(), result.getHitFace(), result.getHitLocation().clone());
+            Bukkit.getPluginManager().callEvent(hitBlockEvent);
+            if (hitBlockEvent.isCancelled()) return true;
+        }
 
-        Explosion explosion = getConfigurations().getObject(projectile.getWeaponTitle() + ".Explosion", Explosion.class);
-        if (explosion != null) explosion.handleExplosion(projectile.getShooter(), result.getHitLocation().clone().toLocation(projectile.getWorld()), projectile, ExplosionTrigger.BLOCK);
+        WeaponDefinition weapon = projectile.getWeaponDefinition();
+        Explosion explosion = weapon == null ? null : weapon.getExplosion();
+        if (explosion != null) explosion.handleExplosion(projectile.getShooter(), result.getHitLocation().toLocation(projectile.getWorld()), projectile, ExplosionTrigger.BLOCK);
 
         return false;
     }
@@ -129,84 +134,69 @@ public class HitHandler {
 
         DamagePoint hitPoint = getDamagePoint(result, shooter.getLocation().getDirection());
 
-        ProjectileHitEntityEvent hitEntityEvent = new ProjectileHitEntityEvent(projectile, livingEntity, result.getHitLocation().clone(), hitPoint, backstab);
-        Bukkit.getPluginManager().callEvent(hitEntityEvent);
-        if (hitEntityEvent.isCancelled()) return true;
+        // Only copy the hit into an event when some plugin listens to it
+        if (ProjectileHitEntityEvent.getHandlerList().getRegisteredListeners().length != 0) {
+            ProjectileHitEntityEvent hitEntityEvent = new ProjectileHitEntityEvent(projectile, livingEntity, result.getHitLocation().clone(), hitPoint, backstab);
+            Bukkit.getPluginManager().callEvent(hitEntityEvent);
+            if (hitEntityEvent.isCancelled()) return true;
 
-        hitPoint = hitEntityEvent.getPoint();
-        backstab = hitEntityEvent.isBackStab();
+            hitPoint = hitEntityEvent.getPoint();
+            backstab = hitEntityEvent.isBackStab();
+        }
 
-        if (!weaponHandler.getDamageHandler().tryUse(livingEntity, projectile, getConfigurations().getDouble(projectile.getWeaponTitle() + ".Damage.Base_Damage"), hitPoint, backstab)) {
+        WeaponDefinition weapon = projectile.getWeaponDefinition();
+        double baseDamage = weapon == null ? 0.0 : weapon.getBaseDamage();
+        if (!weaponHandler.getDamageHandler().tryUse(livingEntity, projectile, baseDamage, hitPoint, backstab)) {
             // Damage was cancelled
             return true;
         }
 
-        Explosion explosion = getConfigurations().getObject(projectile.getWeaponTitle() + ".Explosion", Explosion.class);
-        if (explosion != null) explosion.handleExplosion(projectile.getShooter(), result.getHitLocation().clone().toLocation(projectile.getWorld()), projectile, ExplosionTrigger.ENTITY);
+        Explosion explosion = weapon == null ? null : weapon.getExplosion();
+        if (explosion != null) explosion.handleExplosion(shooter, loc, projectile, ExplosionTrigger.ENTITY);
 
         return false;
     }
 
     /**
+     * Returns which part of the entity was hit, using the entity type's
+     * {@link HitboxProfile}.
+     *
      * @param result the hit result
      * @param normalizedMotion the normalized direction
-     * @return the damage point or null if tried to cast when living entity was not defined
+     * @return the damage point
      */
-    private DamagePoint getDamagePoint(EntityTraceResult result, Vector normalizedMotion) {
+    public DamagePoint getDamagePoint(EntityTraceResult result, Vector normalizedMotion) {
         LivingEntity livingEntity = result.getEntity();
-        Configuration basicConfiguration = WeaponMechanics.getBasicConfigurations();
-
         EntityType type = livingEntity.getType();
-        double entityHeight = CompatibilityAPI.getEntityCompatibility().getHeight(livingEntity);
+        HitboxProfile profile = HitboxProfile.of(type);
 
+        double entityHeight = CompatibilityAPI.getEntityCompatibility().getHeight(livingEntity);
         double hitY = result.getHitLocation().getY();
-
         HitBox hitBox = result.getHitBox();
-        double maxY = hitBox.getMaxY();
 
-        // Check HEAD
-        double head = basicConfiguration.getDouble("Entity_Hitboxes." + type.name() + "." + DamagePoint.HEAD.name());
-        if (head > 0.0 && maxY - (entityHeight * head) < hitY) {
-            return DamagePoint.HEAD;
+        DamagePoint point = profile.getVerticalPoint(hitY, hitBox.getMaxY(), entityHeight);
+        if (point == null) {
+            debug.log(LogLevel.WARN, "Something unexpected happened and HEAD, BODY, LEGS or FEET wasn't valid",
+                    "This should never happen. Using BODY as default value...",
+                    "This happened with entity type " + type + ".");
+            return DamagePoint.BODY;
         }
 
-        // Check BODY
-        double body = basicConfiguration.getDouble("Entity_Hitboxes." + type.name() + "." + DamagePoint.BODY.name());
-        if (body >= 1.0 || body > 0.0 && maxY - (entityHeight * (head + body)) < hitY) {
-
-            boolean horizontalEntity = basicConfiguration.getBool("Entity_Hitboxes." + type.name() + ".Horizontal_Entity", false);
-            boolean arms = basicConfiguration.getBool("Entity_Hitboxes." + type.name() + "." + DamagePoint.ARMS.name(), false);
-            if (horizontalEntity || arms) {
-                Vector normalizedEntityDirection = livingEntity.getLocation().getDirection();
+        boolean horizontalEntity = profile.isHorizontalEntity();
+        boolean arms = profile.hasArms();
+        if (point == DamagePoint.BODY && (horizontalEntity || arms)) {
+            Vector normalizedEntityDirection = livingEntity.getLocation().getDirection();
 
-                if (horizontalEntity && !hitBox.cloneDimensions().expand(normalizedEntityDirection, FRONT_HIT).collides(result.getHitLocation())) {
-                    // Basically removes directionally 0.2 from this entity hitbox and check if the hit location is still in the hitbox
-                    return DamagePoint.HEAD;
-                }
-
-                if (arms && Math.abs(normalizedMotion.clone().setY(0).dot(normalizedEntityDirection.setY(0))) < 0.5) {
-                    return DamagePoint.ARMS;
-                }
+            if (horizontalEntity && !hitBox.cloneDimensions().expand(normalizedEntityDirection, FRONT_HIT).collides(result.getHitLocation())) {
+                // Basically removes directionally 0.2 from this entity hitbox and check if the hit location is still in the hitbox
+                return DamagePoint.HEAD;
             }
 
-            return DamagePoint.BODY;
-        }
-
-        // Check LEGS
-        double legs = basicConfiguration.getDouble("Entity_Hitboxes." + type.name() + "." + DamagePoint.LEGS.name());
-        if (legs > 0.0 && maxY - (entityHeight * (head + body + legs)) < hitY) {
-            return DamagePoint.LEGS;
-        }
-
-        // Check FEET
-        double feet = basicConfiguration.getDouble("Entity_Hitboxes." + type.name() + "." + DamagePoint.FEET.name());
-        if (feet > 0.0) { // No need for actual check since it can't be HEAD, BODY or LEGS anymore so only option left is FEET
-            return DamagePoint.FEET;
+            if (arms && Math.abs(normalizedMotion.clone().setY(0).dot(normalizedEntityDirection.setY(0))) < 0.5) {
+                return DamagePoint.ARMS;
+            }
         }
 
-        debug.log(LogLevel.WARN, "Something unexpected happened and HEAD, BODY, LEGS or FEET wasn't valid",
-                "This should never happen. Using BODY as default value...",
-                "This happened with entity type " + type + ".");
-        return DamagePoint.BODY;
+        return point;
     }
 }
\ No newline at end of file
@@ -0,0 +1,237 @@
+package me.deecaad.weaponmechanics.weapon;
+
+import me.deecaad.core.file.Configuration;
+import me.deecaad.core.mechanics.Mechanics;
+import me.deecaad.weaponmechanics.weapon.explode.Explosion;
+import me.deecaad.weaponmechanics.weapon.firearm.FirearmAction;
+import me.deecaad.weaponmechanics.weapon.info.WeaponInfoDisplay;
+import me.deecaad.weaponmechanics.weapon.projectile.weaponprojectile.Projectile;
+import me.deecaad.weaponmechanics.weapon.shoot.CustomDurability;
+import me.deecaad.weaponmechanics.weapon.shoot.recoil.Recoil;
+import me.deecaad.weaponmechanics.weapon.shoot.spread.Spread;
+import me.deecaad.weaponmechanics.weapon.trigger.Trigger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Immutable snapshot of the values that are read every time a weapon is
+ * fired. Instead of building <code>weaponTitle + ".Shoot.Spread"</code> style
+ * keys and hashing them for every shot, the values are compiled once after
+ * serialization and validation is done, and then read directly.
+ *
+ * <p>Each definition has an interned <code>id</code>, which is the index of
+ * the definition in {@link me.deecaad.weaponmechanics.weapon.info.InfoHandler}.
+ * Ids are only valid until the configuration is reloaded.
+ *
+ * <p>The values here are exactly the values stored in the configuration, so
+ * events (like {@link me.deecaad.weaponmechanics.weapon.weaponevents.PrepareWeaponShootEvent})
+ * may still modify them per shot.
+ */
+public final class WeaponDefinition {
+
+    private final int id;
+    private final String weaponTitle;
+
+    // Shoot
+    private final Trigger shootTrigger;
+    private final boolean usesSelectiveFire;
+    private final boolean consumeItemOnShoot;
+    private final boolean destroyWhenEmpty;
+    private final int ammoPerShot;
+    private final int delayBetweenShots;
+    private final int shotsPerBurst;
+    private final int ticksBetweenEachShot;
+    private final int fullyAutomaticShotsPerSecond;
+    private final Mechanics shootMechanics;
+    private final boolean resetFallDistance;
+    private final double projectileSpeed;
+    private final int projectilesPerShot;
+    private final Spread spread;
+    private final Recoil recoil;
+    private final CustomDurability customDurability;
+
+    // Delays from other modules
+    private final int weaponEquipDelay;
+    private final int shootDelayAfterScope;
+    private final int shootDelayAfterReload;
+    private final boolean unscopeAfterShot;
+
+    private final Projectile projectile;
+    private final FirearmAction firearmAction;
+    private final WeaponInfoDisplay weaponInfoDisplay;
+    private final Explosion explosion;
+    private final double baseDamage;
+
+    private WeaponDefinition(int id, String weaponTitle, Configuration config) {
+        this.id = id;
+        this.weaponTitle = weaponTitle;
+
+        shootTrigger = config.getObject(weaponTitle + ".Shoot.Trigger", Trigger.class);
+        usesSelectiveFire = config.getObject(weaponTitle + ".Shoot.Selective_Fire.Trigger", Trigger.class) != null;
+        consumeItemOnShoot = config.getBool(weaponTitle + ".Shoot.Consume_Item_On_Shoot");
+        destroyWhenEmpty = config.getBool(weaponTitle + ".Shoot.Destroy_When_Empty");
+        ammoPerShot = config.getInt(weaponTitle + ".Shoot.Ammo_Per_Shot", 1);
+        delayBetweenShots = config.getInt(weaponTitle + ".Shoot.Delay_Between_Shots");
+        shotsPerBurst = config.getInt(weaponTitle + ".Shoot.Burst.Shots_Per_Burst");
+        ticksBetweenEachShot = config.getInt(weaponTitle + ".Shoot.Burst.Ticks_Between_Each_Shot");
+        fullyAutomaticShotsPerSecond = config.getInt(weaponTitle + ".Shoot.Fully_Automatic_Shots_Per_Second");
+        shootMechanics = config.getObject(weaponTitle + ".Shoot.Mechanics", Mechanics.class);
+        resetFallDistance = config.getBool(weaponTitle + ".Shoot.Reset_Fall_Distance");
+        projectileSpeed = config.getDouble(weaponTitle + ".Shoot.Projectile_Speed");
+        projectilesPerShot = config.getInt(weaponTitle + ".Shoot.Projectiles_Per_Shot");
+        spread = config.getObject(weaponTitle + ".Shoot.Spread", Spread.class);
+        recoil = config.getObject(weaponTitle + ".Shoot.Recoil", Recoil.class);
+        customDurability = config.getObject(weaponTitle + ".Shoot.Custom_Durability", CustomDurability.class);
+
+        weaponEquipDelay = config.getInt(weaponTitle + ".Info.Weapon_Equip_Delay");
+        shootDelayAfterScope = config.getInt(weaponTitle + ".Scope.Shoot_Delay_After_Scope");
+        shootDelayAfterReload = config.getInt(weaponTitle + ".Reload.Shoot_Delay_After_Reload");
+        unscopeAfterShot = config.getBool(weaponTitle + ".Scope.Unscope_After_Shot");
+
+        projectile = config.getObject(weaponTitle + ".Projectile", Projectile.class);
+        firearmAction = config.getObject(weaponTitle + ".Firearm_Action", FirearmAction.class);
+        weaponInfoDisplay = config.getObject(weaponTitle + ".Info.Weapon_Info_Display", WeaponInfoDisplay.class);
+        explosion = config.getObject(weaponTitle + ".Explosion", Explosion.class);
+        baseDamage = config.getDouble(weaponTitle + ".Damage.Base_Damage");
+    }
+
+    /**
+     * Compiles the definition of the given weapon from the fully serialized
+     * and validated configuration.
+     *
+     * @param id          The interned id of the weapon.
+     * @param weaponTitle The non-null weapon title.
+     * @param config      The non-null configuration to read from.
+     * @return The compiled definition.
+     */
+    @NotNull
+    public static WeaponDefinition compile(int id, @NotNull String weaponTitle, @NotNull Configuration config) {
+        return new WeaponDefinition(id, weaponTitle, config);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    @NotNull
+    public String getWeaponTitle() {
+        return weaponTitle;
+    }
+
+    @Nullable
+    public Trigger getShootTrigger() {
+        return shootTrigger;
+    }
+
+    public boolean isUsesSelectiveFire() {
+        return usesSelectiveFire;
+    }
+
+    public boolean isConsumeItemOnShoot() {
+        return consumeItemOnShoot;
+    }
+
+    public boolean isDestroyWhenEmpty() {
+        return destroyWhenEmpty;
+    }
+
+    public int getAmmoPerShot() {
+        return ammoPerShot;
+    }
+
+    public int getDelayBetweenShots() {
+        return delayBetweenShots;
+    }
+
+    public int getShotsPerBurst() {
+        return shotsPerBurst;
+    }
+
+    public int getTicksBetweenEachShot() {
+        return ticksBetweenEachShot;
+    }
+
+    public int getFullyAutomaticShotsPerSecond() {
+        return fullyAutomaticShotsPerSecond;
+    }
+
+    @Nullable
+    public Mechanics getShootMechanics() {
+        return shootMechanics;
+    }
+
+    public boolean isResetFallDistance() {
+        return resetFallDistance;
+    }
+
+    public double getProjectileSpeed() {
+        return projectileSpeed;
+    }
+
+    public int getProjectilesPerShot() {
+        return projectilesPerShot;
+    }
+
+    @Nullable
+    public Spread getSpread() {
+        return spread;
+    }
+
+    @Nullable
+    public Recoil getRecoil() {
+        return recoil;
+    }
+
+    @Nullable
+    public CustomDurability getCustomDurability() {
+        return customDurability;
+    }
+
+    public int getWeaponEquipDelay() {
+        return weaponEquipDelay;
+    }
+
+    public int getShootDelayAfterScope() {
+        return shootDelayAfterScope;
+    }
+
+    public int getShootDelayAfterReload() {
+        return shootDelayAfterReload;
+    }
+
+    public boolean isUnscopeAfterShot() {
+        return unscopeAfterShot;
+    }
+
+    @Nullable
+    public Projectile getProjectile() {
+        return projectile;
+    }
+
+    @Nullable
+    public FirearmAction getFirearmAction() {
+        return firearmAction;
+    }
+
+    @Nullable
+    public WeaponInfoDisplay getWeaponInfoDisplay() {
+        return weaponInfoDisplay;
+    }
+
+    @Nullable
+    public Explosion getExplosion() {
+        return explosion;
+    }
+
+    public double getBaseDamage() {
+        return baseDamage;
+    }
+
+    @Override
+    public String toString() {
+        return "WeaponDefinition{" +
+                "id=" + id +
+                ", weaponTitle='" + weaponTitle + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,140 @@
+package me.deecaad.weaponmechanics.weapon.damage;
+
+import me.deecaad.core.compatibility.CompatibilityAPI;
+import me.deecaad.core.compatibility.block.BlockCompatibility;
+import me.deecaad.core.utils.DistanceUtil;
+import me.deecaad.core.utils.primitive.LongMap;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the block crack updates of every damaged block during a tick, and
+ * sends them all at once when {@link #flush()} is called (once per tick).
+ * When a block is damaged multiple times during the same tick, only its last
+ * crack level is sent. Each player receives all of their crack packets as 1
+ * {@link me.deecaad.core.compatibility.ICompatibility#sendBundledPackets(Player, List) bundle}.
+ *
+ * <p>This class is only used from the main server thread. Calls from other
+ * threads send the crack packet immediately.
+ */
+public final class BlockCrackQueue {
+
+    private static final Map<World, LongMap<Crack>> QUEUE = new HashMap<>();
+
+    /**
+     * Don't let anyone instantiate this class
+     */
+    private BlockCrackQueue() {
+    }
+
+    /**
+     * Queues the crack level of the given block to be sent during the next
+     * {@link #flush()}. Replaces the crack level queued earlier this tick.
+     *
+     * @param block The non-null block that was damaged.
+     * @param crack The crack level [0, 9], or -1 to remove the crack effect.
+     * @param id    The unique id of the crack effect.
+     * @see BlockCompatibility#getCrackPacket(Block, int, int)
+     */
+    public static void queue(@NotNull Block block, int crack, int id) {
+        if (!Bukkit.isPrimaryThread()) {
+            Object packet = CompatibilityAPI.getBlockCompatibility().getCrackPacket(block, crack, id);
+            DistanceUtil.sendPacket(block.getLocation(), packet);
+            return;
+        }
+
+        LongMap<Crack> cracks = QUEUE.computeIfAbsent(block.getWorld(), k -> new LongMap<>());
+        long key = blockKey(block.getX(), block.getY(), block.getZ());
+        Crack queued = cracks.get(key);
+        if (queued == null) {
+            cracks.put(key, new Crack(block, crack, id));
+        } else {
+            queued.crack = crack;
+            queued.id = id;
+        }
+    }
+
+    /**
+     * Sends every queued crack level to the players who can see the block,
+     * and clears the queue. This is called once every tick.
+     */
+    public static void flush() {
+        if (QUEUE.isEmpty())
+            return;
+
+        BlockCompatibility compatibility = CompatibilityAPI.getBlockCompatibility();
+        Location temp = new Location(null, 0, 0, 0);
+
+        for (Map.Entry<World, LongMap<Crack>> entry : QUEUE.entrySet()) {
+            List<Player> players = entry.getKey().getPlayers();
+            if (players.isEmpty())
+                continue;
+
+            int range = DistanceUtil.getRange(entry.getKey());
+            List<Crack> cracks = new ArrayList<>(entry.getValue().size());
+            entry.getValue().forEachValue(cracks::add);
+
+            // Each packet is only created once, and shared by every player
+            Object[] packets = new Object[cracks.size()];
+            for (Player player : players) {
+                player.getLocation(temp);
+                List<Object> visible = new ArrayList<>();
+
+                for (int i = 0; i < packets.length; i++) {
+                    Crack crack = cracks.get(i);
+                    Block block = crack.block;
+                    if (Math.abs(block.getX() - temp.getX()) >= range
+                            || Math.abs(block.getY() - temp.getY()) >= range
+                            || Math.abs(block.getZ() - temp.getZ()) >= range)
+                        continue;
+
+                    if (packets[i] == null)
+                        packets[i] = compatibility.getCrackPacket(block, crack.crack, crack.id);
+                    visible.add(packets[i]);
+                }
+
+                if (!visible.isEmpty())
+                    CompatibilityAPI.getCompatibility().sendBundledPackets(player, visible);
+            }
+        }
+
+        QUEUE.clear();
+    }
+
+    /**
+     * Removes every queued crack level without sending them.
+     */
+    public static void clear() {
+        QUEUE.clear();
+    }
+
+    /**
+     * Packs the given block coordinates into a <code>long</code>, using the
+     * same layout as vanilla minecraft.
+     */
+    private static long blockKey(int x, int y, int z) {
+        return ((long) x & 0x3FFFFFFL) << 38 | ((long) z & 0x3FFFFFFL) << 12 | ((long) y & 0xFFFL);
+    }
+
+    private static final class Crack {
+
+        private final Block block;
+        private int crack;
+        private int id;
+
+        private Crack(Block block, int crack, int id) {
+            this.block = block;
+            this.crack = crack;
+            this.id = id;
+        }
+    }
+}
@@ -1,10 +1,10 @@
 package me.deecaad.weaponmechanics.weapon.damage;
 
-import me.deecaad.core.compatibility.CompatibilityAPI;
 import me.deecaad.core.compatibility.block.BlockCompatibility;
-import me.deecaad.core.utils.DistanceUtil;
 import me.deecaad.core.utils.NumberUtil;
 import me.deecaad.core.utils.ReflectionUtil;
+import me.deecaad.core.utils.primitive.LongMap;
+import me.deecaad.core.utils.ray.BlockSnapshotCache;
 import me.deecaad.weaponmechanics.WeaponMechanics;
 import org.bukkit.Chunk;
 import org.bukkit.Material;
@@ -19,19 +19,32 @@ import org.bukkit.block.data.type.SeaPickle;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.InventoryHolder;
 import org.jetbrains.annotations.NotNull;
-
 import org.jetbrains.annotations.Nullable;
+
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * Utility class that stores all block damage on the server.
+ *
+ * <p>Damage is stored by world, then by chunk, then by 16x16x16 chunk
+ * section. Chunks are keyed by their packed <code>long</code> position, and
+ * blocks are keyed by their packed index in their section, so no position
+ * objects need to be created (and no {@link Block} needs to be hashed) to
+ * look up a block. Empty sections, chunks and worlds are removed as soon as
+ * their last block is removed, and whole chunks and worlds can be
+ * regenerated without scanning the rest of the server.
+ *
+ * <p>The number of stored blocks can be limited using {@link #setMaxBlocks(int)}.
+ * Once the limit is reached, new blocks are not damaged until stored blocks
+ * regenerate (or are removed).
  */
 public final class BlockDamageData {
 
-    private static final Map<ChunkPos, Map<Block, DamageData>> DAMAGE_MAP = new LinkedHashMap<>(256);
+    private static final Map<UUID, LongMap<ChunkDamage>> DAMAGE_MAP = new HashMap<>();
+    private static int blockCount;
+    private static int maxBlocks;
     public static final int MAX_BLOCK_CRACK = 9;
     public static final Material MASK = Material.valueOf("AIR");
 
@@ -43,9 +56,35 @@ public final class BlockDamageData {
     private BlockDamageData() {
     }
 
+    /**
+     * Sets the most blocks which may be damaged at the same time. Blocks
+     * which are already stored are never removed by this limit.
+     *
+     * @param maxBlocks The limit, or 0 for no limit.
+     */
+    public static void setMaxBlocks(int maxBlocks) {
+        if (maxBlocks < 0)
+            throw new IllegalArgumentException("Max blocks cannot be negative: " + maxBlocks);
+
+        BlockDamageData.maxBlocks = maxBlocks;
+    }
+
+    /**
+     * Returns <code>true</code> if the given block is already damaged, or if
+     * there is room to store another damaged block.
+     *
+     * @param block The non-null block to test.
+     * @return true if the block may be damaged.
+     * @see #setMaxBlocks(int)
+     */
+    public static boolean canDamage(@NotNull Block block) {
+        return maxBlocks == 0 || blockCount < maxBlocks || getBlockDamage(block) != null;
+    }
+
     /**
      * Shorthand for {@link #damage(Block, double, boolean, boolean, Material)}
      */
+    @Nullable
     public static DamageData damage(@NotNull Block block, double damage, boolean isBreak, boolean isRegenerate) {
         return damage(block, damage, isBreak, isRegenerate, MASK);
     }
@@ -60,14 +99,31 @@ public final class BlockDamageData {
      * @param isBreak      Whether the block will break or not.
      * @param isRegenerate false is will cause inventories to drop and block updates.
      * @param mask         The block to replace... Usually {@link #MASK}.
-     * @return <code>true</code> if the block was broken.
+     * @return The damage of the block, or null if too many blocks are damaged, see {@link #canDamage(Block)}.
      */
+    @Nullable
     public static DamageData damage(@NotNull Block block, double damage, boolean isBreak, boolean isRegenerate, Material mask) {
-        ChunkPos pos = new ChunkPos(block);
+        int x = block.getX();
+        int y = block.getY();
+        int z = block.getZ();
 
         // Get the DamageData for the given block, or create a new one if needed
-        Map<Block, DamageData> map = DAMAGE_MAP.computeIfAbsent(pos, k -> new HashMap<>());
-        DamageData damageData = map.computeIfAbsent(block, DamageData::new);
+        ChunkDamage chunk = DAMAGE_MAP.computeIfAbsent(block.getWorld().getUID(), k -> new LongMap<>())
+                .computeIfAbsent(chunkKey(x >> 4, z >> 4), k -> new ChunkDamage());
+        LongMap<DamageData> section = chunk.sections.computeIfAbsent(y >> 4, k -> new LongMap<>());
+        int index = blockIndex(x, y, z);
+        DamageData damageData = section.get(index);
+        if (damageData == null) {
+            if (maxBlocks != 0 && blockCount >= maxBlocks) {
+                removeIfEmpty(block.getWorld().getUID(), x, y, z);
+                return null;
+            }
+
+            damageData = new DamageData(block);
+            section.put(index, damageData);
+            chunk.size++;
+            blockCount++;
+        }
 
         damageData.damage(damage, isBreak, isRegenerate, mask);
         return damageData;
@@ -75,12 +131,12 @@ public final class BlockDamageData {
 
     @Nullable
     public static DamageData getBlockDamage(@NotNull Block block) {
-        Map<Block, DamageData> map = DAMAGE_MAP.get(new ChunkPos(block));
-        if (map == null)
+        LongMap<DamageData> section = getSection(block.getWorld().getUID(), block.getX(), block.getY(), block.getZ());
+        if (section == null)
             return null;
 
         // may return null
-        return map.get(block);
+        return section.get(blockIndex(block.getX(), block.getY(), block.getZ()));
     }
 
     /**
@@ -97,6 +153,16 @@ public final class BlockDamageData {
         return data != null && data.isBroken();
     }
 
+    /**
+     * Returns the number of blocks which are currently damaged (or broken)
+     * on the server.
+     *
+     * @return The number of stored blocks.
+     */
+    public static int size() {
+        return blockCount;
+    }
+
     /**
      * Regenerates the given block by resetting it to the {@link BlockState}
      * it had before being destroyed. This also resets the block's durability,
@@ -105,14 +171,12 @@ public final class BlockDamageData {
      * @param block The non-null block to regenerate
      */
     public static void regenerate(@NotNull Block block) {
-        Map<Block, DamageData> data = DAMAGE_MAP.get(new ChunkPos(block));
-
-        if (data == null)
+        DamageData damage = getBlockDamage(block);
+        if (damage == null)
             return;
 
-        DamageData damage = data.get(block);
         damage.regenerate();
-        data.remove(block);
+        damage.remove();
     }
 
     /**
@@ -126,10 +190,19 @@ public final class BlockDamageData {
      * @see #regenerate(Block)
      */
     public static void regenerate(@NotNull Chunk chunk) {
-        ChunkPos pos = new ChunkPos(chunk);
+        UUID world = chunk.getWorld().getUID();
+        LongMap<ChunkDamage> chunks = DAMAGE_MAP.get(world);
+        if (chunks == null)
+            return;
+
+        ChunkDamage damage = chunks.remove(chunkKey(chunk.getX(), chunk.getZ()));
+        if (damage == null)
+            return;
 
-        regenerate(pos);
-        DAMAGE_MAP.remove(pos);
+        damage.regenerate();
+        blockCount -= damage.size;
+        if (chunks.isEmpty())
+            DAMAGE_MAP.remove(world);
     }
 
     /**
@@ -142,43 +215,106 @@ public final class BlockDamageData {
      * @see #regenerate(Block)
      */
     public static void regenerate(@NotNull World world) {
-        Iterator<ChunkPos> iterator = DAMAGE_MAP.keySet().iterator();
-
-        while (iterator.hasNext()) {
-            ChunkPos pos = iterator.next();
+        LongMap<ChunkDamage> chunks = DAMAGE_MAP.remove(world.getUID());
+        if (chunks == null)
+            return;
 
-            if (pos.world.equals(world)) {
-                regenerate(pos);
-                iterator.remove();
-            }
-        }
+        chunks.forEachValue(chunk -> {
+            chunk.regenerate();
+            blockCount -= chunk.size;
+        });
     }
 
     public static void regenerateAll() {
-        Iterator<ChunkPos> iterator = DAMAGE_MAP.keySet().iterator();
+        for (LongMap<ChunkDamage> chunks : DAMAGE_MAP.values())
+            chunks.forEachValue(ChunkDamage::regenerate);
+        DAMAGE_MAP.clear();
+        blockCount = 0;
+    }
 
-        while (iterator.hasNext()) {
-            ChunkPos pos = iterator.next();
-            regenerate(pos);
-            iterator.remove();
-        }
+    @Nullable
+    private static LongMap<DamageData> getSection(UUID world, int x, int y, int z) {
+        LongMap<ChunkDamage> chunks = DAMAGE_MAP.get(world);
+        if (chunks == null)
+            return null;
+
+        ChunkDamage chunk = chunks.get(chunkKey(x >> 4, z >> 4));
+        if (chunk == null)
+            return null;
+
+        return chunk.sections.get(y >> 4);
     }
 
-    private static void regenerate(@NotNull ChunkPos pos) {
-        Map<Block, DamageData> blocks = DAMAGE_MAP.get(pos);
+    private static void remove(DamageData data) {
+        Block block = data.block;
+        UUID world = block.getWorld().getUID();
+        int x = block.getX();
+        int y = block.getY();
+        int z = block.getZ();
 
-        if (blocks == null)
+        LongMap<ChunkDamage> chunks = DAMAGE_MAP.get(world);
+        if (chunks == null)
             return;
 
-        blocks.forEach((block, damage) -> {
-            damage.regenerate();
-        });
+        long chunkKey = chunkKey(x >> 4, z >> 4);
+        ChunkDamage chunk = chunks.get(chunkKey);
+        if (chunk == null)
+            return;
+
+        // The block may have been regenerated (and damaged again) already
+        LongMap<DamageData> section = chunk.sections.get(y >> 4);
+        int index = blockIndex(x, y, z);
+        if (section == null || section.get(index) != data)
+            return;
+
+        section.remove(index);
+        chunk.size--;
+        blockCount--;
+        removeIfEmpty(world, x, y, z);
+    }
+
+    /**
+     * Removes the section, chunk and world of the given block if they are
+     * empty, so we don't hold on to empty maps.
+     */
+    private static void removeIfEmpty(UUID world, int x, int y, int z) {
+        LongMap<ChunkDamage> chunks = DAMAGE_MAP.get(world);
+        if (chunks == null)
+            return;
+
+        long chunkKey = chunkKey(x >> 4, z >> 4);
+        ChunkDamage chunk = chunks.get(chunkKey);
+        if (chunk != null) {
+            LongMap<DamageData> section = chunk.sections.get(y >> 4);
+            if (section != null && section.isEmpty())
+                chunk.sections.remove(y >> 4);
+            if (chunk.sections.isEmpty())
+                chunks.remove(chunkKey);
+        }
+        if (chunks.isEmpty())
+            DAMAGE_MAP.remove(world);
     }
 
     /**
-     * The {@link org.bukkit.Chunk} class does not provide a hashing method,
-     * so we are stuck wrapping the chunk in order to use a {@link HashMap}
+     * Packs the given chunk coordinates into a <code>long</code>, using the
+     * same layout as vanilla minecraft.
      */
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return (long) chunkX & 0xFFFFFFFFL | ((long) chunkZ & 0xFFFFFFFFL) << 32;
+    }
+
+    /**
+     * Packs the position of the block in its chunk section.
+     */
+    private static int blockIndex(int x, int y, int z) {
+        return (y & 15) << 8 | (z & 15) << 4 | (x & 15);
+    }
+
+    /**
+     * @deprecated Damage is no longer stored by chunk position objects. This
+     * class is kept so addons using it still compile, and will be removed.
+     */
+    @Deprecated
     public static class ChunkPos {
 
         private final World world;
@@ -209,6 +345,19 @@ public final class BlockDamageData {
         }
     }
 
+    /**
+     * Stores the damaged blocks of 1 chunk, grouped by chunk section.
+     */
+    private static final class ChunkDamage {
+
+        private final LongMap<LongMap<DamageData>> sections = new LongMap<>(4);
+        private int size;
+
+        private void regenerate() {
+            sections.forEachValue(section -> section.forEachValue(DamageData::regenerate));
+        }
+    }
+
     public static class DamageData {
 
         private final Block block;
@@ -221,6 +370,10 @@ public final class BlockDamageData {
             this.block = block;
         }
 
+        public Block getBlock() {
+            return block;
+        }
+
         public void damage(double amount, boolean isBreak, boolean isRegenerate) {
             damage(amount, isBreak, isRegenerate, MASK);
         }
@@ -281,16 +434,19 @@ public final class BlockDamageData {
                     newRotate.setRotation(oldRotate.getRotation());
 
                 block.setBlockData(newData, false);
+                BlockSnapshotCache.invalidate(block);
                 return;
             }
 
             block.setType(mask, !isRegenerate);
+            BlockSnapshotCache.invalidate(block);
         }
 
         public void regenerate() {
             if (state != null) {
                 state.update(true, false);
                 state = null;
+                BlockSnapshotCache.invalidate(block);
             }
 
             durability = 1.0;
@@ -298,8 +454,7 @@ public final class BlockDamageData {
         }
 
         public void remove() {
-            Map<Block, DamageData> map = DAMAGE_MAP.get(new ChunkPos(block));
-            map.remove(block);
+            BlockDamageData.remove(this);
         }
 
         public void sendCrackPacket() {
@@ -312,8 +467,7 @@ public final class BlockDamageData {
                     ? -1
                     : (int) NumberUtil.lerp(MAX_BLOCK_CRACK, 0, durability);
 
-            Object packet = CompatibilityAPI.getBlockCompatibility().getCrackPacket(block, crack, packetId);
-            DistanceUtil.sendPacket(block.getLocation(), packet);
+            BlockCrackQueue.queue(block, crack, packetId);
         }
     }
 }
@@ -0,0 +1,146 @@
+package me.deecaad.weaponmechanics.weapon.damage;
+
+import me.deecaad.core.file.Configuration;
+import org.bukkit.entity.EntityType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The <code>Entity_Hitboxes</code> of 1 entity type from config.yml, read
+ * once when the config is loaded. Resolving the {@link DamagePoint} of a hit
+ * then only compares a few numbers, instead of looking up every value from
+ * the config on every hit.
+ *
+ * <p>The fractions are portions of the entity's height, from the top of its
+ * hit box down: HEAD, then BODY, then LEGS, then FEET.
+ */
+public final class HitboxProfile {
+
+    /**
+     * 100% BODY, used for entity types which have no profile: every type
+     * before {@link #load(Configuration)} is called, and non-living types
+     * after. Living types without configured hit boxes are loaded with all
+     * fractions set to 0, so {@link #getVerticalPoint(double, double, double)}
+     * returns null for them (and HitHandler warns and uses BODY).
+     */
+    public static final HitboxProfile DEFAULT = new HitboxProfile(0.0, 1.0, 0.0, 0.0, false, false);
+
+    // Replaced (never modified) by load(), which may run on another thread
+    private static volatile Map<EntityType, HitboxProfile> profiles = new EnumMap<>(EntityType.class);
+
+    private final double head;
+    private final double body;
+    private final double legs;
+    private final double feet;
+    private final boolean arms;
+    private final boolean horizontalEntity;
+
+    // Fraction of the height from the top down to the bottom of body/legs
+    private final double bodyEnd;
+    private final double legsEnd;
+
+    public HitboxProfile(double head, double body, double legs, double feet, boolean arms, boolean horizontalEntity) {
+        this.head = head;
+        this.body = body;
+        this.legs = legs;
+        this.feet = feet;
+        this.arms = arms;
+        this.horizontalEntity = horizontalEntity;
+        this.bodyEnd = head + body;
+        this.legsEnd = head + body + legs;
+    }
+
+    /**
+     * Returns the profile of the given entity type.
+     *
+     * @param type The non-null entity type.
+     * @return The non-null profile, or {@link #DEFAULT} if there is none.
+     */
+    @NotNull
+    public static HitboxProfile of(@NotNull EntityType type) {
+        return profiles.getOrDefault(type, DEFAULT);
+    }
+
+    /**
+     * Rebuilds the profiles of every living entity type from the
+     * <code>Entity_Hitboxes</code> of config.yml. This is called after the
+     * hit boxes have been validated.
+     *
+     * @param basicConfiguration The non-null config.yml configuration.
+     */
+    public static void load(@NotNull Configuration basicConfiguration) {
+        Map<EntityType, HitboxProfile> temp = new EnumMap<>(EntityType.class);
+        for (EntityType type : EntityType.values()) {
+            if (!type.isAlive()) continue;
+
+            String path = "Entity_Hitboxes." + type.name() + ".";
+            temp.put(type, new HitboxProfile(
+                    basicConfiguration.getDouble(path + DamagePoint.HEAD.name()),
+                    basicConfiguration.getDouble(path + DamagePoint.BODY.name()),
+                    basicConfiguration.getDouble(path + DamagePoint.LEGS.name()),
+                    basicConfiguration.getDouble(path + DamagePoint.FEET.name()),
+                    basicConfiguration.getBool(path + DamagePoint.ARMS.name(), false),
+                    basicConfiguration.getBool(path + "Horizontal_Entity", false)));
+        }
+        profiles = temp;
+    }
+
+    /**
+     * Returns which vertical part of the hit box was hit. This never returns
+     * {@link DamagePoint#ARMS}, since that also depends on the direction of
+     * the hit, see {@link #hasArms()}.
+     *
+     * @param hitY         The y coordinate of the hit location.
+     * @param maxY         The top of the entity's hit box.
+     * @param entityHeight The height of the entity.
+     * @return HEAD, BODY, LEGS or FEET, or null if every fraction is 0.
+     */
+    @Nullable
+    public DamagePoint getVerticalPoint(double hitY, double maxY, double entityHeight) {
+        if (head > 0.0 && maxY - (entityHeight * head) < hitY)
+            return DamagePoint.HEAD;
+        if (body >= 1.0 || body > 0.0 && maxY - (entityHeight * bodyEnd) < hitY)
+            return DamagePoint.BODY;
+        if (legs > 0.0 && maxY - (entityHeight * legsEnd) < hitY)
+            return DamagePoint.LEGS;
+
+        // No need for actual check since it can't be HEAD, BODY or LEGS anymore so only option left is FEET
+        if (feet > 0.0)
+            return DamagePoint.FEET;
+
+        return null;
+    }
+
+    public double getHead() {
+        return head;
+    }
+
+    public double getBody() {
+        return body;
+    }
+
+    public double getLegs() {
+        return legs;
+    }
+
+    public double getFeet() {
+        return feet;
+    }
+
+    /**
+     * @return true if body hits from the side count as {@link DamagePoint#ARMS}
+     */
+    public boolean hasArms() {
+        return arms;
+    }
+
+    /**
+     * @return true if the front of the body counts as {@link DamagePoint#HEAD}
+     */
+    public boolean isHorizontalEntity() {
+        return horizontalEntity;
+    }
+}
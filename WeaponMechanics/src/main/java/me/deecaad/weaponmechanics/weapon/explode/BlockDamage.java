@@ -225,7 +225,7 @@ public class BlockDamage implements Serializer<BlockDamage> {
     @Nullable
     public BlockDamageData.DamageData damage(Block block, @Nullable Player player, boolean isRegenerate) {
         BreakMode blockBreakMode = getBreakMode(block);
-        if (blockBreakMode != BreakMode.CANCEL && !BlockDamageData.isBroken(block)) {
+        if (blockBreakMode != BreakMode.CANCEL && !BlockDamageData.isBroken(block) && BlockDamageData.canDamage(block)) {
 
             boolean dropItems = blockBreakMode == BreakMode.BREAK;
             Collection<ItemStack> drops = null;
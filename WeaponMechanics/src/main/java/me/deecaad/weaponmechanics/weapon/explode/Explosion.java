@@ -49,6 +49,7 @@ import org.jetbrains.annotations.NotNull;
 import javax.annotation.Nonnull;
 import org.jetbrains.annotations.Nullable;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
 
@@ -346,7 +347,12 @@ public class Explosion implements Serializer<Explosion> {
             timeOffset += regeneration.getTicksBeforeStart();
 
         List<BlockDamageData.DamageData> brokenBlocks = isRegenerate ? new ArrayList<>(regeneration.getMaxBlocksPerUpdate()) : null;
-        Location temp = new Location(null, 0, 0, 0);
+
+        // Check WorldGuard to determine whether we can break blocks here
+        // Always use null for player. We could check if the projectile
+        // shooter owns the region, but it is best to simply deny for all
+        // players (Less confused people).
+        BitSet breakable = CompatibilityAPI.getWorldGuardCompatibility().testFlag(blocks, null, "weapon-break-block");
 
         int blocksBroken = 0;
 
@@ -354,11 +360,7 @@ public class Explosion implements Serializer<Explosion> {
         for (int i = 0; i < size; i++) {
             Block block = blocks.get(i);
 
-            // Check WorldGuard to determine whether we can break blocks here
-            // Always use null for player. We could check if the projectile
-            // shooter owns the region, but it is best to simply deny for all
-            // players (Less confused people).
-            if (!CompatibilityAPI.getWorldGuardCompatibility().testFlag(block.getLocation(temp), null, "weapon-break-block"))
+            if (!breakable.get(i))
                 continue;
 
             // We need the BlockState for falling blocks. If we get the state
@@ -375,28 +377,15 @@ public class Explosion implements Serializer<Explosion> {
             if (data == null)
                 continue;
 
-            // Group blocks together to reduce task scheduling. After
-            // reaching the bound, we can schedule a task to generate later.
+            // Group blocks together, so they regenerate at the same time. After
+            // reaching the bound, we can schedule the group to generate later.
             if (isRegenerate) {
                 brokenBlocks.add(data);
 
                 if (brokenBlocks.size() == regeneration.getMaxBlocksPerUpdate() || i == size - 1) {
                     int time = timeOffset + ((isAtOnce ? size : i) / regeneration.getMaxBlocksPerUpdate() * regeneration.getInterval());
 
-                    List<BlockDamageData.DamageData> finalBrokenBlocks = new ArrayList<>(brokenBlocks);
-                    new BukkitRunnable() {
-                        @Override
-                        public void run() {
-                            for (BlockDamageData.DamageData block : finalBrokenBlocks) {
-
-                                // The blocks may have been regenerated already
-                                if (block.isBroken()) {
-                                    block.regenerate();
-                                    block.remove();
-                                }
-                            }
-                        }
-                    }.runTaskLater(WeaponMechanics.getPlugin(), time);
+                    WeaponMechanics.getBlockRegenerationRunnable().schedule(brokenBlocks, time);
 
                     // Reset back to 0 elements, so we can continue adding
                     // blocks to regenerate to the list.
@@ -5,9 +5,6 @@ import me.deecaad.core.compatibility.HitBox;
 import me.deecaad.core.utils.LogLevel;
 import me.deecaad.core.utils.NumberUtil;
 import me.deecaad.core.utils.primitive.DoubleMap;
-import me.deecaad.weaponmechanics.weapon.explode.raytrace.Ray;
-import me.deecaad.weaponmechanics.weapon.explode.raytrace.TraceCollision;
-import me.deecaad.weaponmechanics.weapon.explode.raytrace.TraceResult;
 import me.deecaad.weaponmechanics.weapon.explode.shapes.ExplosionShape;
 import org.bukkit.Location;
 import org.bukkit.World;
@@ -16,6 +13,7 @@ import org.bukkit.entity.LivingEntity;
 import org.bukkit.util.Vector;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static me.deecaad.weaponmechanics.WeaponMechanics.debug;
@@ -47,6 +45,12 @@ public class DefaultExposure implements ExplosionExposure {
 
         Vector vector = new Vector(x, y, z);
 
+        // Every ray of every entity is traced at once, so they can share
+        // the blocks between the explosion and the entities
+        ExposureBatch batch = new ExposureBatch(world, x, y, z, 0.3);
+        List<LivingEntity> exposed = new ArrayList<>(entities.size());
+        double[] impactRates = new double[entities.size()];
+
         for (LivingEntity entity : entities) {
             Vector entityLocation = entity.getLocation().toVector();
 
@@ -60,37 +64,38 @@ public class DefaultExposure implements ExplosionExposure {
                 continue;
             }
 
-            Vector betweenEntityAndExplosion = entityLocation.subtract(vector);
-            double distance = betweenEntityAndExplosion.length();
+            double distance = entityLocation.subtract(vector).length();
 
             // If there is distance between the entity and the explosion
             if (distance != 0.0) {
-
-                // Normalize
-                betweenEntityAndExplosion.multiply(1 / distance);
-
-                double exposure = getExposure(vector, entity);
-                double impact = impactRate * exposure;
-
-                temp.put(entity, impact);
+                int index = batch.addEntity();
+                addRays(batch, index, entity);
+                exposed.add(entity);
+                impactRates[index] = impactRate;
             }
         }
 
+        double[] exposures = batch.trace();
+        for (int i = 0; i < exposures.length; i++)
+            temp.put(exposed.get(i), impactRates[i] * exposures[i]);
+
         return temp;
     }
 
     /**
-     * Gets a double [0, 1] representing how exposed the entity is to the explosion
+     * Adds the rays used to determine how exposed the entity is to the
+     * explosion. The rays go to a grid of points on the entity's hit box.
      *
-     * @param vec3d The origin of the explosion
+     * @param batch The batch to add the rays to
+     * @param index The index of the entity in the batch
      * @param entity The entity exposed to the explosion
-     * @return The level of exposure of the entity to the epxlosion
      */
-    private static double getExposure(Vector vec3d, Entity entity) {
+    private static void addRays(ExposureBatch batch, int index, Entity entity) {
         HitBox box = CompatibilityAPI.getEntityCompatibility().getHitBox(entity);
 
+        // Entities without rays have an exposure of 0
         if (box == null) {
-            return 0.0;
+            return;
         }
 
         // Get the dimensions of the bounding box
@@ -108,17 +113,11 @@ public class DefaultExposure implements ExplosionExposure {
 
         // Outside the grid
         if (gridX < 0.0 || gridY < 0.0 || gridZ < 0.0)
-            return 0.0;
+            return;
 
         double d3 = (1.0 - Math.floor(stepX) * gridX) / 2.0;
         double d4 = (1.0 - Math.floor(stepZ) * gridZ) / 2.0;
 
-        // Setup variables for the loop
-        World world = entity.getWorld();
-
-        int successfulTraces = 0;
-        int totalTraces = 0;
-
         // For each grid on the bounding box
         for (double x = 0; x <= 1; x += gridX) {
             for (double y = 0; y <= 1; y += gridY) {
@@ -128,23 +127,11 @@ public class DefaultExposure implements ExplosionExposure {
                     double b = NumberUtil.lerp(box.getMinY(), box.getMaxY(), y);
                     double c = NumberUtil.lerp(box.getMinZ(), box.getMaxZ(), z);
 
-                    // Calculates a path from the origin of the explosion
-                    // (0, 0, 0) to the current grid on the entity's bounding
-                    // box. The Vector is then ray traced to check for obstructions
-                    Vector vector = new Vector(a + d3, b, c + d4).subtract(vec3d);
-
-                    Ray ray = new Ray(vec3d.toLocation(world), vector);
-                    TraceResult trace = ray.trace(TraceCollision.BLOCK, 0.3);
-                    if (trace.getBlocks().isEmpty()) {
-                        successfulTraces++;
-                    }
-
-                    totalTraces++;
+                    // Each ray goes from the origin of the explosion to the
+                    // current grid on the entity's bounding box
+                    batch.addRay(index, a + d3, b, c + d4, 1, 1);
                 }
             }
         }
-
-        // The percentage of successful traces
-        return ((double) successfulTraces) / totalTraces;
     }
 }
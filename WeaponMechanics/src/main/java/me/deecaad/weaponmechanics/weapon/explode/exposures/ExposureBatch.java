@@ -0,0 +1,266 @@
+package me.deecaad.weaponmechanics.weapon.explode.exposures;
+
+import me.deecaad.core.compatibility.HitBox;
+import me.deecaad.core.utils.NumberUtil;
+import me.deecaad.core.utils.ray.BlockSnapshotCache;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Traces every exposure ray of one explosion at once. Instead of creating a
+ * {@link me.deecaad.weaponmechanics.weapon.explode.raytrace.Ray} (and all of
+ * its vectors, locations and sets) for every ray of every entity, the rays
+ * are stored in flat arrays, and walked through a voxel snapshot of the
+ * blast region which is shared by every ray.
+ *
+ * <p>Rays are traced exactly like
+ * <code>new Ray(world, origin, target).trace(TraceCollision.BLOCK, accuracy)</code>:
+ * points are sampled every <code>accuracy</code> blocks (skipping the first
+ * point), and a ray is obstructed when a point is inside the hit box of a
+ * block.
+ *
+ * <p>Each ray has 2 weights. When the ray is not obstructed, its
+ * <code>hitWeight</code> is added to both the successful and total traces
+ * of its entity. Otherwise, its <code>missWeight</code> is added to only the
+ * total traces.
+ *
+ * <p>The voxel snapshot is reused by every batch traced on the same thread,
+ * and is capped at {@link #MAX_SNAPSHOT_VOLUME} voxels. Bigger blast regions
+ * resolve each block from the {@link BlockSnapshotCache} instead.
+ */
+public final class ExposureBatch {
+
+    /**
+     * The most voxels in a snapshot (256 KiB). A radius 20 explosion fits.
+     */
+    public static final int MAX_SNAPSHOT_VOLUME = 1 << 16;
+
+    private static final int UNKNOWN = 0;
+    private static final int EMPTY = 1;
+
+    private static final ThreadLocal<int[]> SNAPSHOT = new ThreadLocal<>();
+
+    private final BlockBoxes blocks;
+    private final double originX, originY, originZ;
+    private final double accuracy;
+
+    // 3 values per ray
+    private double[] targets = new double[3 * 32];
+    private int[] rayEntities = new int[32];
+    private int[] hitWeights = new int[32];
+    private int[] missWeights = new int[32];
+    private int rays;
+    private int entities;
+
+    // Bounds of every ray
+    private double minX, minY, minZ, maxX, maxY, maxZ;
+
+    // Voxel snapshot. Each voxel stores UNKNOWN, EMPTY, or 2 + the index of
+    // its box in boxes.
+    private int snapshotX, snapshotY, snapshotZ;
+    private int sizeX, sizeY, sizeZ;
+    private int[] voxels;
+    private double[] boxes = new double[6 * 16];
+    private int boxCount;
+
+    /**
+     * @param world    The non-null world the explosion happens in.
+     * @param originX  The x coordinate of the explosion.
+     * @param originY  The y coordinate of the explosion.
+     * @param originZ  The z coordinate of the explosion.
+     * @param accuracy The distance (in blocks) between checks along each ray.
+     */
+    public ExposureBatch(@NotNull World world, double originX, double originY, double originZ, double accuracy) {
+        this((x, y, z) -> BlockSnapshotCache.getHitBox(BlockSnapshotCache.getBlockAt(world, x, y, z), false), originX, originY, originZ, accuracy);
+    }
+
+    ExposureBatch(@NotNull BlockBoxes blocks, double originX, double originY, double originZ, double accuracy) {
+        this.blocks = blocks;
+        this.originX = originX;
+        this.originY = originY;
+        this.originZ = originZ;
+        this.accuracy = accuracy;
+
+        minX = maxX = originX;
+        minY = maxY = originY;
+        minZ = maxZ = originZ;
+    }
+
+    /**
+     * Registers a new entity, whose rays can be added using
+     * {@link #addRay(int, double, double, double, int, int)}.
+     *
+     * @return The index of the entity in the array returned by {@link #trace()}.
+     */
+    public int addEntity() {
+        return entities++;
+    }
+
+    /**
+     * Adds a ray from the origin of the explosion to the given target.
+     *
+     * @param entity     The index of the entity, from {@link #addEntity()}.
+     * @param x          The x coordinate of the end of the ray.
+     * @param y          The y coordinate of the end of the ray.
+     * @param z          The z coordinate of the end of the ray.
+     * @param hitWeight  How many traces this ray counts as when it is not obstructed.
+     * @param missWeight How many traces this ray counts as when it is obstructed.
+     */
+    public void addRay(int entity, double x, double y, double z, int hitWeight, int missWeight) {
+        if (rays == rayEntities.length) {
+            int newLength = rays * 2;
+            targets = Arrays.copyOf(targets, newLength * 3);
+            rayEntities = Arrays.copyOf(rayEntities, newLength);
+            hitWeights = Arrays.copyOf(hitWeights, newLength);
+            missWeights = Arrays.copyOf(missWeights, newLength);
+        }
+
+        targets[rays * 3] = x;
+        targets[rays * 3 + 1] = y;
+        targets[rays * 3 + 2] = z;
+        rayEntities[rays] = entity;
+        hitWeights[rays] = hitWeight;
+        missWeights[rays] = missWeight;
+        rays++;
+
+        minX = Math.min(minX, x);
+        minY = Math.min(minY, y);
+        minZ = Math.min(minZ, z);
+        maxX = Math.max(maxX, x);
+        maxY = Math.max(maxY, y);
+        maxZ = Math.max(maxZ, z);
+    }
+
+    /**
+     * Traces every ray, and returns the exposure of each entity. The exposure
+     * is the successful traces divided by the total traces, or 0 if the
+     * entity had no traces.
+     *
+     * @return The non-null exposures, indexed by entity.
+     */
+    @NotNull
+    public double[] trace() {
+        int[] successful = new int[entities];
+        int[] total = new int[entities];
+
+        snapshotX = NumberUtil.intFloor(minX);
+        snapshotY = NumberUtil.intFloor(minY);
+        snapshotZ = NumberUtil.intFloor(minZ);
+        sizeX = NumberUtil.intFloor(maxX) - snapshotX + 1;
+        sizeY = NumberUtil.intFloor(maxY) - snapshotY + 1;
+        sizeZ = NumberUtil.intFloor(maxZ) - snapshotZ + 1;
+        long volume = (long) sizeX * sizeY * sizeZ;
+        voxels = volume <= MAX_SNAPSHOT_VOLUME ? snapshot((int) volume) : null;
+
+        for (int ray = 0; ray < rays; ray++) {
+            int entity = rayEntities[ray];
+            if (isObstructed(targets[ray * 3], targets[ray * 3 + 1], targets[ray * 3 + 2])) {
+                total[entity] += missWeights[ray];
+            } else {
+                successful[entity] += hitWeights[ray];
+                total[entity] += hitWeights[ray];
+            }
+        }
+
+        // The snapshot is shared with the next batch on this thread
+        voxels = null;
+
+        double[] exposures = new double[entities];
+        for (int i = 0; i < entities; i++)
+            exposures[i] = total[i] == 0 ? 0.0 : (double) successful[i] / total[i];
+        return exposures;
+    }
+
+    private static int[] snapshot(int volume) {
+        int[] snapshot = SNAPSHOT.get();
+        if (snapshot == null || snapshot.length < volume) {
+            snapshot = new int[volume];
+            SNAPSHOT.set(snapshot);
+        } else {
+            Arrays.fill(snapshot, 0, volume, UNKNOWN);
+        }
+        return snapshot;
+    }
+
+    private boolean isObstructed(double endX, double endY, double endZ) {
+        double dirX = endX - originX;
+        double dirY = endY - originY;
+        double dirZ = endZ - originZ;
+        double length = Math.sqrt(dirX * dirX + dirY * dirY + dirZ * dirZ);
+
+        // Ray is shorter than the accuracy allows
+        double step = accuracy / length;
+        if (step > 1.0)
+            return false;
+
+        // Start at step to skip the first point, see issue #26
+        for (double i = step; i <= 1; i += step) {
+            double x = originX + i * dirX;
+            double y = originY + i * dirY;
+            double z = originZ + i * dirZ;
+
+            int box = getBox(NumberUtil.intFloor(x), NumberUtil.intFloor(y), NumberUtil.intFloor(z));
+            if (box == EMPTY)
+                continue;
+
+            int b = (box - 2) * 6;
+            if (x >= boxes[b] && x <= boxes[b + 3] && y >= boxes[b + 1] && y <= boxes[b + 4] && z >= boxes[b + 2] && z <= boxes[b + 5])
+                return true;
+        }
+
+        return false;
+    }
+
+    private int getBox(int x, int y, int z) {
+        int index = -1;
+        if (voxels != null) {
+            int dx = x - snapshotX, dy = y - snapshotY, dz = z - snapshotZ;
+
+            // Points can be slightly outside the bounds due to rounding
+            if (dx >= 0 && dy >= 0 && dz >= 0 && dx < sizeX && dy < sizeY && dz < sizeZ) {
+                index = (dy * sizeZ + dz) * sizeX + dx;
+                if (voxels[index] != UNKNOWN)
+                    return voxels[index];
+            }
+        }
+
+        boolean store = index != -1;
+        int box = resolve(x, y, z, store);
+        if (store)
+            voxels[index] = box;
+        return box;
+    }
+
+    private int resolve(int x, int y, int z, boolean store) {
+        HitBox hitBox = blocks.getHitBox(x, y, z);
+        if (hitBox == null)
+            return EMPTY;
+
+        if (boxCount * 6 == boxes.length)
+            boxes = Arrays.copyOf(boxes, boxes.length * 2);
+
+        int b = boxCount * 6;
+        boxes[b] = hitBox.getMinX();
+        boxes[b + 1] = hitBox.getMinY();
+        boxes[b + 2] = hitBox.getMinZ();
+        boxes[b + 3] = hitBox.getMaxX();
+        boxes[b + 4] = hitBox.getMaxY();
+        boxes[b + 5] = hitBox.getMaxZ();
+
+        // Boxes outside the snapshot are only used once, so they are
+        // overwritten by the next block
+        return store ? 2 + boxCount++ : 2 + boxCount;
+    }
+
+    /**
+     * Resolves the hit box of the block at the given coordinates.
+     */
+    @FunctionalInterface
+    interface BlockBoxes {
+        @Nullable
+        HitBox getHitBox(int x, int y, int z);
+    }
+}
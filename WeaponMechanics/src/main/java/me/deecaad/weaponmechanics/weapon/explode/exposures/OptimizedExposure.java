@@ -5,9 +5,6 @@ import me.deecaad.core.compatibility.HitBox;
 import me.deecaad.core.utils.LogLevel;
 import me.deecaad.core.utils.VectorUtil;
 import me.deecaad.core.utils.primitive.DoubleMap;
-import me.deecaad.weaponmechanics.weapon.explode.raytrace.Ray;
-import me.deecaad.weaponmechanics.weapon.explode.raytrace.TraceCollision;
-import me.deecaad.weaponmechanics.weapon.explode.raytrace.TraceResult;
 import me.deecaad.weaponmechanics.weapon.explode.shapes.ExplosionShape;
 import org.bukkit.Location;
 import org.bukkit.World;
@@ -16,6 +13,7 @@ import org.bukkit.entity.LivingEntity;
 import org.bukkit.util.Vector;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static me.deecaad.weaponmechanics.WeaponMechanics.debug;
@@ -44,6 +42,13 @@ public class OptimizedExposure implements ExplosionExposure {
         }
 
         Vector vector = new Vector(x, y, z);
+
+        // Every ray of every entity is traced at once, so they can share
+        // the blocks between the explosion and the entities
+        ExposureBatch batch = new ExposureBatch(world, x, y, z, 0.3);
+        List<LivingEntity> exposed = new ArrayList<>(entities.size());
+        double[] impactRates = new double[entities.size()];
+
         for (LivingEntity entity : entities) {
             Vector entityLocation = entity.getLocation().toVector();
 
@@ -58,66 +63,52 @@ public class OptimizedExposure implements ExplosionExposure {
                 continue;
             }
 
-            Vector betweenEntityAndExplosion = entityLocation.subtract(vector);
-
             // If there is distance between the entity and the explosion
             if (distance != 0.0) {
-
-                // Normalize
-                betweenEntityAndExplosion.multiply(1.0 / distance);
-
-                double exposure = getExposure(vector, entity);
-                double impact = impactRate * exposure;
-
-                temp.put(entity, impact);
+                int index = batch.addEntity();
+                addRays(batch, index, entity);
+                exposed.add(entity);
+                impactRates[index] = impactRate;
             }
         }
 
+        double[] exposures = batch.trace();
+        for (int i = 0; i < exposures.length; i++)
+            temp.put(exposed.get(i), impactRates[i] * exposures[i]);
+
         return temp;
     }
 
     /**
-     * Gets a double [0.0, 1.0] representing how exposed the entity is to the explosion.
+     * Adds the rays used to determine how exposed the entity is to the explosion.
      * Exposure is determined by 8 rays, 1 ray for each corner of an entity's
-     * bounding box. The returned exposure is equal to the number of rays that hit
-     * the entity divided by 8.
+     * bounding box. The exposure is equal to the number of rays that hit the
+     * entity divided by 8.
      *
      * <p>There is also one ray going to the center of the entity hit-box that
      * has the power of 4 rays.
      *
-     * @param vec3d The origin point
+     * @param batch The batch to add the rays to
+     * @param index The index of the entity in the batch
      * @param entity The entity exposed to the explosion
-     * @return The level of exposure of the entity to the explosion
      */
-    private static double getExposure(Vector vec3d, Entity entity) {
+    private static void addRays(ExposureBatch batch, int index, Entity entity) {
         HitBox box = CompatibilityAPI.getEntityCompatibility().getHitBox(entity);
 
+        // Entities without rays have an exposure of 0
         if (box == null) {
-            return 0.0;
+            return;
         }
 
-        // Setup variables for the loop
-        World world = entity.getWorld();
         Vector min = box.getMin();
         Vector max = box.getMax();
 
-        int successfulTraces = 0;
-        int totalTraces = 0;
-
         // For each corner of the bounding box
         for (int x = 0; x <= 1; x++) {
             for (int y = 0; y <= 1; y++) {
                 for (int z = 0; z <= 1; z++) {
                     Vector lerp = VectorUtil.lerp(min, max, x, y, z);
-
-                    // Determine if the ray can hit the entity without hitting a block
-                    Ray ray = new Ray(world, vec3d, lerp);
-                    TraceResult trace = ray.trace(TraceCollision.BLOCK, 0.3);
-                    if (trace.getBlocks().isEmpty()) {
-                        successfulTraces++;
-                    }
-
-                    totalTraces++;
+                    batch.addRay(index, lerp.getX(), lerp.getY(), lerp.getZ(), 1, 1);
                 }
             }
         }
@@ -125,14 +116,7 @@ public class OptimizedExposure implements ExplosionExposure {
         // Add one more ray pointing to the center of the bound box. If this
         // ray hits the entity, it has the power of 4 rays. If this ray does
         // not hit the entity, it has the power of 0 rays
-        Ray ray = new Ray(world, vec3d, VectorUtil.lerp(min, max, 0.5));
-        TraceResult trace = ray.trace(TraceCollision.BLOCK, 0.3);
-        if (trace.getBlocks().isEmpty()) {
-            successfulTraces += 4;
-            totalTraces += 4;
-        }
-
-        // The percentage of successful traces
-        return ((double) successfulTraces) / totalTraces;
+        Vector center = VectorUtil.lerp(min, max, 0.5);
+        batch.addRay(index, center.getX(), center.getY(), center.getZ(), 4, 0);
     }
 }
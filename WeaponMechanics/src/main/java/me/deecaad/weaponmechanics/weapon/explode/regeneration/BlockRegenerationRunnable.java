@@ -0,0 +1,257 @@
+package me.deecaad.weaponmechanics.weapon.explode.regeneration;
+
+import me.deecaad.core.utils.primitive.LongMap;
+import me.deecaad.weaponmechanics.WeaponMechanics;
+import me.deecaad.weaponmechanics.weapon.damage.BlockDamageData;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+/**
+ * This class is run once for every Minecraft Server tick, and regenerates
+ * the blocks broken by every explosion. Instead of scheduling a new task for
+ * every group of blocks, explosions {@link #schedule(List, int) schedule}
+ * their blocks here.
+ *
+ * <p>Scheduled blocks wait in a priority queue until they are due. Due blocks
+ * are merged by chunk (no matter which explosion broke them), and are
+ * regenerated in the order they became due. When more blocks are due than
+ * the {@link #setBlocksPerTick(int) blocks per tick} allow, chunks closest to
+ * players are regenerated first, and the remaining blocks are regenerated
+ * during the next ticks.
+ */
+public class BlockRegenerationRunnable extends BukkitRunnable {
+
+    // Sorts the chunks by their distance to the closest player, then by the
+    // order they became due.
+    private static final Comparator<ChunkQueue> PRIORITY = Comparator.<ChunkQueue>comparingLong(chunk -> chunk.distance)
+            .thenComparingLong(chunk -> chunk.sequence);
+
+    private final PriorityQueue<Batch> pending;
+    private final Map<UUID, LongMap<ChunkQueue>> chunks;
+    private final List<ChunkQueue> ready;
+    private int readyBlocks;
+
+    private long tick;
+    private long sequence;
+
+    // 0 means that every due block is regenerated no matter how many
+    private int blocksPerTick;
+
+    /**
+     * Initializes and registers this runnable. WeaponMechanics initializes
+     * one of these by default, use
+     * {@link WeaponMechanics#getBlockRegenerationRunnable()}.
+     *
+     * @param plugin The non-null plugin
+     */
+    public BlockRegenerationRunnable(Plugin plugin) {
+        pending = new PriorityQueue<>();
+        chunks = new HashMap<>();
+        ready = new ArrayList<>();
+
+        runTaskTimer(plugin, 0, 0);
+    }
+
+    /**
+     * @return the most blocks regenerated each tick, or 0 for no limit
+     */
+    public int getBlocksPerTick() {
+        return blocksPerTick;
+    }
+
+    /**
+     * Sets the most blocks that may be regenerated each tick, across every
+     * explosion. Blocks which don't fit are regenerated during the next tick.
+     *
+     * @param blocksPerTick The number of blocks, or 0 for no limit.
+     */
+    public void setBlocksPerTick(int blocksPerTick) {
+        if (blocksPerTick < 0)
+            throw new IllegalArgumentException("Blocks per tick cannot be negative: " + blocksPerTick);
+
+        this.blocksPerTick = blocksPerTick;
+    }
+
+    /**
+     * Returns the number of blocks waiting to be regenerated.
+     *
+     * @return The number of scheduled blocks.
+     */
+    public int getScheduledBlocks() {
+        int count = readyBlocks;
+        for (Batch batch : pending)
+            count += batch.blocks.size();
+        return count;
+    }
+
+    /**
+     * Schedules the given blocks to be regenerated after the given delay.
+     * Blocks are regenerated in the given order. Blocks which were already
+     * regenerated (for example, because their chunk was unloaded) are
+     * skipped.
+     *
+     * @param blocks The non-null blocks to regenerate. The list is copied.
+     * @param delay  The delay, in ticks.
+     */
+    public void schedule(@NotNull List<BlockDamageData.DamageData> blocks, int delay) {
+        if (blocks.isEmpty())
+            return;
+
+        pending.add(new Batch(tick + Math.max(delay, 1), sequence++, new ArrayList<>(blocks)));
+    }
+
+    /**
+     * This method will always be run on the main server thread
+     */
+    @Override
+    public void run() {
+        tick++;
+
+        // Move every due batch into the chunks they belong to
+        Batch batch;
+        while ((batch = pending.peek()) != null && batch.tick <= tick) {
+            pending.poll();
+            for (BlockDamageData.DamageData data : batch.blocks)
+                enqueue(data);
+        }
+
+        if (readyBlocks == 0)
+            return;
+
+        // Only bother sorting the chunks when some of them have to wait
+        int budget = blocksPerTick;
+        if (budget != 0 && readyBlocks > budget)
+            prioritize();
+        else
+            budget = readyBlocks;
+
+        // Empty chunks are removed while iterating, keeping the order of the
+        // chunks which still have blocks
+        int write = 0;
+        for (int read = 0; read < ready.size(); read++) {
+            ChunkQueue chunk = ready.get(read);
+
+            BlockDamageData.DamageData data;
+            while (budget > 0 && (data = chunk.blocks.poll()) != null) {
+                readyBlocks--;
+
+                // The blocks may have been regenerated already
+                if (data.isBroken()) {
+                    data.regenerate();
+                    data.remove();
+                    budget--;
+                }
+            }
+
+            if (chunk.blocks.isEmpty())
+                remove(chunk);
+            else
+                ready.set(write++, chunk);
+        }
+        ready.subList(write, ready.size()).clear();
+    }
+
+    private void enqueue(BlockDamageData.DamageData data) {
+        Block block = data.getBlock();
+        int chunkX = block.getX() >> 4;
+        int chunkZ = block.getZ() >> 4;
+        long key = (long) chunkX & 0xFFFFFFFFL | ((long) chunkZ & 0xFFFFFFFFL) << 32;
+
+        LongMap<ChunkQueue> worldChunks = chunks.computeIfAbsent(block.getWorld().getUID(), k -> new LongMap<>());
+        ChunkQueue chunk = worldChunks.get(key);
+        if (chunk == null) {
+            chunk = new ChunkQueue(block.getWorld(), chunkX, chunkZ, key, sequence++);
+            worldChunks.put(key, chunk);
+            ready.add(chunk);
+        }
+
+        chunk.blocks.add(data);
+        readyBlocks++;
+    }
+
+    private void remove(ChunkQueue chunk) {
+        UUID world = chunk.world.getUID();
+        LongMap<ChunkQueue> worldChunks = chunks.get(world);
+        worldChunks.remove(chunk.key);
+        if (worldChunks.isEmpty())
+            chunks.remove(world);
+    }
+
+    private void prioritize() {
+        Map<World, List<Player>> players = new HashMap<>();
+        Location temp = new Location(null, 0, 0, 0);
+
+        for (ChunkQueue chunk : ready) {
+            List<Player> worldPlayers = players.computeIfAbsent(chunk.world, World::getPlayers);
+
+            long closest = Long.MAX_VALUE;
+            for (Player player : worldPlayers) {
+                player.getLocation(temp);
+                long dx = (temp.getBlockX() >> 4) - chunk.x;
+                long dz = (temp.getBlockZ() >> 4) - chunk.z;
+                closest = Math.min(closest, dx * dx + dz * dz);
+            }
+            chunk.distance = closest;
+        }
+
+        ready.sort(PRIORITY);
+    }
+
+    /**
+     * Blocks from 1 explosion that become due during the same tick.
+     */
+    private static final class Batch implements Comparable<Batch> {
+
+        private final long tick;
+        private final long sequence;
+        private final List<BlockDamageData.DamageData> blocks;
+
+        private Batch(long tick, long sequence, List<BlockDamageData.DamageData> blocks) {
+            this.tick = tick;
+            this.sequence = sequence;
+            this.blocks = blocks;
+        }
+
+        @Override
+        public int compareTo(@NotNull Batch o) {
+            int compare = Long.compare(tick, o.tick);
+            return compare != 0 ? compare : Long.compare(sequence, o.sequence);
+        }
+    }
+
+    /**
+     * Due blocks in 1 chunk, from any number of explosions.
+     */
+    private static final class ChunkQueue {
+
+        private final World world;
+        private final int x;
+        private final int z;
+        private final long key;
+        private final long sequence;
+        private final ArrayDeque<BlockDamageData.DamageData> blocks = new ArrayDeque<>();
+        private long distance;
+
+        private ChunkQueue(World world, int x, int z, long key, long sequence) {
+            this.world = world;
+            this.x = x;
+            this.z = z;
+            this.key = key;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package me.deecaad.weaponmechanics.weapon.explode.shapes;
 import me.deecaad.core.file.Configuration;
 import me.deecaad.core.utils.LogLevel;
 import me.deecaad.core.utils.NumberUtil;
+import me.deecaad.core.utils.ray.EntitySpatialIndex;
 import me.deecaad.weaponmechanics.WeaponMechanics;
 import org.bukkit.Location;
 import org.bukkit.World;
@@ -114,7 +115,15 @@ public class CuboidExplosion implements ExplosionShape {
         double yMin = origin.getY() - height, yMax = origin.getY() + height;
         double zMin = origin.getZ() - width,  zMax = origin.getZ() + width;
 
-        List<LivingEntity> all = origin.getWorld().getLivingEntities();
+        List<LivingEntity> all;
+        EntitySpatialIndex index = EntitySpatialIndex.get(origin.getWorld());
+        if (index == null) {
+            all = origin.getWorld().getLivingEntities();
+        } else {
+            all = new ArrayList<>();
+            index.getEntities(xMin, yMin, zMin, xMax, yMax, zMax, all);
+        }
+
         List<LivingEntity> temp = new ArrayList<>(all.size());
         for  (LivingEntity entity : all) {
             double x = entity.getLocation().getX();
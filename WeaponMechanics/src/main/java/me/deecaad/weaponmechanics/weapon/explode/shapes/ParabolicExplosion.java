@@ -3,6 +3,7 @@ package me.deecaad.weaponmechanics.weapon.explode.shapes;
 import me.deecaad.core.file.Configuration;
 import me.deecaad.core.utils.LogLevel;
 import me.deecaad.core.utils.NumberUtil;
+import me.deecaad.core.utils.ray.EntitySpatialIndex;
 import me.deecaad.weaponmechanics.WeaponMechanics;
 import org.bukkit.Location;
 import org.bukkit.block.Block;
@@ -92,7 +93,19 @@ public class ParabolicExplosion implements ExplosionShape {
     @NotNull
     @Override
     public List<LivingEntity> getEntities(@NotNull Location origin) {
-        List<LivingEntity> all = origin.getWorld().getLivingEntities();
+        List<LivingEntity> all;
+        EntitySpatialIndex index = EntitySpatialIndex.get(origin.getWorld());
+        if (index == null) {
+            all = origin.getWorld().getLivingEntities();
+        } else {
+            // The parabola fits in a box that is 2 * intercept wide, and
+            // spans from depth to -depth vertically
+            double intercept = Math.sqrt(-depth / angle);
+            all = new ArrayList<>();
+            index.getEntities(origin.getX() - intercept, origin.getY() + depth, origin.getZ() - intercept,
+                    origin.getX() + intercept, origin.getY() - depth, origin.getZ() + intercept, all);
+        }
+
         List<LivingEntity> temp = new ArrayList<>(all.size());
 
         for (LivingEntity entity : all) {
@@ -3,6 +3,7 @@ package me.deecaad.weaponmechanics.weapon.explode.shapes;
 import me.deecaad.core.file.Configuration;
 import me.deecaad.core.utils.LogLevel;
 import me.deecaad.core.utils.NumberUtil;
+import me.deecaad.core.utils.ray.EntitySpatialIndex;
 import me.deecaad.weaponmechanics.WeaponMechanics;
 import org.bukkit.Location;
 import org.bukkit.block.Block;
@@ -13,7 +14,6 @@ import org.jetbrains.annotations.NotNull;
 import javax.annotation.Nonnull;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static me.deecaad.weaponmechanics.WeaponMechanics.debug;
 
@@ -71,10 +71,21 @@ public class SphericalExplosion implements ExplosionShape {
     @NotNull
     @Override
     public List<LivingEntity> getEntities(@NotNull Location origin) {
-        return origin.getWorld().getLivingEntities()
-                .stream()
-                .filter(entity -> entity.getLocation().distanceSquared(origin) < radiusSquared)
-                .collect(Collectors.toList());
+        List<LivingEntity> candidates;
+        EntitySpatialIndex index = EntitySpatialIndex.get(origin.getWorld());
+        if (index == null) {
+            candidates = origin.getWorld().getLivingEntities();
+        } else {
+            candidates = new ArrayList<>();
+            index.getEntitiesInSphere(origin, radius, candidates);
+        }
+
+        List<LivingEntity> temp = new ArrayList<>(candidates.size());
+        for (LivingEntity entity : candidates) {
+            if (entity.getLocation().distanceSquared(origin) < radiusSquared)
+                temp.add(entity);
+        }
+        return temp;
     }
 
     @Override
@@ -10,6 +10,7 @@ import me.deecaad.core.utils.AdventureUtil;
 import me.deecaad.core.utils.StringUtil;
 import me.deecaad.weaponmechanics.WeaponMechanics;
 import me.deecaad.weaponmechanics.utils.CustomTag;
+import me.deecaad.weaponmechanics.weapon.WeaponDefinition;
 import me.deecaad.weaponmechanics.weapon.WeaponHandler;
 import me.deecaad.weaponmechanics.weapon.shoot.CustomDurability;
 import me.deecaad.weaponmechanics.weapon.skin.SkinSelector;
@@ -46,6 +47,14 @@ public class InfoHandler implements IValidator {
      */
     private final Set<String> weaponsWithConvert = new LinkedHashSet<>();
 
+    /**
+     * Compiled weapon definitions, indexed by their interned id. These are
+     * filled by {@link #compileDefinitions(Configuration)} after the config
+     * has been serialized and validated.
+     */
+    private WeaponDefinition[] definitions = new WeaponDefinition[0];
+    private final Map<String, WeaponDefinition> definitionsByTitle = new HashMap<>();
+
     private WeaponHandler weaponHandler;
 
     /**
@@ -111,6 +120,97 @@ public class InfoHandler implements IValidator {
         return new ArrayList<>(sortedWeaponList);
     }
 
+    /**
+     * Compiles a {@link WeaponDefinition} for every registered weapon. This
+     * should be called once, after all serializers and validators have been
+     * used, so the definitions see the final values. Any previously compiled
+     * definitions (and their ids) are discarded.
+     *
+     * @param config The fully serialized configuration.
+     */
+    public void compileDefinitions(Configuration config) {
+        WeaponDefinition[] compiled = new WeaponDefinition[weaponList.size()];
+        definitionsByTitle.clear();
+
+        int id = 0;
+        for (String weaponTitle : weaponList) {
+            WeaponDefinition definition = WeaponDefinition.compile(id, weaponTitle, config);
+            compiled[id++] = definition;
+            definitionsByTitle.put(weaponTitle, definition);
+        }
+
+        definitions = compiled;
+    }
+
+    /**
+     * Compiles the definitions of only the given weapons, after their files
+     * were read again. Weapons which still exist keep their ids, so running
+     * projectiles and hands holding them keep working. New weapons get new
+     * ids, and weapons which no longer have a weapon item are unregistered.
+     *
+     * @param config       The updated configuration.
+     * @param weaponTitles The weapons (root keys) which changed.
+     */
+    public void recompileDefinitions(Configuration config, Collection<String> weaponTitles) {
+        List<WeaponDefinition> compiled = new ArrayList<>(Arrays.asList(definitions));
+
+        for (String weaponTitle : weaponTitles) {
+            WeaponDefinition old = definitionsByTitle.get(weaponTitle);
+
+            // Serializers register weapons again while the file is read,
+            // so weapons without an item were deleted
+            if (!config.containsKey(weaponTitle + ".Info.Weapon_Item")) {
+                weaponList.remove(weaponTitle);
+                sortedWeaponList.remove(weaponTitle);
+                weaponsWithConvert.remove(weaponTitle);
+                if (old != null) {
+                    compiled.set(old.getId(), null);
+                    definitionsByTitle.remove(weaponTitle);
+                }
+                continue;
+            }
+
+            if (!weaponList.contains(weaponTitle))
+                continue;
+            if (!config.containsKey(weaponTitle + ".Info.Weapon_Converter_Check"))
+                weaponsWithConvert.remove(weaponTitle);
+
+            int id = old == null ? compiled.size() : old.getId();
+            WeaponDefinition definition = WeaponDefinition.compile(id, weaponTitle, config);
+            if (old == null)
+                compiled.add(definition);
+            else
+                compiled.set(id, definition);
+            definitionsByTitle.put(weaponTitle, definition);
+        }
+
+        // Swapped in 1 assignment, so ids never point to a half updated array
+        definitions = compiled.toArray(new WeaponDefinition[0]);
+    }
+
+    /**
+     * Returns the compiled definition of the given weapon.
+     *
+     * @param weaponTitle The nullable weapon title.
+     * @return The definition, or null if the weapon is not registered.
+     */
+    @Nullable
+    public WeaponDefinition getWeaponDefinition(@Nullable String weaponTitle) {
+        return weaponTitle == null ? null : definitionsByTitle.get(weaponTitle);
+    }
+
+    /**
+     * Returns the compiled definition with the given interned id.
+     *
+     * @param id The id from {@link WeaponDefinition#getId()}.
+     * @return The definition, or null if the id is not valid.
+     */
+    @Nullable
+    public WeaponDefinition getWeaponDefinition(int id) {
+        WeaponDefinition[] definitions = this.definitions;
+        return id < 0 || id >= definitions.length ? null : definitions[id];
+    }
+
     /**
      * Adds weapon title to weapon converter list
      *
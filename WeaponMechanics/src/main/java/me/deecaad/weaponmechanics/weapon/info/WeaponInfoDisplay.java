@@ -94,6 +94,13 @@ public class WeaponInfoDisplay implements Serializer<WeaponInfoDisplay> {
         String mainWeapon = playerWrapper.getMainHandData().getCurrentWeaponTitle();
         String offWeapon = playerWrapper.getOffHandData().getCurrentWeaponTitle();
 
+        // Prefer the weapons cached by the hands, since they may have changes
+        // that were not written to the items yet
+        if (knownNewMainStack == null)
+            knownNewMainStack = playerWrapper.getMainHandData().getCachedWeaponStack();
+        if (knownNewOffStack == null)
+            knownNewOffStack = playerWrapper.getOffHandData().getCachedWeaponStack();
+
         ItemStack mainStack = knownNewMainStack == null ? player.getEquipment().getItemInMainHand() : knownNewMainStack;
         ItemStack offStack = knownNewOffStack == null ? player.getEquipment().getItemInOffHand() : knownNewOffStack;
 
@@ -3,6 +3,7 @@ package me.deecaad.weaponmechanics.weapon.projectile;
 import me.deecaad.core.compatibility.CompatibilityAPI;
 import me.deecaad.core.compatibility.entity.FakeEntity;
 import me.deecaad.core.utils.VectorUtil;
+import me.deecaad.core.utils.ray.RayTrace;
 import me.deecaad.core.utils.ray.RayTraceResult;
 import org.bukkit.Location;
 import org.bukkit.World;
@@ -39,6 +40,9 @@ public abstract class AProjectile {
     private int aliveTicks;
     private double distanceTravelled;
     private boolean dead;
+
+    // Ticks which ProjectilesRunnable skipped due to its tick budget
+    int deferredTicks;
     private Map<String, String> stringTags;
     private Map<String, Integer> integerTags;
 
@@ -60,7 +64,7 @@ public abstract class AProjectile {
         this.lastLocation = this.location.clone();
         this.motion = motion;
         this.motionLength = motion.length();
-        this.scripts = new LinkedList<>(); //dynamic, O(1) resize
+        this.scripts = new ArrayList<>(2); // most projectiles have 0-2 scripts
         onStart();
     }
 
@@ -122,6 +126,67 @@ public abstract class AProjectile {
         return 600;
     }
 
+    /**
+     * Cosmetic projectiles are delayed before other projectiles when the
+     * {@link ProjectilesRunnable} runs out of time during a tick. Override
+     * this for projectiles which don't affect gameplay.
+     *
+     * @return true if this projectile is only visual
+     */
+    public boolean isCosmetic() {
+        return false;
+    }
+
+    /**
+     * Hitscan projectiles are ticked over and over as soon as they are added
+     * to the {@link ProjectilesRunnable}, so their whole flight is resolved
+     * during the tick they were shot. A hitscan projectile which stops being
+     * hitscan before it dies (for example, when it sticks to a block) is
+     * ticked normally from then on.
+     *
+     * @return true if the rest of this projectile's flight should be resolved now
+     */
+    public boolean isHitscan() {
+        return false;
+    }
+
+    /**
+     * Returns the ray trace this projectile casts from {@link #getLocation()}
+     * to {@link #getPredictedLocation()} during its next tick, so the
+     * {@link ProjectilesRunnable} can {@link RayTrace#prepare prepare} it on
+     * another thread. Override this for projectiles which collide using a
+     * ray trace.
+     *
+     * @return the ray trace, or null if it can't be prepared
+     */
+    @Nullable
+    public RayTrace getRayTrace() {
+        return null;
+    }
+
+    /**
+     * Returns where this projectile will try to move during its next tick,
+     * assuming nothing changes its motion before then. This uses the same
+     * gravity and drag calculations as {@link #tick()}.
+     *
+     * @return the predicted location
+     */
+    public Vector getPredictedLocation() {
+        Vector next = motion.clone();
+        double gravity = getGravity();
+        if (gravity != 0) {
+            next.setY(next.getY() - gravity);
+        }
+        return location.clone().add(next.multiply(getDrag()));
+    }
+
+    /**
+     * @return the number of ticks this projectile still has to catch up on
+     */
+    public int getDeferredTicks() {
+        return deferredTicks;
+    }
+
     /**
      * @return the disguise of projectile, or null if not used
      */
@@ -480,22 +545,29 @@ public abstract class AProjectile {
     }
 
     protected void scriptEvent(Consumer<ProjectileScript<?>> consumer) {
-        Iterator<ProjectileScript<?>> iterator = scripts.iterator();
+        if (scripts.isEmpty())
+            return;
+
         boolean removeProjectile = false;
 
-        while (iterator.hasNext()) {
-            ProjectileScript<?> script = iterator.next();
+        // Compact the list in place while iterating, so removing scripts
+        // doesn't shift the remaining scripts once per removal.
+        int write = 0;
+        for (int read = 0; read < scripts.size(); read++) {
+            ProjectileScript<?> script = scripts.get(read);
 
             // Remove the script if the script has requested to be removed.
-            if (script.isRemoveScript()) {
-                iterator.remove();
+            if (script.isRemoveScript())
                 continue;
-            }
 
             consumer.accept(script);
             removeProjectile |= script.isRemoveProjectile();
+            scripts.set(write++, script);
         }
 
+        for (int i = scripts.size() - 1; i >= write; i--)
+            scripts.remove(i);
+
         if (removeProjectile)
             remove();
     }
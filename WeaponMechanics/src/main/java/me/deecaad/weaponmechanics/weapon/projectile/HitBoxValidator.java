@@ -6,6 +6,7 @@ import me.deecaad.core.file.SerializeData;
 import me.deecaad.core.file.SerializerException;
 import me.deecaad.core.utils.LogLevel;
 import me.deecaad.weaponmechanics.weapon.damage.DamagePoint;
+import me.deecaad.weaponmechanics.weapon.damage.HitboxProfile;
 import org.bukkit.entity.EntityType;
 
 import static me.deecaad.weaponmechanics.WeaponMechanics.debug;
@@ -61,6 +62,8 @@ public class HitBoxValidator implements IValidator {
                 putDefaults(configuration, entityType);
             }
         }
+
+        HitboxProfile.load(configuration);
     }
 
     /**
@@ -0,0 +1,145 @@
+package me.deecaad.weaponmechanics.weapon.projectile;
+
+/**
+ * Counters about the projectiles ticked by a {@link ProjectilesRunnable}.
+ * These values are only written by the main server thread, so reading them
+ * from another thread may give slightly outdated values.
+ */
+public class ProjectileMetrics {
+
+    // Smoothing factor for the average tick time, roughly 1 second of ticks
+    private static final double ALPHA = 1.0 / 20.0;
+
+    private int liveCount;
+    private long totalSpawned;
+    private long totalRemoved;
+    private int spawnedLastTick;
+    private int removedLastTick;
+    private long lastTickNanos;
+    private double averageTickNanos;
+    private int deferredLastTick;
+    private long totalDeferred;
+    private long ticksOverBudget;
+
+    // Counted during the current tick, moved to the *LastTick fields at the end
+    private int spawnedThisTick;
+    private int removedThisTick;
+    private int deferredThisTick;
+
+    void onSpawn() {
+        spawnedThisTick++;
+        totalSpawned++;
+    }
+
+    void onRemove() {
+        removedThisTick++;
+        totalRemoved++;
+    }
+
+    void onDefer() {
+        deferredThisTick++;
+        totalDeferred++;
+    }
+
+    void onTickEnd(int liveCount, long tickNanos) {
+        this.liveCount = liveCount;
+        this.lastTickNanos = tickNanos;
+        this.averageTickNanos = averageTickNanos == 0.0 ? tickNanos : averageTickNanos + ALPHA * (tickNanos - averageTickNanos);
+
+        spawnedLastTick = spawnedThisTick;
+        removedLastTick = removedThisTick;
+        spawnedThisTick = 0;
+        removedThisTick = 0;
+
+        if (deferredThisTick > 0)
+            ticksOverBudget++;
+        deferredLastTick = deferredThisTick;
+        deferredThisTick = 0;
+    }
+
+    /**
+     * @return the number of projectiles alive after the last tick
+     */
+    public int getLiveCount() {
+        return liveCount;
+    }
+
+    /**
+     * @return the number of projectiles added since the runnable was created
+     */
+    public long getTotalSpawned() {
+        return totalSpawned;
+    }
+
+    /**
+     * @return the number of projectiles removed since the runnable was created
+     */
+    public long getTotalRemoved() {
+        return totalRemoved;
+    }
+
+    /**
+     * @return the number of projectiles added during the last tick
+     */
+    public int getSpawnedLastTick() {
+        return spawnedLastTick;
+    }
+
+    /**
+     * @return the number of projectiles removed during the last tick
+     */
+    public int getRemovedLastTick() {
+        return removedLastTick;
+    }
+
+    /**
+     * @return the nanoseconds it took to tick every projectile last tick
+     */
+    public long getLastTickNanos() {
+        return lastTickNanos;
+    }
+
+    /**
+     * @return the smoothed average of {@link #getLastTickNanos()}
+     */
+    public double getAverageTickNanos() {
+        return averageTickNanos;
+    }
+
+    /**
+     * @return the number of projectiles moved to the next tick during the last tick
+     */
+    public int getDeferredLastTick() {
+        return deferredLastTick;
+    }
+
+    /**
+     * @return the number of times a projectile was moved to the next tick
+     */
+    public long getTotalDeferred() {
+        return totalDeferred;
+    }
+
+    /**
+     * @return the number of ticks which ran out of their tick budget
+     */
+    public long getTicksOverBudget() {
+        return ticksOverBudget;
+    }
+
+    @Override
+    public String toString() {
+        return "ProjectileMetrics{" +
+                "liveCount=" + liveCount +
+                ", totalSpawned=" + totalSpawned +
+                ", totalRemoved=" + totalRemoved +
+                ", spawnedLastTick=" + spawnedLastTick +
+                ", removedLastTick=" + removedLastTick +
+                ", lastTickNanos=" + lastTickNanos +
+                ", averageTickNanos=" + averageTickNanos +
+                ", deferredLastTick=" + deferredLastTick +
+                ", totalDeferred=" + totalDeferred +
+                ", ticksOverBudget=" + ticksOverBudget +
+                '}';
+    }
+}
@@ -1,17 +1,31 @@
 package me.deecaad.weaponmechanics.weapon.projectile;
 
 import me.deecaad.core.utils.LogLevel;
+import me.deecaad.core.utils.ReflectionUtil;
+import me.deecaad.core.utils.ray.EntitySpatialIndex;
+import me.deecaad.core.utils.ray.RayTrace;
+import me.deecaad.core.utils.ray.WorldSnapshot;
 import me.deecaad.weaponmechanics.WeaponMechanics;
 import org.bukkit.Bukkit;
+import org.bukkit.World;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.util.Vector;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
 import static me.deecaad.weaponmechanics.WeaponMechanics.debug;
 
@@ -19,14 +33,52 @@ import static me.deecaad.weaponmechanics.WeaponMechanics.debug;
  * This class is run once for every Minecraft Server tick (ideally 20 ticks per
  * second). This class stores the entities we need to tick, and the methods of
  * this class are thread safe. The order in which the projectiles are ticked
- * is undefined, but every projectile is guaranteed to tick once for every MC
- * server tick.
+ * is undefined. Every projectile ticks once for every MC server tick, unless
+ * the {@link #setTickBudget(long) tick budget} runs out. Then the remaining
+ * projectiles are ticked during the next tick, and catch up on the ticks they
+ * missed. {@link AProjectile#isHitscan() Hitscan} projectiles are ticked
+ * until they die as soon as they are added, so they usually never enter the
+ * list of ticked projectiles.
+ *
+ * <p>When {@link #setParallelTracing(int, int) parallel tracing} is enabled,
+ * each tick starts by copying the chunk sections projectiles will fly
+ * through. Then worker threads walk through the blocks of every projectile's
+ * next move, and the projectiles are ticked on the main thread like usual.
+ * Their ray traces only check the blocks the workers found, instead of every
+ * block along the way. Blocks which gain a hit box later in the same tick
+ * (for example, placed by a listener) are missed by those ray traces.
  */
 public class ProjectilesRunnable extends BukkitRunnable {
 
-    private final LinkedList<AProjectile> projectiles;
-    private final LinkedBlockingQueue<AProjectile> asyncProjectiles;
+    // The most ticks a deferred projectile may run during 1 server tick, so
+    // catching up doesn't cause the next tick to run out of time, too.
+    private static final int MAX_CATCH_UP_STEPS = 4;
+
+    // Projectiles which have been deferred this many times are always ticked,
+    // so they can't be starved by a tick that is constantly over budget.
+    private static final int MAX_DEFERRED_TICKS = 20;
+
+    // Projectiles are stored in a flat array, and removed by swapping the
+    // last projectile into the removed index. Iteration order is undefined.
+    private AProjectile[] projectiles;
+    private int size;
+
+    // While ticking, only indices below tickEnd are ticked. Projectiles added
+    // during the tick (e.g. cluster bombs) are appended after tickEnd, since
+    // they have already been ticked once by tickOnAdd.
+    private boolean ticking;
+    private int tickEnd;
+
+    private final Queue<AProjectile> asyncProjectiles;
     private final List<ProjectileScriptManager> managers;
+    private final ProjectileMetrics metrics;
+
+    // 0 means that every projectile is ticked no matter how long it takes
+    private long tickBudgetNanos;
+
+    // Worker threads which prepare ray traces, null when disabled
+    private ForkJoinPool tracePool;
+    private int minimumParallelProjectiles;
 
     /**
      * Initializes and registers this runnable. This runnable can be cancelled
@@ -40,9 +92,10 @@ public class ProjectilesRunnable extends BukkitRunnable {
      * @param plugin The non-null plugin
      */
     public ProjectilesRunnable(Plugin plugin) {
-        projectiles = new LinkedList<>();
-        asyncProjectiles = new LinkedBlockingQueue<>();
+        projectiles = new AProjectile[64];
+        asyncProjectiles = new ConcurrentLinkedQueue<>();
         managers = new LinkedList<>();
+        metrics = new ProjectileMetrics();
 
         runTaskTimer(plugin, 0, 0);
     }
@@ -51,6 +104,73 @@ public class ProjectilesRunnable extends BukkitRunnable {
         managers.add(manager);
     }
 
+    /**
+     * Returns the counters of this runnable, like the number of live
+     * projectiles and how long the last tick took.
+     *
+     * @return The non-null metrics.
+     */
+    @NotNull
+    public ProjectileMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return the nanoseconds projectiles may use each tick, or 0 for no limit
+     */
+    public long getTickBudget() {
+        return tickBudgetNanos;
+    }
+
+    /**
+     * Sets how many nanoseconds projectiles may use each tick. Projectiles
+     * which don't fit in the budget are ticked during the next tick instead,
+     * and catch up by ticking multiple times. {@link AProjectile#isCosmetic()}
+     * projectiles are deferred once half the budget has been used.
+     *
+     * @param tickBudgetNanos The budget in nanoseconds, or 0 for no limit.
+     */
+    public void setTickBudget(long tickBudgetNanos) {
+        if (tickBudgetNanos < 0)
+            throw new IllegalArgumentException("Tick budget cannot be negative: " + tickBudgetNanos);
+
+        this.tickBudgetNanos = tickBudgetNanos;
+    }
+
+    /**
+     * Sets how many worker threads prepare the ray traces of projectiles.
+     * Ray traces are only prepared during ticks with at least
+     * <code>minimumProjectiles</code> projectiles, since copying sections costs
+     * more than it saves when there are only a few projectiles.
+     *
+     * @param threads            The number of threads, or 0 to disable.
+     * @param minimumProjectiles The fewest projectiles to prepare ray traces for.
+     */
+    public void setParallelTracing(int threads, int minimumProjectiles) {
+        if (tracePool != null) {
+            tracePool.shutdownNow();
+            tracePool = null;
+        }
+
+        // Chunk sections can only be copied in 1.18+
+        if (threads > 0 && ReflectionUtil.getMCVersion() < 18) {
+            debug.warn("Parallel projectile tracing needs 1.18+, disabling it");
+            threads = 0;
+        }
+
+        WorldSnapshot.setLearning(threads > 0);
+        if (threads <= 0)
+            return;
+
+        minimumParallelProjectiles = minimumProjectiles;
+        tracePool = new ForkJoinPool(threads, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("WeaponMechanics-Projectile-Trace-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
     /**
      * Adds the given projectiles to be ticked. Projectile is instantly
      * ticked once. On async call ticking starts during the next tick.
@@ -93,18 +213,29 @@ public class ProjectilesRunnable extends BukkitRunnable {
     }
 
     private void tickOnAdd(@NotNull AProjectile projectile) {
+        metrics.onSpawn();
         for (ProjectileScriptManager manager : managers) {
             manager.attach(projectile);
         }
         try {
-            if (projectile.tick()) {
+            // Hitscan projectiles resolve their whole flight right away.
+            // tick() returns true once the maximum alive ticks are reached,
+            // so this loop always ends.
+            boolean remove;
+            do {
+                remove = projectile.tick();
+            } while (!remove && projectile.isHitscan());
+
+            if (remove) {
 
                 // Call the remove method of projectile
                 projectile.remove();
+                metrics.onRemove();
                 return;
             }
         } catch (Exception e) {
             projectile.remove();
+            metrics.onRemove();
             debug.log(LogLevel.WARN, "Unhandled exception while ticking projectile! Removing projectile");
             debug.log(LogLevel.WARN, "Removed Projectile: " + projectile, e);
             return;
@@ -112,7 +243,31 @@ public class ProjectilesRunnable extends BukkitRunnable {
 
         // Since code reached this point, projectile didn't hit anything instantly
         // -> Add to the normal runnable
-        this.projectiles.add(projectile);
+        append(projectile);
+    }
+
+    private void append(AProjectile projectile) {
+        if (size == projectiles.length)
+            projectiles = Arrays.copyOf(projectiles, size * 2);
+
+        projectiles[size++] = projectile;
+    }
+
+    /**
+     * Removes the projectile at the given index by moving the last ticked
+     * projectile into its place (and the last projectile into that place).
+     * The projectile now at <code>index</code> has not been ticked yet.
+     */
+    private void swapRemove(int index) {
+        int last = --size;
+        if (ticking) {
+            projectiles[index] = projectiles[--tickEnd];
+            projectiles[tickEnd] = projectiles[last];
+        } else {
+            projectiles[index] = projectiles[last];
+        }
+        projectiles[last] = null;
+        metrics.onRemove();
     }
 
     /**
@@ -125,33 +280,160 @@ public class ProjectilesRunnable extends BukkitRunnable {
         if (!Bukkit.getServer().isPrimaryThread())
             throw new IllegalStateException("Cannot tick projectiles asynchronously!");
 
+        long start = System.nanoTime();
+
+        // Entities don't move while projectiles are ticked, so ray traces and
+        // explosions can share an EntitySpatialIndex until the tick is done
+        EntitySpatialIndex.beginPhase();
+        try {
+            tickProjectiles(start);
+        } finally {
+            EntitySpatialIndex.endPhase();
+        }
+
+        metrics.onTickEnd(size, System.nanoTime() - start);
+    }
+
+    private void tickProjectiles(long start) {
+
         // Clears the async projectiles WHILE adding them to the normal projectiles
-        while (!asyncProjectiles.isEmpty()) {
-            AProjectile asyncProjectile = asyncProjectiles.remove();
-            projectiles.add(asyncProjectile);
+        AProjectile asyncProjectile;
+        while ((asyncProjectile = asyncProjectiles.poll()) != null) {
+            if (asyncProjectile.isDead()) continue;
+
+            if (asyncProjectile.isHitscan()) {
+                tickOnAdd(asyncProjectile);
+                continue;
+            }
+
+            append(asyncProjectile);
+            metrics.onSpawn();
 
             for (ProjectileScriptManager manager : managers)
                 manager.attach(asyncProjectile);
         }
 
-        Iterator<AProjectile> projectilesIterator = projectiles.iterator();
+        if (tracePool != null && size >= minimumParallelProjectiles)
+            prepareRayTraces();
 
-        while (projectilesIterator.hasNext()) {
-            AProjectile projectile = projectilesIterator.next();
-            try {
-                if (projectile.tick()) {
+        long budget = tickBudgetNanos;
+        long cosmeticBudget = budget / 2;
+
+        // Deferred projectiles are swapped to the front of the array, so they
+        // are the first projectiles to be ticked during the next tick.
+        int deferredEnd = 0;
+
+        ticking = true;
+        tickEnd = size;
+        try {
+            int i = 0;
+            while (i < tickEnd) {
+                AProjectile projectile = projectiles[i];
 
-                    // Call the remove method of projectile
-                    projectile.remove();
+                if (budget != 0 && projectile.deferredTicks < MAX_DEFERRED_TICKS) {
+                    long elapsed = System.nanoTime() - start;
+                    if (elapsed > budget || (elapsed > cosmeticBudget && projectile.isCosmetic())) {
+                        projectile.deferredTicks++;
+                        metrics.onDefer();
 
-                    // Remove the projectile from runnable
-                    projectilesIterator.remove();
+                        projectiles[i] = projectiles[deferredEnd];
+                        projectiles[deferredEnd++] = projectile;
+                        i++;
+                        continue;
+                    }
                 }
-            } catch (Exception e) {
-                projectilesIterator.remove();
-                debug.log(LogLevel.WARN, "Unhandled exception while ticking projectiles! Removing projectile");
-                debug.log(LogLevel.WARN, "Removed Projectile: " + projectile, e);
+
+                try {
+                    if (tickWithCatchUp(projectile)) {
+
+                        // Call the remove method of projectile
+                        projectile.remove();
+
+                        // Remove the projectile from runnable, the swapped in
+                        // projectile is ticked next (so don't increment i)
+                        swapRemove(i);
+                        continue;
+                    }
+                } catch (Exception e) {
+                    swapRemove(i);
+                    debug.log(LogLevel.WARN, "Unhandled exception while ticking projectiles! Removing projectile");
+                    debug.log(LogLevel.WARN, "Removed Projectile: " + projectile, e);
+                    continue;
+                }
+                i++;
             }
+        } finally {
+            ticking = false;
+        }
+    }
+
+    /**
+     * Prepares the ray trace of every projectile's next move on the worker
+     * threads. Projectiles whose motion changes before they are ticked (for
+     * example, from a script) simply cast without the prepared blocks.
+     */
+    private void prepareRayTraces() {
+        int count = 0;
+        RayTrace[] rayTraces = new RayTrace[size];
+        WorldSnapshot[] snapshots = new WorldSnapshot[size];
+        Vector[] starts = new Vector[size];
+        Vector[] ends = new Vector[size];
+
+        // Step 1, on the main thread: find where each projectile will move,
+        // and copy the chunk sections it will pass through
+        Map<World, WorldSnapshot> worlds = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            AProjectile projectile = projectiles[i];
+            RayTrace rayTrace = projectile.getRayTrace();
+            if (rayTrace == null || projectile.isDead())
+                continue;
+
+            Vector start = projectile.getLocation();
+            Vector end = projectile.getPredictedLocation();
+            WorldSnapshot snapshot = worlds.computeIfAbsent(projectile.getWorld(), WorldSnapshot::new);
+            if (!snapshot.addSegment(start, end))
+                continue;
+
+            rayTraces[count] = rayTrace;
+            snapshots[count] = snapshot;
+            starts[count] = start;
+            ends[count] = end;
+            count++;
+        }
+
+        // Step 2, on the worker threads: walk through the blocks. This blocks
+        // until every ray trace is prepared, so none are cast at the same time
+        int prepared = count;
+        AtomicInteger failures = new AtomicInteger();
+        tracePool.invoke(ForkJoinTask.adapt(() -> IntStream.range(0, prepared).parallel().forEach(j -> {
+            try {
+                rayTraces[j].prepare(snapshots[j], starts[j], ends[j]);
+            } catch (Throwable ex) {
+                failures.incrementAndGet();
+            }
+        })));
+
+        if (failures.get() != 0)
+            debug.debug("Failed to prepare " + failures.get() + " projectile ray traces, casting them on the main thread");
+
+        // Step 3, back on the main thread: ticking the projectiles casts the
+        // prepared ray traces, and handles hits in the usual order
+    }
+
+    /**
+     * Ticks the projectile once, plus (some of) the ticks it missed due to
+     * the tick budget.
+     *
+     * @return true if the projectile should be removed
+     */
+    private boolean tickWithCatchUp(AProjectile projectile) {
+        int steps = 1 + Math.min(projectile.deferredTicks, MAX_CATCH_UP_STEPS - 1);
+        projectile.deferredTicks -= steps - 1;
+
+        for (int step = 0; step < steps; step++) {
+            if (projectile.tick())
+                return true;
         }
+        return false;
     }
 }
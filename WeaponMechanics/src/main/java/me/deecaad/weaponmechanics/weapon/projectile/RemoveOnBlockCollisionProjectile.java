@@ -17,7 +17,7 @@ import java.util.List;
  */
 public class RemoveOnBlockCollisionProjectile extends AProjectile {
 
-    private static final RayTrace rayTrace = new RayTrace().disableEntityChecks();
+    private static final RayTrace rayTrace = new RayTrace().disableEntityChecks().withReusedHits();
 
     public RemoveOnBlockCollisionProjectile(Location location, Vector motion) {
         this(location, motion, null);
@@ -28,6 +28,11 @@ public class RemoveOnBlockCollisionProjectile extends AProjectile {
         if (disguise != null) spawnDisguise(disguise);
     }
 
+    @Override
+    public boolean isCosmetic() {
+        return true;
+    }
+
     @Override
     public boolean updatePosition() {
         Vector possibleNextLocation = getLocation().add(getMotion());
@@ -8,6 +8,7 @@ import me.deecaad.core.file.SerializerException;
 import me.deecaad.core.mechanics.CastData;
 import me.deecaad.core.mechanics.Mechanics;
 import me.deecaad.weaponmechanics.WeaponMechanics;
+import me.deecaad.weaponmechanics.weapon.WeaponDefinition;
 import me.deecaad.weaponmechanics.weapon.explode.Explosion;
 import me.deecaad.weaponmechanics.weapon.explode.ExplosionTrigger;
 import org.bukkit.Location;
@@ -20,8 +21,6 @@ import org.jetbrains.annotations.NotNull;
 
 import javax.annotation.Nonnull;
 
-import static me.deecaad.weaponmechanics.WeaponMechanics.getConfigurations;
-
 public class Projectile implements Serializer<Projectile> {
 
     private ProjectileSettings projectileSettings;
@@ -70,8 +69,10 @@ public class Projectile implements Serializer<Projectile> {
             mechanics.use(cast);
         }
 
+        // Hitscan projectiles die during this tick, so a disguise would only
+        // be spawned to be removed again
         EntityType type = projectileSettings.getProjectileDisguise();
-        if (type != null) {
+        if (type != null && !projectileSettings.isHitscan()) {
 
             FakeEntity fakeEntity;
             Object data = projectileSettings.getDisguiseData();
@@ -98,7 +99,8 @@ public class Projectile implements Serializer<Projectile> {
         }
 
         // Handle explosions
-        Explosion explosion = getConfigurations().getObject(projectile.getWeaponTitle() + ".Explosion", Explosion.class);
+        WeaponDefinition weapon = projectile.getWeaponDefinition();
+        Explosion explosion = weapon == null ? null : weapon.getExplosion();
         if (explosion != null) explosion.handleExplosion(projectile.getShooter(), projectile, ExplosionTrigger.SPAWN);
 
         WeaponMechanics.getProjectilesRunnable().addProjectile(projectile);
@@ -4,6 +4,7 @@ import me.deecaad.core.file.SerializeData;
 import me.deecaad.core.file.Serializer;
 import me.deecaad.core.file.SerializerException;
 import me.deecaad.core.file.serializers.ItemSerializer;
+import me.deecaad.core.mechanics.Mechanics;
 import me.deecaad.core.utils.ReflectionUtil;
 import org.bukkit.entity.EntityType;
 import org.bukkit.inventory.ItemStack;
@@ -34,6 +35,10 @@ public class ProjectileSettings implements Serializer<ProjectileSettings>, Clone
     private double maximumTravelDistance;
     private double size;
 
+    private boolean hitscan;
+    private Mechanics hitscanTracer;
+    private double hitscanTracerSpacing;
+
     /**
      * Empty constructor to be used as serializer
      */
@@ -44,6 +49,16 @@ public class ProjectileSettings implements Serializer<ProjectileSettings>, Clone
                               boolean removeAtMinimumSpeed, double minimumSpeed, boolean removeAtMaximumSpeed, double maximumSpeed,
                               double decrease, double decreaseInWater, double decreaseWhenRainingOrSnowing, boolean disableEntityCollisions,
                               int maximumAliveTicks, double maximumTravelDistance, double size) {
+        this(projectileDisguise, disguiseData, gravity, removeAtMinimumSpeed, minimumSpeed, removeAtMaximumSpeed, maximumSpeed,
+                decrease, decreaseInWater, decreaseWhenRainingOrSnowing, disableEntityCollisions, maximumAliveTicks,
+                maximumTravelDistance, size, false, null, 0.5);
+    }
+
+    public ProjectileSettings(EntityType projectileDisguise, Object disguiseData, double gravity,
+                              boolean removeAtMinimumSpeed, double minimumSpeed, boolean removeAtMaximumSpeed, double maximumSpeed,
+                              double decrease, double decreaseInWater, double decreaseWhenRainingOrSnowing, boolean disableEntityCollisions,
+                              int maximumAliveTicks, double maximumTravelDistance, double size,
+                              boolean hitscan, Mechanics hitscanTracer, double hitscanTracerSpacing) {
         this.projectileDisguise = projectileDisguise;
         this.disguiseData = disguiseData;
         this.gravity = gravity;
@@ -58,6 +73,9 @@ public class ProjectileSettings implements Serializer<ProjectileSettings>, Clone
         this.maximumAliveTicks = maximumAliveTicks;
         this.maximumTravelDistance = maximumTravelDistance;
         this.size = size;
+        this.hitscan = hitscan;
+        this.hitscanTracer = hitscanTracer;
+        this.hitscanTracerSpacing = hitscanTracerSpacing;
     }
 
     /**
@@ -221,6 +239,44 @@ public class ProjectileSettings implements Serializer<ProjectileSettings>, Clone
         this.size = size;
     }
 
+    /**
+     * Hitscan projectiles resolve their whole flight on the tick they are
+     * shot, instead of moving once per tick. They still use gravity, drag,
+     * through, bouncy and sticky, but are never disguised.
+     *
+     * @return whether this projectile is hitscan
+     */
+    public boolean isHitscan() {
+        return hitscan;
+    }
+
+    public void setHitscan(boolean hitscan) {
+        this.hitscan = hitscan;
+    }
+
+    /**
+     * @return the mechanics used to draw the path of hitscan projectiles, or null if not used
+     */
+    @Nullable
+    public Mechanics getHitscanTracer() {
+        return hitscanTracer;
+    }
+
+    public void setHitscanTracer(Mechanics hitscanTracer) {
+        this.hitscanTracer = hitscanTracer;
+    }
+
+    /**
+     * @return the distance between each point of the hitscan tracer
+     */
+    public double getHitscanTracerSpacing() {
+        return hitscanTracerSpacing;
+    }
+
+    public void setHitscanTracerSpacing(double hitscanTracerSpacing) {
+        this.hitscanTracerSpacing = hitscanTracerSpacing;
+    }
+
     @Override
     public String getKeyword() {
         return "Projectile_Settings";
@@ -288,9 +344,14 @@ public class ProjectileSettings implements Serializer<ProjectileSettings>, Clone
         double maximumTravelDistance = data.of("Maximum_Travel_Distance").assertPositive().getDouble(-1);
         double size = data.of("Size").assertPositive().getDouble(0.1);
 
+        boolean hitscan = data.of("Hitscan.Enabled").getBool(false);
+        Mechanics hitscanTracer = data.of("Hitscan.Tracer").serialize(Mechanics.class);
+        double hitscanTracerSpacing = data.of("Hitscan.Tracer_Spacing").assertRange(0.05, 16.0).getDouble(0.5);
+
         return new ProjectileSettings(projectileType, disguiseData, gravity, removeAtMinimumSpeed, minimumSpeed,
                 removeAtMaximumSpeed, maximumSpeed, decrease, decreaseInWater, decreaseWhenRainingOrSnowing,
-                disableEntityCollisions, maximumAliveTicks, maximumTravelDistance, size);
+                disableEntityCollisions, maximumAliveTicks, maximumTravelDistance, size,
+                hitscan, hitscanTracer, hitscanTracerSpacing);
     }
 
     @Override
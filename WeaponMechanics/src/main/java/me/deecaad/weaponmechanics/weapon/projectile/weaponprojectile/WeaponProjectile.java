@@ -1,10 +1,13 @@
 package me.deecaad.weaponmechanics.weapon.projectile.weaponprojectile;
 
+import me.deecaad.core.mechanics.CastData;
+import me.deecaad.core.mechanics.Mechanics;
 import me.deecaad.core.utils.ray.BlockTraceResult;
 import me.deecaad.core.utils.ray.EntityTraceResult;
 import me.deecaad.core.utils.ray.RayTrace;
 import me.deecaad.core.utils.ray.RayTraceResult;
 import me.deecaad.weaponmechanics.WeaponMechanics;
+import me.deecaad.weaponmechanics.weapon.WeaponDefinition;
 import me.deecaad.weaponmechanics.weapon.projectile.AProjectile;
 import me.deecaad.weaponmechanics.weapon.weaponevents.ProjectileEndEvent;
 import org.bukkit.Bukkit;
@@ -35,6 +38,7 @@ public class WeaponProjectile extends AProjectile {
 
     private final ItemStack weaponStack;
     private final String weaponTitle;
+    private final int weaponId;
     private final EquipmentSlot hand;
 
     private StickedData stickedData;
@@ -65,11 +69,15 @@ public class WeaponProjectile extends AProjectile {
         this.weaponTitle = weaponTitle;
         this.hand = hand;
 
+        WeaponDefinition definition = WeaponMechanics.getWeaponHandler().getInfoHandler().getWeaponDefinition(weaponTitle);
+        this.weaponId = definition == null ? -1 : definition.getId();
+
         if (projectileSettings.isDisableEntityCollisions()) {
             this.rayTrace = new RayTrace()
                     .withBlockFilter(this::equalToLastHit)
                     .disableEntityChecks()
                     .enableLiquidChecks()
+                    .withReusedHits()
                     .withRaySize(projectileSettings.getSize());
         } else {
             this.rayTrace = new RayTrace()
@@ -78,6 +86,7 @@ public class WeaponProjectile extends AProjectile {
                                     || (getShooter() != null && getAliveTicks() < 10 && entity.getEntityId() == getShooter().getEntityId())
                                     || entity.getPassengers().contains(getShooter()))
                     .enableLiquidChecks()
+                    .withReusedHits()
                     .withRaySize(projectileSettings.getSize());
         }
     }
@@ -230,6 +239,51 @@ public class WeaponProjectile extends AProjectile {
         return projectileSettings.getMaximumAliveTicks();
     }
 
+    @Override
+    public boolean isHitscan() {
+        return projectileSettings.isHitscan() && stickedData == null && !rolling;
+    }
+
+    @Override
+    public boolean tick() {
+        Mechanics tracer = projectileSettings.getHitscanTracer();
+        if (tracer == null || getShooter() == null || !isHitscan())
+            return super.tick();
+
+        Vector from = getLocation();
+        boolean remove = super.tick();
+        drawTracer(tracer, from, getLocation());
+        return remove;
+    }
+
+    /**
+     * Casts the tracer mechanics at points along the line between the given
+     * locations. Since hitscan projectiles resolve every tick at once, each
+     * tick's line is drawn immediately after the previous one.
+     */
+    private void drawTracer(Mechanics tracer, Vector from, Vector to) {
+        Vector step = to.subtract(from);
+        double length = step.length();
+        if (length < Vector.getEpsilon())
+            return;
+
+        double spacing = projectileSettings.getHitscanTracerSpacing();
+        step.multiply(spacing / length);
+
+        for (double distance = 0.0; distance < length; distance += spacing) {
+            CastData cast = new CastData(getShooter(), weaponTitle, weaponStack);
+            cast.setTargetLocation(from.toLocation(getWorld()));
+            tracer.use(cast);
+            from.add(step);
+        }
+    }
+
+    @Override
+    public @Nullable RayTrace getRayTrace() {
+        // Sticked projectiles don't ray trace
+        return stickedData == null ? rayTrace : null;
+    }
+
     public boolean hasTravelledMaximumDistance() {
         double maximum = projectileSettings.getMaximumTravelDistance();
         return maximum != -1 && getDistanceTravelled() >= maximum;
@@ -252,6 +306,26 @@ public class WeaponProjectile extends AProjectile {
         return weaponTitle;
     }
 
+    /**
+     * Returns the interned id of the weapon used to shoot this projectile, or
+     * -1 if this projectile was not shot by a registered weapon.
+     *
+     * @return the weapon id
+     */
+    public int getWeaponId() {
+        return weaponId;
+    }
+
+    /**
+     * Can be null through API
+     *
+     * @return the compiled definition of the weapon used to shoot this projectile
+     */
+    @Nullable
+    public WeaponDefinition getWeaponDefinition() {
+        return WeaponMechanics.getWeaponHandler().getInfoHandler().getWeaponDefinition(weaponId);
+    }
+
     /**
      * Can be null through API
      *
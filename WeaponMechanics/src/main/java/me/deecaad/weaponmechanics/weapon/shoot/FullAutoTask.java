@@ -1,7 +1,7 @@
 package me.deecaad.weaponmechanics.weapon.shoot;
 
-import me.deecaad.weaponmechanics.WeaponMechanics;
 import me.deecaad.weaponmechanics.utils.CustomTag;
+import me.deecaad.weaponmechanics.weapon.WeaponDefinition;
 import me.deecaad.weaponmechanics.weapon.WeaponHandler;
 import me.deecaad.weaponmechanics.weapon.trigger.Trigger;
 import me.deecaad.weaponmechanics.weapon.trigger.TriggerType;
@@ -12,8 +12,6 @@ import org.bukkit.inventory.EquipmentSlot;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.scheduler.BukkitRunnable;
 
-import static me.deecaad.weaponmechanics.WeaponMechanics.getConfigurations;
-
 /**
  * This task handles firing projectiles every <code>N</code> ticks. 1 of these
  * tasks is created every time you start firing a fully automatic weapon. The
@@ -80,6 +78,7 @@ public class FullAutoTask extends BukkitRunnable {
     private final TriggerType triggerType;
     private final boolean dualWield;
     private final HandData handData;
+    private final WeaponDefinition weapon;
     private final String weaponTitle;
     private final ItemStack weaponStack;
     private int rate; // A number 1-20, the number of shots per second
@@ -88,27 +87,30 @@ public class FullAutoTask extends BukkitRunnable {
     // Values from config
     private final Trigger trigger;
     private final boolean consumeItemOnShoot;
+    private final boolean destroyWhenEmpty;
     private final int ammoPerShot;
 
     // Updated in the run() method
     private int currentTick;
 
-    public FullAutoTask(WeaponHandler weaponHandler, EntityWrapper entityWrapper, String weaponTitle, ItemStack weaponStack, boolean mainHand, TriggerType triggerType, boolean dualWield, int shotsPerSecond) {
+    public FullAutoTask(WeaponHandler weaponHandler, EntityWrapper entityWrapper, WeaponDefinition weapon, ItemStack weaponStack, boolean mainHand, TriggerType triggerType, boolean dualWield, int shotsPerSecond) {
         this.weaponHandler = weaponHandler;
         this.entityWrapper = entityWrapper;
         this.mainHand = mainHand;
         this.triggerType = triggerType;
         this.dualWield = dualWield;
         this.handData = entityWrapper.getHandData(mainHand);
-        this.weaponTitle = weaponTitle;
+        this.weapon = weapon;
+        this.weaponTitle = weapon.getWeaponTitle();
         this.weaponStack = weaponStack;
 
         this.rate = shotsPerSecond % 20;
         this.perShot = shotsPerSecond / 20;
 
-        trigger = getConfigurations().getObject(weaponTitle + ".Shoot.Trigger", Trigger.class);
-        consumeItemOnShoot = getConfigurations().getBool(weaponTitle + ".Shoot.Consume_Item_On_Shoot");
-        ammoPerShot = getConfigurations().getInt(weaponTitle + ".Shoot.Ammo_Per_Shot", 1);
+        trigger = weapon.getShootTrigger();
+        consumeItemOnShoot = weapon.isConsumeItemOnShoot();
+        destroyWhenEmpty = weapon.isDestroyWhenEmpty();
+        ammoPerShot = weapon.getAmmoPerShot();
     }
 
     public EntityWrapper getEntityWrapper() {
@@ -119,6 +121,10 @@ public class FullAutoTask extends BukkitRunnable {
         return handData;
     }
 
+    public WeaponDefinition getWeapon() {
+        return weapon;
+    }
+
     public int getRate() {
         return rate;
     }
@@ -164,16 +170,19 @@ public class FullAutoTask extends BukkitRunnable {
             return;
         }
 
+        // Ammo, durability, etc. are only decoded once this tick
+        handData.cacheWeaponState(taskReference);
         int ammoLeft = weaponHandler.getReloadHandler().getAmmoLeft(taskReference, weaponTitle);
 
         if (!weaponHandler.getShootHandler().keepFullAutoOn(entityWrapper, triggerType, trigger)) {
             handData.setFullAutoTask(null, 0);
+            handData.flushWeaponState();
             cancel();
 
             if (ammoLeft == 0) {
                 weaponHandler.getShootHandler().startReloadIfBothWeaponsEmpty(entityWrapper, weaponTitle, taskReference, mainHand ? EquipmentSlot.HAND : EquipmentSlot.OFF_HAND, dualWield, false);
             } else {
-                weaponHandler.getShootHandler().doShootFirearmActions(entityWrapper, weaponTitle, taskReference, handData, mainHand ? EquipmentSlot.HAND : EquipmentSlot.OFF_HAND);
+                weaponHandler.getShootHandler().doShootFirearmActions(entityWrapper, weapon, taskReference, handData, mainHand ? EquipmentSlot.HAND : EquipmentSlot.OFF_HAND);
             }
 
             return;
@@ -192,6 +201,7 @@ public class FullAutoTask extends BukkitRunnable {
 
             if (!weaponHandler.getReloadHandler().consumeAmmo(taskReference, weaponTitle, shootAmount * ammoPerShot)) {
                 handData.setFullAutoTask(null, 0);
+                handData.flushWeaponState();
                 cancel();
 
                 weaponHandler.getShootHandler().startReloadIfBothWeaponsEmpty(entityWrapper, weaponTitle, taskReference, mainHand ? EquipmentSlot.HAND : EquipmentSlot.OFF_HAND, dualWield, false);
@@ -200,14 +210,17 @@ public class FullAutoTask extends BukkitRunnable {
         }
         // END RELOAD STUFF
 
-        boolean destroyWhenEmpty = WeaponMechanics.getConfigurations().getBool(weaponTitle + ".Shoot.Destroy_When_Empty");
-        for (int i = 0; i < shootAmount; ++i) {
-            Location shootLocation = weaponHandler.getShootHandler().getShootLocation(entityWrapper.getEntity(), dualWield, mainHand);
-            weaponHandler.getShootHandler().shoot(entityWrapper, weaponTitle, taskReference, shootLocation, mainHand, true, false);
-            boolean consumeEmpty = destroyWhenEmpty && CustomTag.AMMO_LEFT.getInteger(weaponStack) == 0;
-            if ((consumeEmpty || consumeItemOnShoot) && weaponHandler.getShootHandler().handleConsumeItemOnShoot(weaponStack, handData)) {
-                return;
+        try {
+            for (int i = 0; i < shootAmount; ++i) {
+                Location shootLocation = weaponHandler.getShootHandler().getShootLocation(entityWrapper.getEntity(), dualWield, mainHand);
+                weaponHandler.getShootHandler().shoot(entityWrapper, weapon, taskReference, shootLocation, mainHand, true, false);
+                boolean consumeEmpty = destroyWhenEmpty && CustomTag.AMMO_LEFT.getInteger(taskReference) == 0;
+                if ((consumeEmpty || consumeItemOnShoot) && weaponHandler.getShootHandler().handleConsumeItemOnShoot(weaponStack, handData)) {
+                    return;
+                }
             }
+        } finally {
+            handData.flushWeaponState();
         }
 
         increment();
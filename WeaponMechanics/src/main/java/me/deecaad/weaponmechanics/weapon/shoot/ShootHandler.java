@@ -12,6 +12,7 @@ import me.deecaad.core.utils.NumberUtil;
 import me.deecaad.core.utils.StringUtil;
 import me.deecaad.weaponmechanics.WeaponMechanics;
 import me.deecaad.weaponmechanics.utils.CustomTag;
+import me.deecaad.weaponmechanics.weapon.WeaponDefinition;
 import me.deecaad.weaponmechanics.weapon.WeaponHandler;
 import me.deecaad.weaponmechanics.weapon.firearm.FirearmAction;
 import me.deecaad.weaponmechanics.weapon.firearm.FirearmState;
@@ -74,7 +75,9 @@ public class ShootHandler implements IValidator, TriggerListener {
             return weaponHandler.getMeleeHandler().tryUse(entityWrapper, weaponTitle, weaponStack, slot, triggerType, dualWield, knownVictim);
         }
 
-        Trigger trigger = getConfigurations().getObject(weaponTitle + ".Shoot.Trigger", Trigger.class);
+        HandData handData = slot == EquipmentSlot.HAND ? entityWrapper.getMainHandData() : entityWrapper.getOffHandData();
+        WeaponDefinition weapon = handData.getWeaponDefinition(weaponTitle);
+        Trigger trigger = weapon == null ? null : weapon.getShootTrigger();
         if (trigger == null || !trigger.check(triggerType, slot, entityWrapper)) return false;
 
         boolean result = shootWithoutTrigger(entityWrapper, weaponTitle, weaponStack, slot, triggerType, dualWield);
@@ -91,7 +94,8 @@ public class ShootHandler implements IValidator, TriggerListener {
         // Don't even try if slot is already being used for full auto or burst
         if (handData.isUsingFullAuto() || handData.isUsingBurst()) return false;
 
-        Configuration config = getConfigurations();
+        WeaponDefinition weapon = handData.getWeaponDefinition(weaponTitle);
+        if (weapon == null) return false;
 
         WeaponPreShootEvent preShootEvent = new WeaponPreShootEvent(weaponTitle, weaponStack, entityWrapper.getEntity(), slot);
         Bukkit.getPluginManager().callEvent(preShootEvent);
@@ -126,7 +130,7 @@ public class ShootHandler implements IValidator, TriggerListener {
 
         ReloadHandler reloadHandler = weaponHandler.getReloadHandler();
 
-        if (!getConfigurations().getBool(weaponTitle + ".Shoot.Consume_Item_On_Shoot")) {
+        if (!weapon.isConsumeItemOnShoot()) {
             reloadHandler.handleWeaponStackAmount(entityWrapper, weaponStack);
         }
 
@@ -144,7 +148,7 @@ public class ShootHandler implements IValidator, TriggerListener {
         }
 
         // FIREARM START
-        FirearmAction firearmAction = config.getObject(weaponTitle + ".Firearm_Action", FirearmAction.class);
+        FirearmAction firearmAction = weapon.getFirearmAction();
         if (firearmAction != null) {
             FirearmState state = firearmAction.getState(weaponStack);
             if (state != FirearmState.READY) {
@@ -157,7 +161,7 @@ public class ShootHandler implements IValidator, TriggerListener {
                     handData.stopReloadingTasks();
 
                     // Call shoot firearm actions, so they can complete firearm actions
-                    doShootFirearmActions(entityWrapper, weaponTitle, weaponStack, handData, slot);
+                    doShootFirearmActions(entityWrapper, weapon, weaponStack, handData, slot);
                 } else {
                     // Else continue to reload from where it left on...
                     startReloadIfBothWeaponsEmpty(entityWrapper, weaponTitle, weaponStack, slot, dualWield, false);
@@ -180,7 +184,7 @@ public class ShootHandler implements IValidator, TriggerListener {
 
         // RELOAD END
 
-        boolean usesSelectiveFire = config.getObject(weaponTitle + ".Shoot.Selective_Fire.Trigger", Trigger.class) != null;
+        boolean usesSelectiveFire = weapon.isUsesSelectiveFire();
         SelectiveFireState selectiveFireState = SelectiveFireState.SINGLE;
         if (usesSelectiveFire) {
             int selectiveFireStateId = CustomTag.SELECTIVE_FIRE.getInteger(weaponStack);
@@ -191,82 +195,91 @@ public class ShootHandler implements IValidator, TriggerListener {
 
         // Only check if selective fire doesn't have auto selected and it isn't melee
         if (selectiveFireState != SelectiveFireState.AUTO && !isMelee) {
-            int delayBetweenShots = config.getInt(weaponTitle + ".Shoot.Delay_Between_Shots");
+            int delayBetweenShots = weapon.getDelayBetweenShots();
             if (delayBetweenShots != 0 && !NumberUtil.hasMillisPassed(handData.getLastShotTime(), delayBetweenShots))
                 return false;
         }
 
-        int weaponEquipDelay = config.getInt(weaponTitle + ".Info.Weapon_Equip_Delay");
+        int weaponEquipDelay = weapon.getWeaponEquipDelay();
         if (weaponEquipDelay != 0 && !NumberUtil.hasMillisPassed(handData.getLastEquipTime(), weaponEquipDelay))
             return false;
 
-        int shootDelayAfterScope = config.getInt(weaponTitle + ".Scope.Shoot_Delay_After_Scope");
+        int shootDelayAfterScope = weapon.getShootDelayAfterScope();
         if (shootDelayAfterScope != 0 && !NumberUtil.hasMillisPassed(handData.getLastScopeTime(), shootDelayAfterScope))
             return false;
 
-        int shootDelayAfterReload = config.getInt(weaponTitle + ".Reload.Shoot_Delay_After_Reload");
+        int shootDelayAfterReload = weapon.getShootDelayAfterReload();
         if (shootDelayAfterReload != 0 && !NumberUtil.hasMillisPassed(handData.getLastReloadTime(), shootDelayAfterReload))
             return false;
 
         if (isMelee) {
-            return singleShot(entityWrapper, weaponTitle, weaponStack, handData, slot, dualWield, isMelee);
+            return singleShot(entityWrapper, weapon, weaponStack, handData, slot, dualWield, isMelee);
         }
 
         if (usesSelectiveFire) {
             return switch (selectiveFireState) {
-                case BURST -> burstShot(entityWrapper, weaponTitle, weaponStack, handData, slot, dualWield);
+                case BURST -> burstShot(entityWrapper, weapon, weaponStack, handData, slot, dualWield);
                 case AUTO ->
-                        fullAutoShot(entityWrapper, weaponTitle, weaponStack, handData, slot, triggerType, dualWield);
-                default -> singleShot(entityWrapper, weaponTitle, weaponStack, handData, slot, dualWield, isMelee);
+                        fullAutoShot(entityWrapper, weapon, weaponStack, handData, slot, triggerType, dualWield);
+                default -> singleShot(entityWrapper, weapon, weaponStack, handData, slot, dualWield, isMelee);
             };
         }
 
         // First try full auto, then burst, then single fire
-        return fullAutoShot(entityWrapper, weaponTitle, weaponStack, handData, slot, triggerType, dualWield)
-                || burstShot(entityWrapper, weaponTitle, weaponStack, handData, slot, dualWield)
-                || singleShot(entityWrapper, weaponTitle, weaponStack, handData, slot, dualWield, isMelee);
+        return fullAutoShot(entityWrapper, weapon, weaponStack, handData, slot, triggerType, dualWield)
+                || burstShot(entityWrapper, weapon, weaponStack, handData, slot, dualWield)
+                || singleShot(entityWrapper, weapon, weaponStack, handData, slot, dualWield, isMelee);
     }
 
-    private boolean singleShot(EntityWrapper entityWrapper, String weaponTitle, ItemStack weaponStack, HandData handData, EquipmentSlot slot, boolean dualWield, boolean isMelee) {
+    private boolean singleShot(EntityWrapper entityWrapper, WeaponDefinition weapon, ItemStack weaponStack, HandData handData, EquipmentSlot slot, boolean dualWield, boolean isMelee) {
+        String weaponTitle = weapon.getWeaponTitle();
         boolean mainhand = slot == EquipmentSlot.HAND;
-        boolean consumeItemOnShoot = getConfigurations().getBool(weaponTitle + ".Shoot.Consume_Item_On_Shoot");
-        int ammoPerShot = getConfigurations().getInt(weaponTitle + ".Shoot.Ammo_Per_Shot", 1);
+        boolean consumeItemOnShoot = weapon.isConsumeItemOnShoot();
+        int ammoPerShot = weapon.getAmmoPerShot();
 
         // START RELOAD STUFF
 
-        ReloadHandler reloadHandler = weaponHandler.getReloadHandler();
-        if (!reloadHandler.consumeAmmo(weaponStack, weaponTitle, ammoPerShot))
-            return false;
+        // Ammo, durability, etc. are only decoded once for this shot
+        handData.cacheWeaponState(weaponStack);
+        try {
+            ReloadHandler reloadHandler = weaponHandler.getReloadHandler();
+            if (!reloadHandler.consumeAmmo(weaponStack, weaponTitle, ammoPerShot))
+                return false;
 
-        // END RELOAD STUFF
+            // END RELOAD STUFF
 
-        shoot(entityWrapper, weaponTitle, weaponStack, getShootLocation(entityWrapper.getEntity(), dualWield, mainhand), mainhand, true, isMelee);
+            shoot(entityWrapper, weapon, weaponStack, getShootLocation(entityWrapper.getEntity(), dualWield, mainhand), mainhand, true, isMelee);
 
-        boolean consumeEmpty = getConfigurations().getBool(weaponTitle + ".Shoot.Destroy_When_Empty") && CustomTag.AMMO_LEFT.getInteger(weaponStack) == 0;
-        if ((consumeEmpty || consumeItemOnShoot) && handleConsumeItemOnShoot(weaponStack, mainhand ? entityWrapper.getMainHandData() : entityWrapper.getOffHandData())) {
-            return true;
+            boolean consumeEmpty = weapon.isDestroyWhenEmpty() && CustomTag.AMMO_LEFT.getInteger(weaponStack) == 0;
+            if ((consumeEmpty || consumeItemOnShoot) && handleConsumeItemOnShoot(weaponStack, mainhand ? entityWrapper.getMainHandData() : entityWrapper.getOffHandData())) {
+                return true;
+            }
+        } finally {
+            handData.flushWeaponState();
         }
 
+        ReloadHandler reloadHandler = weaponHandler.getReloadHandler();
+
         if (reloadHandler.getAmmoLeft(weaponStack, weaponTitle) == 0) {
             startReloadIfBothWeaponsEmpty(entityWrapper, weaponTitle, weaponStack, slot, dualWield, false);
         } else {
-            doShootFirearmActions(entityWrapper, weaponTitle, weaponStack, handData, slot);
+            doShootFirearmActions(entityWrapper, weapon, weaponStack, handData, slot);
         }
 
         return true;
     }
 
-    private boolean burstShot(EntityWrapper entityWrapper, String weaponTitle, ItemStack weaponStack, HandData handData, EquipmentSlot slot, boolean dualWield) {
-        Configuration config = getConfigurations();
-        int shotsPerBurst = config.getInt(weaponTitle + ".Shoot.Burst.Shots_Per_Burst");
-        int ticksBetweenEachShot = config.getInt(weaponTitle + ".Shoot.Burst.Ticks_Between_Each_Shot");
+    private boolean burstShot(EntityWrapper entityWrapper, WeaponDefinition weapon, ItemStack weaponStack, HandData handData, EquipmentSlot slot, boolean dualWield) {
+        String weaponTitle = weapon.getWeaponTitle();
+        int shotsPerBurst = weapon.getShotsPerBurst();
+        int ticksBetweenEachShot = weapon.getTicksBetweenEachShot();
 
         // Not used
         if (shotsPerBurst == 0 || ticksBetweenEachShot == 0) return false;
 
         boolean mainhand = slot == EquipmentSlot.HAND;
-        boolean consumeItemOnShoot = getConfigurations().getBool(weaponTitle + ".Shoot.Consume_Item_On_Shoot");
-        int ammoPerShot = getConfigurations().getInt(weaponTitle + ".Shoot.Ammo_Per_Shot", 1);
+        boolean consumeItemOnShoot = weapon.isConsumeItemOnShoot();
+        int ammoPerShot = weapon.getAmmoPerShot();
 
         handData.setBurstTask(new BukkitRunnable() {
             int shots = 0;
@@ -290,8 +303,11 @@ public class ShootHandler implements IValidator, TriggerListener {
                     return;
                 }
 
+                // Ammo, durability, etc. are only decoded once for this shot
+                handData.cacheWeaponState(taskReference);
                 if (!reloadHandler.consumeAmmo(taskReference, weaponTitle, ammoPerShot)) {
                     handData.setBurstTask(0);
+                    handData.flushWeaponState();
                     cancel();
 
                     startReloadIfBothWeaponsEmpty(entityWrapper, weaponTitle, taskReference, slot, dualWield, false);
@@ -300,12 +316,16 @@ public class ShootHandler implements IValidator, TriggerListener {
 
                 // END RELOAD STUFF
 
-                // Only make the first projectile of burst modify spread change if its used
-                shoot(entityWrapper, weaponTitle, taskReference, getShootLocation(entityWrapper.getEntity(), dualWield, mainhand), mainhand, shots == 0, false);
+                try {
+                    // Only make the first projectile of burst modify spread change if its used
+                    shoot(entityWrapper, weapon, taskReference, getShootLocation(entityWrapper.getEntity(), dualWield, mainhand), mainhand, shots == 0, false);
 
-                boolean consumeEmpty = getConfigurations().getBool(weaponTitle + ".Shoot.Destroy_When_Empty") && CustomTag.AMMO_LEFT.getInteger(weaponStack) == 0;
-                if ((consumeEmpty || consumeItemOnShoot) && handleConsumeItemOnShoot(weaponStack, mainhand ? entityWrapper.getMainHandData() : entityWrapper.getOffHandData())) {
-                    return;
+                    boolean consumeEmpty = weapon.isDestroyWhenEmpty() && CustomTag.AMMO_LEFT.getInteger(taskReference) == 0;
+                    if ((consumeEmpty || consumeItemOnShoot) && handleConsumeItemOnShoot(weaponStack, mainhand ? entityWrapper.getMainHandData() : entityWrapper.getOffHandData())) {
+                        return;
+                    }
+                } finally {
+                    handData.flushWeaponState();
                 }
 
 
@@ -316,7 +336,7 @@ public class ShootHandler implements IValidator, TriggerListener {
                     if (reloadHandler.getAmmoLeft(taskReference, weaponTitle) == 0) {
                         startReloadIfBothWeaponsEmpty(entityWrapper, weaponTitle, taskReference, slot, dualWield, false);
                     } else {
-                        doShootFirearmActions(entityWrapper, weaponTitle, taskReference, handData, slot);
+                        doShootFirearmActions(entityWrapper, weapon, taskReference, handData, slot);
                     }
                 }
             }
@@ -324,9 +344,9 @@ public class ShootHandler implements IValidator, TriggerListener {
         return true;
     }
 
-    private boolean fullAutoShot(EntityWrapper entityWrapper, String weaponTitle, ItemStack weaponStack, HandData handData, EquipmentSlot slot, TriggerType triggerType, boolean dualWield) {
-        Configuration config = getConfigurations();
-        int fullyAutomaticShotsPerSecond = config.getInt(weaponTitle + ".Shoot.Fully_Automatic_Shots_Per_Second");
+    private boolean fullAutoShot(EntityWrapper entityWrapper, WeaponDefinition weapon, ItemStack weaponStack, HandData handData, EquipmentSlot slot, TriggerType triggerType, boolean dualWield) {
+        String weaponTitle = weapon.getWeaponTitle();
+        int fullyAutomaticShotsPerSecond = weapon.getFullyAutomaticShotsPerSecond();
 
         // Call event before checking if full auto is used, so weapons can be converted to Full Auto
         WeaponFullAutoEvent event = new WeaponFullAutoEvent(weaponTitle, weaponStack, entityWrapper.getEntity(), slot, fullyAutomaticShotsPerSecond);
@@ -337,16 +357,24 @@ public class ShootHandler implements IValidator, TriggerListener {
 
         boolean mainhand = slot == EquipmentSlot.HAND;
 
-        FullAutoTask fullAutoTask = new FullAutoTask(weaponHandler, entityWrapper, weaponTitle, weaponStack, mainhand, triggerType, dualWield, event.getShotsPerSecond());
+        FullAutoTask fullAutoTask = new FullAutoTask(weaponHandler, entityWrapper, weapon, weaponStack, mainhand, triggerType, dualWield, event.getShotsPerSecond());
         int fullAutoTaskId = fullAutoTask.runTaskTimer(WeaponMechanics.getPlugin(), 0, 0).getTaskId();
         handData.setFullAutoTask(fullAutoTask, fullAutoTaskId);
         return true;
     }
 
     public void doShootFirearmActions(EntityWrapper entityWrapper, String weaponTitle, ItemStack weaponStack, HandData handData, EquipmentSlot slot) {
-        FirearmAction firearmAction = getConfigurations().getObject(weaponTitle + ".Firearm_Action", FirearmAction.class);
+        WeaponDefinition weapon = handData.getWeaponDefinition(weaponTitle);
+        if (weapon != null)
+            doShootFirearmActions(entityWrapper, weapon, weaponStack, handData, slot);
+    }
+
+    public void doShootFirearmActions(EntityWrapper entityWrapper, WeaponDefinition weapon, ItemStack weaponStack, HandData handData, EquipmentSlot slot) {
+        FirearmAction firearmAction = weapon.getFirearmAction();
         if (firearmAction == null || handData.hasRunningFirearmAction()) return;
 
+        String weaponTitle = weapon.getWeaponTitle();
+
         FirearmState state = firearmAction.getState(weaponStack);
 
         // If state is ready, check if this shot should not cause firearm actions
@@ -359,7 +387,7 @@ public class ShootHandler implements IValidator, TriggerListener {
         boolean mainhand = slot == EquipmentSlot.HAND;
         LivingEntity shooter = entityWrapper.getEntity();
         PlayerWrapper playerWrapper = shooter.getType() != EntityType.PLAYER ? null : (PlayerWrapper) entityWrapper;
-        WeaponInfoDisplay weaponInfoDisplay = playerWrapper == null ? null : getConfigurations().getObject(weaponTitle + ".Info.Weapon_Info_Display", WeaponInfoDisplay.class);
+        WeaponInfoDisplay weaponInfoDisplay = playerWrapper == null ? null : weapon.getWeaponInfoDisplay();
 
         // Initiate CLOSE task
         BukkitRunnable closeRunnable = new BukkitRunnable() {
@@ -493,15 +521,25 @@ public class ShootHandler implements IValidator, TriggerListener {
      * Does not use ammo nor check for it.
      */
     public void shoot(EntityWrapper entityWrapper, String weaponTitle, ItemStack weaponStack, Location shootLocation, boolean mainHand, boolean updateSpreadChange, boolean isMelee) {
-        Configuration config = getConfigurations();
+        WeaponDefinition weapon = entityWrapper.getHandData(mainHand).getWeaponDefinition(weaponTitle);
+        if (weapon != null)
+            shoot(entityWrapper, weapon, weaponStack, shootLocation, mainHand, updateSpreadChange, isMelee);
+    }
+
+    /**
+     * Shoots using weapon.
+     * Does not use ammo nor check for it.
+     */
+    public void shoot(EntityWrapper entityWrapper, WeaponDefinition weapon, ItemStack weaponStack, Location shootLocation, boolean mainHand, boolean updateSpreadChange, boolean isMelee) {
+        String weaponTitle = weapon.getWeaponTitle();
         LivingEntity livingEntity = entityWrapper.getEntity();
         EquipmentSlot slot = mainHand ? EquipmentSlot.HAND : EquipmentSlot.OFF_HAND;
 
-        Mechanics shootMechanics = config.getObject(weaponTitle + ".Shoot.Mechanics", Mechanics.class);
-        boolean resetFallDistance = config.getBool(weaponTitle + ".Shoot.Reset_Fall_Distance");
-        Projectile projectile = config.getObject(weaponTitle + ".Projectile", Projectile.class);
-        double projectileSpeed = config.getDouble(weaponTitle + ".Shoot.Projectile_Speed");
-        int projectileAmount = config.getInt(weaponTitle + ".Shoot.Projectiles_Per_Shot");
+        Mechanics shootMechanics = weapon.getShootMechanics();
+        boolean resetFallDistance = weapon.isResetFallDistance();
+        Projectile projectile = weapon.getProjectile();
+        double projectileSpeed = weapon.getProjectileSpeed();
+        int projectileAmount = weapon.getProjectilesPerShot();
 
         PrepareWeaponShootEvent prepareEvent = new PrepareWeaponShootEvent(weaponTitle, weaponStack, entityWrapper.getEntity(), slot, shootMechanics, resetFallDistance, projectile, projectileSpeed, projectileAmount);
         Bukkit.getPluginManager().callEvent(prepareEvent);
@@ -520,7 +558,7 @@ public class ShootHandler implements IValidator, TriggerListener {
             if (playerWrapper.getStatsData() != null)
                 playerWrapper.getStatsData().add(weaponTitle, WeaponStat.SHOTS, 1);
 
-            WeaponInfoDisplay weaponInfoDisplay = getConfigurations().getObject(weaponTitle + ".Info.Weapon_Info_Display", WeaponInfoDisplay.class);
+            WeaponInfoDisplay weaponInfoDisplay = weapon.getWeaponInfoDisplay();
             if (weaponInfoDisplay != null)
                 weaponInfoDisplay.send(playerWrapper, slot);
         }
@@ -542,8 +580,8 @@ public class ShootHandler implements IValidator, TriggerListener {
             return;
         }
 
-        Spread spread = config.getObject(weaponTitle + ".Shoot.Spread", Spread.class);
-        Recoil recoil = config.getObject(weaponTitle + ".Shoot.Recoil", Recoil.class);
+        Spread spread = weapon.getSpread();
+        Recoil recoil = weapon.getRecoil();
 
         if (prepareEvent.getProjectileAmount() < 1) {
             debug.error(weaponTitle + ".Shoot.Projectiles_Per_Shot should be at least 1, got " + prepareEvent.getProjectileAmount());
@@ -575,7 +613,7 @@ public class ShootHandler implements IValidator, TriggerListener {
         }
 
         // Apply custom durability
-        CustomDurability durability = config.getObject(weaponTitle + ".Shoot.Custom_Durability", CustomDurability.class);
+        CustomDurability durability = weapon.getCustomDurability();
         if (durability != null) {
             boolean broke = durability.use(livingEntity, weaponStack, weaponTitle);
 
@@ -583,7 +621,7 @@ public class ShootHandler implements IValidator, TriggerListener {
                 entityWrapper.getHandData(mainHand).cancelTasks();
         }
 
-        boolean unscopeAfterShot = config.getBool(weaponTitle + ".Scope.Unscope_After_Shot");
+        boolean unscopeAfterShot = weapon.isUnscopeAfterShot();
         WeaponPostShootEvent event = new WeaponPostShootEvent(weaponTitle, weaponStack, entityWrapper.getEntity(), slot, unscopeAfterShot);
         Bukkit.getPluginManager().callEvent(event);
 
@@ -606,18 +644,20 @@ public class ShootHandler implements IValidator, TriggerListener {
      * Does not apply recoil nor anything that would require EntityWrapper.
      */
     public void shoot(LivingEntity livingEntity, String weaponTitle, Vector normalizedDirection) {
-        Configuration config = getConfigurations();
+        WeaponDefinition weapon = weaponHandler.getInfoHandler().getWeaponDefinition(weaponTitle);
+        if (weapon == null) return;
 
-        Mechanics shootMechanics = config.getObject(weaponTitle + ".Shoot.Mechanics", Mechanics.class);
+        Mechanics shootMechanics = weapon.getShootMechanics();
         if (shootMechanics != null) shootMechanics.use(new CastData(livingEntity, weaponTitle, null));
 
-        Projectile projectile = config.getObject(weaponTitle + ".Projectile", Projectile.class);
+        Projectile projectile = weapon.getProjectile();
         if (projectile == null) return;
 
         Location shootLocation = getShootLocation(livingEntity, false, true);
-        double projectileSpeed = config.getDouble(weaponTitle + ".Shoot.Projectile_Speed");
+        double projectileSpeed = weapon.getProjectileSpeed();
+        int projectileAmount = weapon.getProjectilesPerShot();
 
-        for (int i = 0; i < config.getInt(weaponTitle + ".Shoot.Projectiles_Per_Shot"); ++i) {
+        for (int i = 0; i < projectileAmount; ++i) {
 
             Location perProjectileShootLocation = shootLocation.clone();
 
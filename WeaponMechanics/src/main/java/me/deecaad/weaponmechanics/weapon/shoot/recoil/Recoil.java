@@ -5,6 +5,7 @@ import me.deecaad.core.file.SerializeData;
 import me.deecaad.core.file.Serializer;
 import me.deecaad.core.file.SerializerException;
 import me.deecaad.core.utils.NumberUtil;
+import me.deecaad.weaponmechanics.WeaponMechanics;
 import me.deecaad.weaponmechanics.compatibility.IWeaponCompatibility;
 import me.deecaad.weaponmechanics.compatibility.WeaponCompatibilityAPI;
 import me.deecaad.weaponmechanics.wrappers.HandData;
@@ -15,14 +16,12 @@ import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Timer;
 
 import static me.deecaad.weaponmechanics.WeaponMechanics.getPlayerWrapper;
 
 public class Recoil implements Serializer<Recoil> {
 
     public static long MILLIS_BETWEEN_ROTATIONS = 20;
-    private static final Timer TIMER = new Timer();
     private static final IWeaponCompatibility weaponCompatibility = WeaponCompatibilityAPI.getWeaponCompatibility();
 
     private long pushTime;
@@ -70,7 +69,7 @@ public class Recoil implements Serializer<Recoil> {
             // Normally shoot, recoil, recover
             recoilTask = new RecoilTask(playerWrapper, handData, this);
             handData.setRecoilTask(recoilTask);
-            TIMER.scheduleAtFixedRate(recoilTask, 0, MILLIS_BETWEEN_ROTATIONS);
+            WeaponMechanics.getRecoilScheduler().schedule(recoilTask);
             return;
         }
         // Shoot during recoil
@@ -0,0 +1,134 @@
+package me.deecaad.weaponmechanics.weapon.shoot.recoil;
+
+import me.deecaad.core.utils.LogLevel;
+import me.deecaad.weaponmechanics.WeaponMechanics;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs every active {@link RecoilTask} on 1 dedicated thread. Instead of
+ * scheduling each task separately, every task is stepped once per frame
+ * ({@link Recoil#MILLIS_BETWEEN_ROTATIONS}), so all players' camera
+ * rotations of a frame are sent together.
+ *
+ * <p>Frames run off the main thread, so tasks never use the Bukkit entity
+ * API while rotating. Instead, the pitch and state of each player is copied
+ * into their task once per server tick, on the main thread.
+ *
+ * <p>The delay between when a frame should run and when it actually ran is
+ * measured, see {@link #getAverageLagMillis()} and {@link #getMaxLagMillis()}.
+ */
+public class RecoilScheduler {
+
+    private final long periodNanos;
+    private final ScheduledExecutorService executor;
+    private final Set<RecoilTask> tasks = ConcurrentHashMap.newKeySet();
+
+    // Only used on the main thread
+    private final Location location = new Location(null, 0, 0, 0);
+
+    // Lag is only written by the recoil thread
+    private final long startNanos;
+    private long frames;
+    private volatile double averageLagNanos;
+    private volatile long maxLagNanos;
+
+    /**
+     * Starts the recoil thread. WeaponMechanics initializes one of these by
+     * default, use {@link WeaponMechanics#getRecoilScheduler()}.
+     *
+     * @param plugin                 The non-null plugin.
+     * @param millisBetweenRotations The time between frames, in milliseconds.
+     */
+    public RecoilScheduler(@NotNull Plugin plugin, long millisBetweenRotations) {
+        this.periodNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, millisBetweenRotations));
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "WeaponMechanics-Recoil");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        startNanos = System.nanoTime();
+        executor.scheduleAtFixedRate(this::frame, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+        Bukkit.getScheduler().runTaskTimer(plugin, this::snapshot, 0, 1);
+    }
+
+    /**
+     * Starts the given task. The first rotation is done immediately, the
+     * rest are done by the recoil thread. This method must be called from
+     * the main thread.
+     *
+     * @param task The non-null task to start.
+     */
+    public void schedule(@NotNull RecoilTask task) {
+        task.snapshot(location);
+        if (!task.tick())
+            tasks.add(task);
+    }
+
+    /**
+     * @return the number of tasks currently rotating or recovering
+     */
+    public int getActiveTasks() {
+        return tasks.size();
+    }
+
+    /**
+     * Returns how late frames start on average, compared to when they were
+     * supposed to start. High values mean recoil is not smooth.
+     *
+     * @return The average lag, in milliseconds.
+     */
+    public double getAverageLagMillis() {
+        return averageLagNanos / 1_000_000.0;
+    }
+
+    /**
+     * @return the highest lag of a frame since this scheduler started, in milliseconds
+     */
+    public double getMaxLagMillis() {
+        return maxLagNanos / 1_000_000.0;
+    }
+
+    /**
+     * Stops the recoil thread. Active tasks are dropped.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+        tasks.clear();
+    }
+
+    private void snapshot() {
+        if (tasks.isEmpty())
+            return;
+
+        for (RecoilTask task : tasks)
+            task.snapshot(location);
+    }
+
+    private void frame() {
+        long lag = System.nanoTime() - (startNanos + ++frames * periodNanos);
+        averageLagNanos = averageLagNanos * 0.95 + Math.max(lag, 0) * 0.05;
+        if (lag > maxLagNanos)
+            maxLagNanos = lag;
+
+        for (RecoilTask task : tasks) {
+            // Exceptions would stop every future frame
+            try {
+                if (task.tick())
+                    tasks.remove(task);
+            } catch (Throwable ex) {
+                tasks.remove(task);
+                WeaponMechanics.debug.log(LogLevel.WARN, "Unhandled exception in recoil task", ex);
+            }
+        }
+    }
+}
@@ -9,9 +9,12 @@ import org.bukkit.Location;
 import org.bukkit.entity.Player;
 
 import java.util.List;
-import java.util.TimerTask;
 
-public class RecoilTask extends TimerTask {
+/**
+ * Rotates the camera of 1 hand's recoil, and then recovers it. Tasks are
+ * stepped by the {@link RecoilScheduler}, off the main thread.
+ */
+public class RecoilTask {
 
     private static final IWeaponCompatibility weaponCompatibility = WeaponCompatibilityAPI.getWeaponCompatibility();
     private final PlayerWrapper playerWrapper;
@@ -29,12 +32,17 @@ public class RecoilTask extends TimerTask {
     private int currentIndexAtRecoilPattern;
 
     private int counter;
-    private Recoil tempRecoil;
+    private volatile Recoil tempRecoil;
     private int rotations;
     private float yawPerIteration;
     private float pitchPerIteration;
     private long recoverTime;
 
+    // Copied from the player on the main thread, see snapshot()
+    private volatile boolean valid = true;
+    private volatile float pitch;
+    private volatile boolean cancelled;
+
     public RecoilTask(PlayerWrapper playerWrapper, HandData handData, Recoil recoil) {
         this.playerWrapper = playerWrapper;
         this.handData = handData;
@@ -45,24 +53,45 @@ public class RecoilTask extends TimerTask {
         tempRecoil = recoil;
     }
 
-    @Override
-    public void run() {
+    /**
+     * Stops this task during the next frame.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
 
+    /**
+     * Copies the state of the player used while rotating. This is called
+     * every tick on the main thread, since the Bukkit entity API is not
+     * thread safe.
+     *
+     * @param temp A reusable location.
+     */
+    void snapshot(Location temp) {
         Player player = playerWrapper.getPlayer();
-        if (player == null || player.isDead() || !player.isOnline()) {
+        valid = player != null && !player.isDead() && player.isOnline();
+        if (valid)
+            pitch = player.getLocation(temp).getPitch();
+    }
+
+    /**
+     * Does 1 rotation of this task.
+     *
+     * @return true if this task is finished.
+     */
+    boolean tick() {
+        if (cancelled || !valid) {
             handData.setRecoilTask(null);
-            cancel();
-            return;
+            return true;
         }
 
         // If this returns true, that means task is terminated
-        if (handleNewRecoil()) return;
+        if (handleNewRecoil()) return true;
 
         // This first check in case non-repeating pattern is used, and it has reached its end -> don't send unnecessary packets
         if (!(yawPerIteration == 0 && pitchPerIteration == 0)) {
             if (isRotating) {
-                Location location = playerWrapper.getPlayer().getLocation();
-                float pitch = location.getPitch() < -80 ? 0 : pitchPerIteration;
+                float pitch = this.pitch < -80 ? 0 : pitchPerIteration;
                 weaponCompatibility.modifyCameraRotation(playerWrapper.getPlayer(), yawPerIteration, pitch, false);
             } else {
                 // Let recovering happen normally without checking any maximum pitch changes
@@ -76,8 +105,7 @@ public class RecoilTask extends TimerTask {
                 // OR
                 // Recovery is not used
                 handData.setRecoilTask(null);
-                cancel();
-                return;
+                return true;
             }
 
             // Rotation finished, start recovering
@@ -101,6 +129,7 @@ public class RecoilTask extends TimerTask {
             counter = 0;
             isRotating = false;
         }
+        return false;
     }
 
     /**
@@ -140,7 +169,6 @@ public class RecoilTask extends TimerTask {
             // Neither one wasn't used?
             // Terminate this task...
             handData.setRecoilTask(null);
-            cancel();
             return true;
         }
 
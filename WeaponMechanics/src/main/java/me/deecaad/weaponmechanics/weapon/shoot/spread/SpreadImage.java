@@ -3,21 +3,25 @@ package me.deecaad.weaponmechanics.weapon.shoot.spread;
 import me.deecaad.core.file.SerializeData;
 import me.deecaad.core.file.Serializer;
 import me.deecaad.core.file.SerializerException;
-import me.deecaad.core.utils.ProbabilityMap;
+import me.deecaad.core.utils.AliasSampler;
 import me.deecaad.weaponmechanics.WeaponMechanics;
 import org.jetbrains.annotations.NotNull;
 
 import javax.annotation.Nonnull;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class SpreadImage implements Serializer<SpreadImage> {
     
-    private ProbabilityMap<Point> points;
+    // Each draw allocates nothing, and is safe from any thread
+    private AliasSampler<Point> points;
     private int height, width;
     
     /**
@@ -27,7 +31,6 @@ public class SpreadImage implements Serializer<SpreadImage> {
     }
     
     public SpreadImage(Sprite sprite, double fovWidth, double fovHeight) {
-        this.points = new ProbabilityMap<>();
         this.width = sprite.getWidth();
         this.height = sprite.getHeight();
 
@@ -37,6 +40,9 @@ public class SpreadImage implements Serializer<SpreadImage> {
         double xMiddle = width / 2.0;
         double yMiddle = height / 2.0;
         
+        List<Point> points = new ArrayList<>();
+        double[] weights = new double[width * height];
+
         int[][] pixels = sprite.getPixels();
         for (int y = 0; y < pixels.length; y++) {
             for (int x = 0; x < pixels[y].length; x++) {
@@ -57,12 +63,13 @@ public class SpreadImage implements Serializer<SpreadImage> {
                     double yaw = (x - xMiddle) / sprite.getWidth() * maxYaw;
                     double pitch = (y - yMiddle) / sprite.getHeight() * maxPitch;
 
-                    Point point = new Point(yaw, pitch);
-                    double chance = grayScale / 255.0;
-                    points.add(point, chance);
+                    weights[points.size()] = grayScale / 255.0;
+                    points.add(new Point(yaw, pitch));
                 }
             }
         }
+
+        this.points = new AliasSampler<>(points, Arrays.copyOf(weights, points.size()));
     }
     
     public int getHeight() {
@@ -86,10 +93,27 @@ public class SpreadImage implements Serializer<SpreadImage> {
      * @return The found points
      */
     public Set<Point> getLocations(int amount) {
+        int size = this.points.size();
         Set<Point> points = new HashSet<>();
-        
+
+        // Every point is used, no need to randomize
+        if (amount >= size) {
+            for (int i = 0; i < size; i++)
+                points.add(this.points.getElement(i));
+            return points;
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int checks = amount * 10; checks > 0 && points.size() < amount; checks--) {
+            points.add(this.points.get(random));
+        }
+
+        // Walk from a random point, so this never spins on images with few
+        // heavily weighted points
+        int index = random.nextInt(size);
         while (points.size() < amount) {
-            points.add(this.points.get());
+            points.add(this.points.getElement(index));
+            index = (index + 1) % size;
         }
 
         return points;
@@ -6,6 +6,10 @@ import me.deecaad.weaponmechanics.WeaponMechanics;
 import me.deecaad.weaponmechanics.weapon.WeaponHandler;
 import me.deecaad.weaponmechanics.wrappers.PlayerWrapper;
 import me.deecaad.weaponmechanics.wrappers.StatsData;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
 
 import java.sql.SQLException;
 import java.util.*;
@@ -13,16 +17,24 @@ import java.util.*;
 public class StatsHandler {
 
     private WeaponHandler weaponHandler;
-    private StringBuilder generatedReplaceWeaponStats;
-    private StringBuilder generatedReplacePlayerStats;
+
+    // Rows waiting to be written, merged by primary key. Only used on the
+    // main thread.
+    private final Map<String, Row> pending = new LinkedHashMap<>();
+    private int maxRowsPerSave = 500;
+
+    // Set by the async writer
+    private volatile List<Row> inFlight;
+    private volatile List<Row> failed;
 
     public StatsHandler(WeaponHandler weaponHandler) {
         this.weaponHandler = weaponHandler;
-        generateReplaces();
     }
 
     /**
-     * Loads data to player wrapper from database
+     * Loads data to player wrapper from database. Rows of the player which
+     * are still waiting to be written (e.g. when the player rejoins right
+     * after quitting) are applied over the database values.
      *
      * @param playerWrapper the player wrapper
      */
@@ -37,14 +49,45 @@ public class StatsHandler {
 
         if (statsData.isSync()) throw new IllegalArgumentException("Tried to load data to already synced stats data");
 
-        fetchAndInsertPlayerStats(database, playerWrapper.getPlayer().getUniqueId(), statsData);
+        UUID uuid = playerWrapper.getPlayer().getUniqueId();
+        fetchAndInsertPlayerStats(database, uuid, statsData, getUnsavedRows(uuid));
+    }
+
+    /**
+     * Returns the rows of the given player which are not in the database
+     * yet, from oldest to newest. Only call this from the main thread.
+     */
+    private List<Row> getUnsavedRows(UUID uuid) {
+        String uuidString = uuid.toString();
+        String weaponPrefix = uuidString + ":";
+        Map<String, Row> rows = new LinkedHashMap<>();
+
+        List<Row> failedRows = failed;
+        List<Row> inFlightRows = inFlight;
+        List<Collection<Row>> sources = new ArrayList<>(3);
+        if (failedRows != null) sources.add(failedRows);
+        if (inFlightRows != null) sources.add(inFlightRows);
+        sources.add(pending.values());
+
+        for (Collection<Row> source : sources) {
+            for (Row row : source) {
+                if (row.key.equals(uuidString) || row.key.startsWith(weaponPrefix)) {
+                    // Newer rows replace older rows, since rows hold complete values
+                    rows.remove(row.key);
+                    rows.put(row.key, row);
+                }
+            }
+        }
+        return new ArrayList<>(rows.values());
     }
 
     /**
-     * Saves data from player wrapper to database
+     * Queues the changed stats of the player to be saved to the database.
+     * Queued stats are written in batches every save interval, see
+     * {@link #startSaving(Plugin, int, int)}.
      *
      * @param playerWrapper the player wrapper
-     * @param forceSync true means that saving is forced to be sync (used on disable)
+     * @param forceSync true means that every queued stat is saved now, in sync (used on disable)
      */
     public void save(PlayerWrapper playerWrapper, boolean forceSync) {
         Database database = WeaponMechanics.getDatabase();
@@ -54,133 +97,171 @@ public class StatsHandler {
 
         StatsData statsData = playerWrapper.getStatsData();
         // This might be null if sync didn't occur...
-        if (statsData == null) return;
+        if (statsData != null) queue(playerWrapper.getPlayer().getUniqueId(), statsData);
 
-        database.executeUpdate(forceSync, getSaveStrings(playerWrapper));
+        if (forceSync) flush(true);
     }
 
-    private String[] getSaveStrings(PlayerWrapper playerWrapper) {
-        StatsData statsData = playerWrapper.getStatsData();
-        if (statsData == null) return null;
-
-        if (!statsData.isSync()) throw new IllegalArgumentException("Tried to use REPLACE when player stat data wasn't yet synced");
-
-        Set<String> weapons = statsData.getWeapons();
-        if (weapons == null || weapons.isEmpty()) return new String[]{getPlayerStatReplaceString(playerWrapper)};
+    /**
+     * Starts saving the changed stats of online players every given
+     * interval. Only 1 batch is written at a time, and when the queue is
+     * full, changes are kept (and merged) in memory until the queue has
+     * room again.
+     *
+     * @param plugin the plugin to run the task
+     * @param intervalTicks the delay between saves, in ticks
+     * @param maxRowsPerSave the maximum number of rows written by 1 save
+     */
+    public void startSaving(Plugin plugin, int intervalTicks, int maxRowsPerSave) {
+        if (intervalTicks < 1) throw new IllegalArgumentException("Save interval must be positive: " + intervalTicks);
+        if (maxRowsPerSave < 1) throw new IllegalArgumentException("Rows per save must be positive: " + maxRowsPerSave);
+
+        this.maxRowsPerSave = maxRowsPerSave;
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                if (WeaponMechanics.getDatabase() == null) return;
+
+                for (Player player : Bukkit.getOnlinePlayers()) {
+                    // Back pressure, wait for the writer to catch up
+                    if (pending.size() >= maxRowsPerSave) break;
+
+                    StatsData statsData = WeaponMechanics.getPlayerWrapper(player).getStatsData();
+                    if (statsData != null) queue(player.getUniqueId(), statsData);
+                }
 
-        String[] batches = new String[weapons.size() + 1];
+                flush(false);
+            }
+        }.runTaskTimer(plugin, intervalTicks, intervalTicks);
+    }
 
-        // Create batch for every weapon...
-        int i = 0;
-        for (String weapon : weapons) {
+    /**
+     * Writes the queued stats to the database.
+     *
+     * @param forceSync true to write every queued stat now, in sync (used on disable)
+     */
+    public void flush(boolean forceSync) {
+        Database database = WeaponMechanics.getDatabase();
+        if (database == null || database.isClosed()) return;
 
-            StringBuilder builder = new StringBuilder(generatedReplaceWeaponStats);
+        // Retry rows that failed, unless they were already changed again
+        List<Row> failedRows = failed;
+        if (failedRows != null) {
+            failed = null;
+            for (Row row : failedRows) pending.putIfAbsent(row.key, row);
+        }
 
-            WeaponStat[] array = WeaponStat.VALUES;
-            for (int j = 0; j < array.length; ++j) {
-                WeaponStat stat = array[j];
-                if (j != 0) {
-                    builder.append(", ");
-                }
-                Class<?> type = stat.getClassType();
-                if (type == String.class) {
-                    Object value = statsData.get(weapon, stat);
-                    if (value == null) {
-                        // Append SQL null value
-                        builder.append("NULL");
-                    } else {
-                        builder.append("'")
-                                .append(value)
-                                .append("'");
-                    }
-                } else if (type == Set.class) {
-                    Set<?> value = (Set<?>) statsData.get(weapon, stat);
-                    if (value == null) {
-                        // Append SQL null value
-                        builder.append("NULL");
-                    } else {
-                        builder.append("'");
-
-                        // Append each string from set separated with comma
-                        value.forEach(val -> builder.append(val).append(","));
-
-                        // Take the last , out
-                        builder.deleteCharAt(builder.length() - 1);
-                        builder.append("'");
-                    }
-                } else {
-                    builder.append(statsData.get(weapon, stat));
+        if (forceSync) {
+            // Let the async writer finish, so it cannot overwrite newer rows
+            long timeout = System.currentTimeMillis() + 5000;
+            while (inFlight != null && System.currentTimeMillis() < timeout) {
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
                 }
             }
 
-            batches[i] = builder.append(")").toString();
+            // Rows hold complete values, so writing a row twice is harmless
+            List<Row> rows = new ArrayList<>();
+            List<Row> unfinished = inFlight;
+            if (unfinished != null) rows.addAll(unfinished);
+            if (failed != null) rows.addAll(failed);
+            rows.addAll(pending.values());
+            pending.clear();
+            failed = null;
+
+            write(database, rows);
+            return;
+        }
+
+        // Only 1 batch is written at a time
+        if (inFlight != null || pending.isEmpty()) return;
 
-            ++i;
+        List<Row> batch = new ArrayList<>(Math.min(pending.size(), maxRowsPerSave));
+        Iterator<Row> iterator = pending.values().iterator();
+        while (iterator.hasNext() && batch.size() < maxRowsPerSave) {
+            batch.add(iterator.next());
+            iterator.remove();
         }
 
-        // The i is actually incremented above +1 times
-        batches[i] = getPlayerStatReplaceString(playerWrapper);
+        inFlight = batch;
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                if (!write(database, batch)) failed = batch;
+                inFlight = null;
+            }
+        }.runTaskAsynchronously(WeaponMechanics.getPlugin());
+    }
 
-        return batches;
+    /**
+     * @return the number of rows waiting to be written
+     */
+    public int getQueuedRows() {
+        return pending.size();
     }
 
-    private String getPlayerStatReplaceString(PlayerWrapper playerWrapper) {
-        StatsData statsData = playerWrapper.getStatsData();
-        StringBuilder builder = new StringBuilder(generatedReplacePlayerStats);
-        PlayerStat[] array = PlayerStat.VALUES;
-        for (int i = 0; i < array.length; ++i) {
-            PlayerStat stat = array[i];
-            if (i != 0) {
-                builder.append(", ");
-            }
-            if (stat.getClassType() == String.class) {
-                Object value = statsData.get(stat);
-                if (value == null) {
-                    builder.append("NULL");
-                } else {
-                    builder.append("'")
-                            .append(value)
-                            .append("'");
-                }
-            } else {
-                builder.append(statsData.get(stat));
+    /**
+     * Copies the changed rows of the given stats to the queue. Rows already
+     * in the queue are replaced, since rows always hold the complete values.
+     */
+    private void queue(UUID uuid, StatsData statsData) {
+        if (!statsData.isDirty()) return;
+
+        String uuidString = uuid.toString();
+        for (String weapon : statsData.getDirtyWeapons()) {
+            WeaponStat[] stats = WeaponStat.VALUES;
+            Object[] values = new Object[stats.length];
+            for (int i = 0; i < stats.length; ++i) {
+                values[i] = toColumn(statsData.get(weapon, stats[i]));
             }
+            String key = uuidString + ":" + weapon;
+            pending.put(key, new Row(key, true, values));
         }
-        return builder.append(")").toString();
-    }
 
-    private void generateReplaces() {
-        StringBuilder weaponBuilder = new StringBuilder("REPLACE INTO weapon_stats (");
-
-        WeaponStat[] weaponArray = WeaponStat.VALUES;
-        for (int i = 0; i < weaponArray.length; ++i) {
-            WeaponStat stat = weaponArray[i];
-            if (i != 0) {
-                weaponBuilder.append(", ");
+        if (statsData.isPlayerDirty()) {
+            PlayerStat[] stats = PlayerStat.VALUES;
+            Object[] values = new Object[stats.length];
+            for (int i = 0; i < stats.length; ++i) {
+                values[i] = toColumn(statsData.get(stats[i]));
             }
-            weaponBuilder.append(stat.name());
+            pending.put(uuidString, new Row(uuidString, false, values));
         }
 
-        weaponBuilder.append(") VALUES (");
-        generatedReplaceWeaponStats = weaponBuilder;
+        statsData.clearDirty();
+    }
 
-        StringBuilder playerBuilder = new StringBuilder("REPLACE INTO player_stats (");
+    private static Object toColumn(Object value) {
+        if (value instanceof UUID) return value.toString();
 
-        PlayerStat[] playerArray = PlayerStat.VALUES;
-        for (int i = 0; i < playerArray.length; ++i) {
-            PlayerStat stat = playerArray[i];
-            if (i != 0) {
-                playerBuilder.append(", ");
-            }
-            playerBuilder.append(stat.name());
+        // Sets are comma separated in database
+        if (value instanceof Set<?> set) {
+            if (set.isEmpty()) return null;
+            StringJoiner joiner = new StringJoiner(",");
+            set.forEach(val -> joiner.add(String.valueOf(val)));
+            return joiner.toString();
+        }
+        return value;
+    }
+
+    private static boolean write(Database database, List<Row> rows) {
+        List<Object[]> weaponRows = new ArrayList<>();
+        List<Object[]> playerRows = new ArrayList<>();
+        for (Row row : rows) {
+            (row.weapon ? weaponRows : playerRows).add(row.values);
         }
 
-        playerBuilder.append(") VALUES (");
-        generatedReplacePlayerStats = playerBuilder;
+        String[] weaponColumns = Arrays.stream(WeaponStat.VALUES).map(Enum::name).toArray(String[]::new);
+        String[] playerColumns = Arrays.stream(PlayerStat.VALUES).map(Enum::name).toArray(String[]::new);
+
+        boolean success = database.executeBatch(database.getUpsertString("weapon_stats", weaponColumns, "UUID", "WEAPON_TITLE"), weaponRows);
+        return database.executeBatch(database.getUpsertString("player_stats", playerColumns, "UUID"), playerRows) && success;
     }
 
-    private void fetchAndInsertPlayerStats(Database database, UUID uuid, StatsData statsData) {
-        database.executeQuery("SELECT * FROM player_stats WHERE UUID='" + uuid + "'", (playerSet -> {
+    private void fetchAndInsertPlayerStats(Database database, UUID uuid, StatsData statsData, List<Row> unsaved) {
+        database.executeQuery("SELECT * FROM player_stats WHERE UUID=?", new Object[]{ uuid.toString() }, (playerSet -> {
             try {
 
                 Map<PlayerStat, Object> playerData = new HashMap<>();
@@ -205,7 +286,7 @@ public class StatsHandler {
                     }
                 }
 
-                fetchAndInsertWeaponStats(database, uuid, statsData, playerData);
+                fetchAndInsertWeaponStats(database, uuid, statsData, playerData, unsaved);
 
             } catch (SQLException e) {
                 WeaponMechanics.debug.log(LogLevel.ERROR, e);
@@ -213,8 +294,8 @@ public class StatsHandler {
         }));
     }
 
-    private void fetchAndInsertWeaponStats(Database database, UUID uuid, StatsData statsData, Map<PlayerStat, Object> playerData) {
-        database.executeQuery("SELECT * FROM weapon_stats WHERE UUID='" + uuid + "'", (weaponSet) -> {
+    private void fetchAndInsertWeaponStats(Database database, UUID uuid, StatsData statsData, Map<PlayerStat, Object> playerData, List<Row> unsaved) {
+        database.executeQuery("SELECT * FROM weapon_stats WHERE UUID=?", new Object[]{ uuid.toString() }, (weaponSet) -> {
             try {
                 Map<String, Map<WeaponStat, Object>> weaponData = new HashMap<>();
 
@@ -252,6 +333,7 @@ public class StatsHandler {
                     }
                 }
 
+                applyUnsavedRows(unsaved, playerData, weaponData);
                 statsData.setData(playerData, weaponData);
 
             } catch (SQLException e) {
@@ -259,4 +341,73 @@ public class StatsHandler {
             }
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Replaces the fetched values with the values of rows which were not
+     * written to the database yet. Values are converted the same way as
+     * values fetched from the database.
+     */
+    private static void applyUnsavedRows(List<Row> unsaved, Map<PlayerStat, Object> playerData, Map<String, Map<WeaponStat, Object>> weaponData) {
+        for (Row row : unsaved) {
+            if (!row.weapon) {
+                playerData.clear();
+                for (PlayerStat stat : PlayerStat.VALUES) {
+                    if (stat == PlayerStat.UUID) continue;
+
+                    Object data = fromColumn(stat.getClassType(), row.values[stat.ordinal()], false);
+                    if (data != null) playerData.put(stat, data);
+                }
+                continue;
+            }
+
+            String weaponTitle = row.key.substring(row.key.indexOf(':') + 1);
+            Map<WeaponStat, Object> newWeaponMap = new HashMap<>();
+            weaponData.put(weaponTitle, newWeaponMap);
+
+            for (WeaponStat stat : WeaponStat.VALUES) {
+                if (stat == WeaponStat.UUID || stat == WeaponStat.WEAPON_TITLE) continue;
+
+                Object data = fromColumn(stat.getClassType(), row.values[stat.ordinal()], true);
+                if (data != null) newWeaponMap.put(stat, data);
+            }
+        }
+    }
+
+    /**
+     * Converts a column value made by {@link #toColumn(Object)} back to the
+     * value a database fetch would give, or null if the fetch would skip it.
+     */
+    private static Object fromColumn(Class<?> type, Object value, boolean splitSets) {
+        if (value == null) return null;
+
+        if (type == Integer.class) {
+            int data = ((Number) value).intValue();
+            return data == 0 ? null : data;
+        } else if (type == Float.class) {
+            float data = ((Number) value).floatValue();
+            return data == 0.0 ? null : data;
+        }
+
+        String data = value.toString();
+        if (!splitSets || type == String.class) return data;
+
+        // Sets are comma separated in database
+        return new HashSet<>(Arrays.asList(data.split(",")));
+    }
+
+    /**
+     * The values of 1 row of weapon_stats or player_stats, in column order.
+     */
+    private static final class Row {
+
+        private final String key;
+        private final boolean weapon;
+        private final Object[] values;
+
+        private Row(String key, boolean weapon, Object[] values) {
+            this.key = key;
+            this.weapon = weapon;
+            this.values = values;
+        }
+    }
+}
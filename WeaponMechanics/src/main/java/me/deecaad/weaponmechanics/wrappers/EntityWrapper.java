@@ -1,6 +1,5 @@
 package me.deecaad.weaponmechanics.wrappers;
 
-import me.deecaad.core.file.Configuration;
 import me.deecaad.weaponmechanics.WeaponMechanics;
 import me.deecaad.weaponmechanics.events.EntityToggleInMidairEvent;
 import me.deecaad.weaponmechanics.events.EntityToggleStandEvent;
@@ -22,11 +21,10 @@ import org.jetbrains.annotations.NotNull;
  */
 public class EntityWrapper {
 
-    private static final int MOVE_TASK_INTERVAL = 1;
-
     private final LivingEntity entity;
 
-    private int moveTask;
+    // Index in the MoveTracker's arrays, or -1 when not tracked
+    int moveTrackerIndex = -1;
     private boolean standing;
     private boolean walking;
     private boolean inMidair;
@@ -37,22 +35,24 @@ public class EntityWrapper {
     public EntityWrapper(LivingEntity livingEntity) {
         this.entity = livingEntity;
 
-        Configuration config = WeaponMechanics.getBasicConfigurations();
-        if (!config.getBool("Disabled_Trigger_Checks.In_Midair")
-                || !config.getBool("Disabled_Trigger_Checks.Standing_And_Walking")
-                || !config.getBool("Disabled_Trigger_Checks.Jump")
-                || !config.getBool("Disabled_Trigger_Checks.Double_Jump")) {
-
-            this.moveTask = new MoveTask(this).runTaskTimer(WeaponMechanics.getPlugin(), 0, MOVE_TASK_INTERVAL).getTaskId();
-        }
+        MoveTracker moveTracker = WeaponMechanics.getMoveTracker();
+        if (moveTracker != null)
+            moveTracker.track(this);
     }
 
     public LivingEntity getEntity() {
         return this.entity;
     }
 
+    /**
+     * Movement is no longer tracked by a task per entity.
+     *
+     * @return 0
+     * @deprecated Use {@link WeaponMechanics#getMoveTracker()}
+     */
+    @Deprecated
     public int getMoveTaskId() {
-        return this.moveTask;
+        return 0;
     }
 
     /**
@@ -1,6 +1,8 @@
 package me.deecaad.weaponmechanics.wrappers;
 
 import me.deecaad.weaponmechanics.WeaponMechanics;
+import me.deecaad.weaponmechanics.weapon.WeaponDefinition;
+import me.deecaad.weaponmechanics.weapon.info.InfoHandler;
 import me.deecaad.weaponmechanics.weapon.shoot.FullAutoTask;
 import me.deecaad.weaponmechanics.weapon.shoot.recoil.RecoilTask;
 import me.deecaad.weaponmechanics.weapon.weaponevents.WeaponReloadCancelEvent;
@@ -50,6 +52,10 @@ public class HandData {
     private final Set<Integer> firearmActionTasks = new HashSet<>();
 
     private String currentWeaponTitle;
+    private int currentWeaponId = -1;
+
+    // Decoded tags of the weapon being shot, written back by flushWeaponState()
+    private WeaponState weaponState;
 
     public HandData(EntityWrapper entityWrapper, boolean mainhand) {
         this.entityWrapper = entityWrapper;
@@ -82,6 +88,7 @@ public class HandData {
      * @param trySkinUpdate whether to also try to update skin
      */
     public void cancelTasks(boolean trySkinUpdate) {
+        flushWeaponState();
         if (fullAutoTaskId != 0) {
             Bukkit.getScheduler().cancelTask(fullAutoTaskId);
             fullAutoTaskId = 0;
@@ -243,6 +250,7 @@ public class HandData {
     }
 
     public void finishReload() {
+        flushWeaponState();
         if (!reloadTasks.isEmpty()) {
             for (int task : reloadTasks) {
                 Bukkit.getScheduler().cancelTask(task);
@@ -346,5 +354,77 @@ public class HandData {
 
     public void setCurrentWeaponTitle(String currentWeaponTitle) {
         this.currentWeaponTitle = currentWeaponTitle;
+
+        WeaponDefinition definition = WeaponMechanics.getWeaponHandler().getInfoHandler().getWeaponDefinition(currentWeaponTitle);
+        this.currentWeaponId = definition == null ? -1 : definition.getId();
+    }
+
+    /**
+     * Returns the interned id of the weapon currently held in this hand, or
+     * -1 if this hand is not holding a weapon.
+     *
+     * @return The weapon id.
+     * @see WeaponDefinition#getId()
+     */
+    public int getCurrentWeaponId() {
+        return currentWeaponId;
+    }
+
+    /**
+     * Returns the compiled definition of the weapon in this hand, if the
+     * weapon in this hand is the given weapon. When the hand holds something
+     * else, the definition is looked up by the title instead.
+     *
+     * @param weaponTitle The weapon title being used.
+     * @return The compiled definition, or null if the weapon is not registered.
+     */
+    @Nullable
+    public WeaponDefinition getWeaponDefinition(String weaponTitle) {
+        InfoHandler infoHandler = WeaponMechanics.getWeaponHandler().getInfoHandler();
+        WeaponDefinition definition = infoHandler.getWeaponDefinition(currentWeaponId);
+        if (definition != null && definition.getWeaponTitle().equals(weaponTitle))
+            return definition;
+
+        return infoHandler.getWeaponDefinition(weaponTitle);
+    }
+
+    /**
+     * Caches the tags of the given weapon, so reading and changing them (ammo,
+     * durability, etc.) does not decode and encode the item's meta every
+     * time. Changes are only written to the item when
+     * {@link #flushWeaponState()} is called, so the state should be flushed
+     * before the end of the tick.
+     *
+     * @param weaponStack The non-null weapon held in this hand.
+     * @see WeaponState
+     */
+    public void cacheWeaponState(ItemStack weaponStack) {
+        if (weaponState != null && weaponState.getItem() == weaponStack)
+            return;
+
+        flushWeaponState();
+        weaponState = WeaponState.cache(weaponStack);
+    }
+
+    /**
+     * Returns the weapon whose tags are currently cached by this hand. Reads
+     * from this item instance use the cached tags.
+     *
+     * @return The cached weapon, or null.
+     */
+    @Nullable
+    public ItemStack getCachedWeaponStack() {
+        return weaponState == null ? null : weaponState.getItem();
+    }
+
+    /**
+     * Writes the changes made to the cached weapon back to the item, and
+     * stops caching it.
+     */
+    public void flushWeaponState() {
+        if (weaponState != null) {
+            weaponState.flush();
+            weaponState = null;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,345 @@
+package me.deecaad.weaponmechanics.wrappers;
+
+import me.deecaad.core.compatibility.CompatibilityAPI;
+import me.deecaad.core.compatibility.HitBox;
+import me.deecaad.core.compatibility.block.BlockCompatibility;
+import me.deecaad.core.file.Configuration;
+import me.deecaad.weaponmechanics.WeaponMechanics;
+import me.deecaad.weaponmechanics.events.PlayerJumpEvent;
+import me.deecaad.weaponmechanics.weapon.weaponevents.WeaponStopShootingEvent;
+import org.bukkit.Bukkit;
+import org.bukkit.GameMode;
+import org.bukkit.Location;
+import org.bukkit.Statistic;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.Waterlogged;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * This class is run once for every Minecraft Server tick, and updates the
+ * movement state (standing, walking, in midair, swimming, jumping) of every
+ * tracked {@link EntityWrapper}. Instead of scheduling a task for every
+ * entity, wrappers {@link #track(EntityWrapper) register} here.
+ *
+ * <p>The last position and counters of each entity are stored in parallel
+ * arrays, indexed by {@link EntityWrapper#moveTrackerIndex}. Removing an
+ * entity moves the last entity into its index. Players are checked every
+ * tick, other entities are spread over {@link #getNonPlayerInterval()} ticks.
+ *
+ * <p>The <code>Disabled_Trigger_Checks</code> are read once when this
+ * runnable is created (during startup and /wm reload).
+ */
+public class MoveTracker extends BukkitRunnable {
+
+    private final boolean checkSwim;
+    private final boolean checkStandingAndWalking;
+    private final boolean checkInMidair;
+    private final boolean checkJump;
+    private final boolean checkDoubleJump;
+    private final int nonPlayerInterval;
+
+    private EntityWrapper[] wrappers = new EntityWrapper[64];
+    private boolean[] players = new boolean[64];
+    private double[] lastX = new double[64];
+    private double[] lastY = new double[64];
+    private double[] lastZ = new double[64];
+    private int[] sameMatches = new int[64];
+    private int[] jumps = new int[64];
+    private int[] groundTicks = new int[64];
+    private int size;
+
+    private int tick;
+
+    // Reused, so entity locations don't have to be cloned every tick
+    private final Location location = new Location(null, 0, 0, 0);
+
+    /**
+     * Initializes and registers this runnable. WeaponMechanics initializes
+     * one of these by default, use {@link WeaponMechanics#getMoveTracker()}.
+     *
+     * @param plugin The non-null plugin
+     * @param config The non-null config.yml configuration.
+     */
+    public MoveTracker(@NotNull Plugin plugin, @NotNull Configuration config) {
+        checkSwim = !config.getBool("Disabled_Trigger_Checks.Swim");
+        checkStandingAndWalking = !config.getBool("Disabled_Trigger_Checks.Standing_And_Walking");
+        checkInMidair = !config.getBool("Disabled_Trigger_Checks.In_Midair");
+        checkJump = !config.getBool("Disabled_Trigger_Checks.Jump");
+        checkDoubleJump = !config.getBool("Disabled_Trigger_Checks.Double_Jump");
+        nonPlayerInterval = Math.max(1, config.getInt("Non_Player_Movement_Check_Interval", 2));
+
+        runTaskTimer(plugin, 0, 0);
+    }
+
+    /**
+     * @return true if any movement trigger is checked
+     */
+    public boolean isEnabled() {
+        return checkInMidair || checkStandingAndWalking || checkJump || checkDoubleJump;
+    }
+
+    /**
+     * @return how often non-player entities are checked, in ticks
+     */
+    public int getNonPlayerInterval() {
+        return nonPlayerInterval;
+    }
+
+    /**
+     * @return the number of tracked entities
+     */
+    public int getTrackedEntities() {
+        return size;
+    }
+
+    /**
+     * Starts tracking the movement of the given entity. Does nothing if the
+     * entity is already tracked, or if every movement trigger is disabled.
+     *
+     * @param wrapper The non-null entity wrapper.
+     */
+    public void track(@NotNull EntityWrapper wrapper) {
+        if (wrapper.moveTrackerIndex != -1 || !isEnabled())
+            return;
+
+        if (size == wrappers.length)
+            grow();
+
+        int index = size++;
+        LivingEntity entity = wrapper.getEntity();
+        entity.getLocation(location);
+
+        wrappers[index] = wrapper;
+        players[index] = entity instanceof Player;
+        lastX[index] = location.getX();
+        lastY[index] = location.getY();
+        lastZ[index] = location.getZ();
+        sameMatches[index] = 0;
+        jumps[index] = entity instanceof Player player ? player.getStatistic(Statistic.JUMP) : -1;
+        groundTicks[index] = 0;
+        wrapper.moveTrackerIndex = index;
+    }
+
+    /**
+     * Stops tracking the movement of the given entity.
+     *
+     * @param wrapper The non-null entity wrapper.
+     */
+    public void untrack(@NotNull EntityWrapper wrapper) {
+        int index = wrapper.moveTrackerIndex;
+        if (index == -1 || wrappers[index] != wrapper)
+            return;
+
+        // Move the last entity into the removed entity's index
+        int last = --size;
+        if (index != last) {
+            EntityWrapper moved = wrappers[last];
+            wrappers[index] = moved;
+            players[index] = players[last];
+            lastX[index] = lastX[last];
+            lastY[index] = lastY[last];
+            lastZ[index] = lastZ[last];
+            sameMatches[index] = sameMatches[last];
+            jumps[index] = jumps[last];
+            groundTicks[index] = groundTicks[last];
+            moved.moveTrackerIndex = index;
+        }
+
+        wrappers[last] = null;
+        wrapper.moveTrackerIndex = -1;
+    }
+
+    private void grow() {
+        int length = wrappers.length * 2;
+        wrappers = Arrays.copyOf(wrappers, length);
+        players = Arrays.copyOf(players, length);
+        lastX = Arrays.copyOf(lastX, length);
+        lastY = Arrays.copyOf(lastY, length);
+        lastZ = Arrays.copyOf(lastZ, length);
+        sameMatches = Arrays.copyOf(sameMatches, length);
+        jumps = Arrays.copyOf(jumps, length);
+        groundTicks = Arrays.copyOf(groundTicks, length);
+    }
+
+    /**
+     * This method will always be run on the main server thread
+     */
+    @Override
+    public void run() {
+        tick++;
+
+        // Events called while ticking may remove any entity. When the current
+        // entity is removed, the entity moved into its index is ticked next.
+        for (int i = 0; i < size; ) {
+            EntityWrapper wrapper = wrappers[i];
+            if (players[i] || (i + tick) % nonPlayerInterval == 0)
+                tick(i, wrapper);
+
+            if (i < size && wrappers[i] == wrapper)
+                i++;
+        }
+    }
+
+    private void tick(int i, EntityWrapper wrapper) {
+        LivingEntity entity = wrapper.getEntity();
+        if (entity == null || !entity.isValid() || entity.isDead()) { // Just an extra check in case something odd happened
+
+            // Only stop tracking IF it isn't player, otherwise just don't do anything
+            if (!players[i]) untrack(wrapper);
+
+            return;
+        }
+
+        handleStopShooting(wrapper, wrapper.getHandData(true));
+        handleStopShooting(wrapper, wrapper.getHandData(false));
+        if (wrapper.moveTrackerIndex != i)
+            return;
+
+        entity.getLocation(location);
+        double fromY = lastY[i];
+        boolean moved = Double.doubleToLongBits(lastX[i]) != Double.doubleToLongBits(location.getX())
+                || Double.doubleToLongBits(fromY) != Double.doubleToLongBits(location.getY())
+                || Double.doubleToLongBits(lastZ[i]) != Double.doubleToLongBits(location.getZ());
+
+        lastX[i] = location.getX();
+        lastY[i] = location.getY();
+        lastZ[i] = location.getZ();
+
+        if (checkSwim && isSwimming(entity)) {
+            wrapper.setSwimming(true);
+
+            // -> Can't be walking, standing, in mid air at same time
+            return;
+        }
+
+        // Every counter is updated before calling any event, since the
+        // events may move this entity to another index
+        Block current = location.getBlock();
+        boolean inMidair = isInMidair(current);
+        boolean standing = false;
+        boolean walking = false;
+        if (checkStandingAndWalking) {
+            sameMatches[i] = moved ? 0 : sameMatches[i] + 1;
+            if (sameMatches[i] > 3)
+                standing = true;
+            else if (!inMidair)
+                walking = true; // Only walking if not in mid air
+        }
+
+        // Needed for double jump
+        int ground = 0;
+        boolean jumped = false;
+        if (!standing) {
+            ground = groundTicks[i] = inMidair ? 0 : groundTicks[i] + 1;
+
+            if (players[i] && jumps[i] != -1 && checkJump && fromY < location.getY() && !current.isLiquid()) {
+                int currentJumps = ((Player) entity).getStatistic(Statistic.JUMP);
+                if (currentJumps != jumps[i]) {
+                    jumps[i] = currentJumps;
+                    double yChange = location.getY() - fromY;
+                    jumped = (yChange < 0.035 || yChange > 0.037) && (yChange < 0.116 || yChange > 0.118);
+                }
+            }
+        }
+
+        if (checkSwim)
+            wrapper.setSwimming(false);
+
+        if (standing) {
+            wrapper.setStanding(true);
+
+            // -> Can't be walking, swimming, in mid air at same time
+            // Swimming is already returned above if it was true
+            return;
+        } else if (walking) {
+            wrapper.setWalking(true);
+        }
+
+        if (checkInMidair)
+            wrapper.setInMidair(inMidair);
+
+        if (!(entity instanceof Player player))
+            return;
+
+        if (jumped)
+            Bukkit.getPluginManager().callEvent(new PlayerJumpEvent(player, false));
+
+        if (checkDoubleJump && (player.getGameMode() == GameMode.SURVIVAL || player.getGameMode() == GameMode.ADVENTURE)) {
+            if (player.getFallDistance() > 3.0) {
+                // https://minecraft.gamepedia.com/Damage#Fall_damage
+                // Fall damage is 1♥ for each block of fall distance after the third. Thus, falling 4 blocks causes 1♥ damage, 2♥ damage for 5 blocks, and so forth.
+
+                // This enables fall damage for player. Double jump has to be made BEFORE falling more than 3 blocks
+
+                if (player.getAllowFlight()) {
+                    player.setAllowFlight(false);
+                }
+            } else if (!player.getAllowFlight() && ground > 3) {
+                // Only give double jump ability if been on ground for at least 3 ticks
+                player.setAllowFlight(true);
+            }
+        }
+    }
+
+    /**
+     * Basically checks if entity is in mid air.
+     * Mid air is determined on if current block in entity's position doesn't have hit box and block below that doesn't have hit box either
+     */
+    private static boolean isInMidair(Block current) {
+        Block below = current.getRelative(BlockFace.DOWN);
+
+        // Check for liquid as hit boxes are considered null if block is liquid
+        if (current.isLiquid() || below.isLiquid()) return false;
+
+        BlockCompatibility blockCompatibility = CompatibilityAPI.getBlockCompatibility();
+
+        HitBox belowHitBox = blockCompatibility.getHitBox(below);
+        HitBox currentHitBox = blockCompatibility.getHitBox(current);
+        return belowHitBox == null && currentHitBox == null;
+    }
+
+    private static void handleStopShooting(EntityWrapper entityWrapper, HandData handData) {
+        // Already fired the event
+        if (handData.isFiredWeaponStopShootEvent())
+            return;
+        // Haven't shot the gun
+        if (handData.getLastWeaponShotTitle() == null || handData.getLastWeaponShot() == null)
+            return;
+        // Hasn't been 1 second since they stopped shooting
+        if (System.currentTimeMillis() - handData.getLastShotTime() <= 1200L)
+            return;
+
+        handData.setFiredWeaponStopShootEvent(true);
+        WeaponStopShootingEvent event = new WeaponStopShootingEvent(handData.getLastWeaponShotTitle(), handData.getLastWeaponShot(), entityWrapper.getEntity(), handData.isMainhand() ? EquipmentSlot.HAND : EquipmentSlot.OFF_HAND, handData.getLastShotTime());
+        Bukkit.getPluginManager().callEvent(event);
+    }
+
+    private static boolean isSwimming(LivingEntity livingEntity) {
+        if (livingEntity.isInsideVehicle()) return false;
+
+        // 1.13 introduced block data for blocks like stairs and slabs, and can
+        // be waterlogged. 1.13 also introduced the swimming mechanic.
+        if (CompatibilityAPI.getVersion() >= 1.13) {
+            if (livingEntity.isSwimming())
+                return true;
+
+            // We only care about the block the entity's head is in, since you
+            // (mostly) fire a gun from the shoulder/upper body.
+            Block block = livingEntity.getEyeLocation().getBlock();
+            BlockData data = block.getBlockData();
+            return block.isLiquid() || (data instanceof Waterlogged && ((Waterlogged) data).isWaterlogged());
+        }
+
+        // On versions below 1.13
+        return livingEntity.getEyeLocation().getBlock().isLiquid();
+    }
+}
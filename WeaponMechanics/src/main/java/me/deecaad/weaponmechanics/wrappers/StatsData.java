@@ -8,13 +8,49 @@ import java.util.function.BiFunction;
 
 import static org.bukkit.ChatColor.*;
 
+/**
+ * Stores the stats of 1 player. Stats are stored in primitive arrays, each
+ * stat has a slot (based on its ordinal) in the array of its type. Stats
+ * which have never been changed are stored as 0 (or null), which is the
+ * same as not having the stat at all.
+ */
 public class StatsData {
 
+    // The slot of each stat in the array of its type, indexed by ordinal
+    private static final int[] PLAYER_SLOTS = new int[PlayerStat.VALUES.length];
+    private static final int[] WEAPON_SLOTS = new int[WeaponStat.VALUES.length];
+    private static final int PLAYER_INTS, PLAYER_FLOATS, PLAYER_OBJECTS;
+    private static final int WEAPON_INTS, WEAPON_FLOATS, WEAPON_OBJECTS;
+
+    static {
+        int ints = 0, floats = 0, objects = 0;
+        for (PlayerStat stat : PlayerStat.VALUES) {
+            Class<?> type = stat.getClassType();
+            PLAYER_SLOTS[stat.ordinal()] = type == Integer.class ? ints++ : type == Float.class ? floats++ : objects++;
+        }
+        PLAYER_INTS = ints;
+        PLAYER_FLOATS = floats;
+        PLAYER_OBJECTS = objects;
+
+        ints = floats = objects = 0;
+        for (WeaponStat stat : WeaponStat.VALUES) {
+            Class<?> type = stat.getClassType();
+            WEAPON_SLOTS[stat.ordinal()] = type == Integer.class ? ints++ : type == Float.class ? floats++ : objects++;
+        }
+        WEAPON_INTS = ints;
+        WEAPON_FLOATS = floats;
+        WEAPON_OBJECTS = objects;
+    }
+
     private final UUID uuid;
-    private Map<PlayerStat, Object> playerData;
-    private Map<String, Map<WeaponStat, Object>> weaponData;
+    private Row playerData;
+    private Map<String, Row> weaponData;
     private boolean isSync;
 
+    // The row of the last used weapon, since stats of 1 weapon are usually
+    // changed many times in a row (e.g. every hit of a shotgun)
+    private Row lastWeapon;
+
     public StatsData(UUID uuid) {
         this.uuid = uuid;
     }
@@ -35,8 +71,9 @@ public class StatsData {
      */
     public void add(PlayerStat stat, int data) {
         if (!isSync) return;
-        if (!stat.getClassType().isInstance(data)) throw new IllegalArgumentException("Tried to give invalid data for stat " + stat + " " + data);
-        playerData.compute(stat, (key, value) -> value == null ? data : (int) value + data);
+        if (stat.getClassType() != Integer.class) throw new IllegalArgumentException("Tried to give invalid data for stat " + stat + " " + data);
+        playerData.ints[PLAYER_SLOTS[stat.ordinal()]] += data;
+        playerData.dirty = true;
     }
 
     /**
@@ -48,8 +85,9 @@ public class StatsData {
      */
     public void add(PlayerStat stat, float data) {
         if (!isSync) return;
-        if (!stat.getClassType().isInstance(data)) throw new IllegalArgumentException("Tried to give invalid data for stat " + stat + " " + data);
-        playerData.compute(stat, (key, value) -> value == null ? data : (float) value + data);
+        if (stat.getClassType() != Float.class) throw new IllegalArgumentException("Tried to give invalid data for stat " + stat + " " + data);
+        playerData.floats[PLAYER_SLOTS[stat.ordinal()]] += data;
+        playerData.dirty = true;
     }
 
     /**
@@ -61,8 +99,9 @@ public class StatsData {
      */
     public void set(PlayerStat stat, String data) {
         if (!isSync) return;
-        if (!stat.getClassType().isInstance(data)) throw new IllegalArgumentException("Tried to give invalid data for stat " + stat + " " + data);
-        playerData.put(stat, data);
+        if (stat.getClassType() != String.class) throw new IllegalArgumentException("Tried to give invalid data for stat " + stat + " " + data);
+        playerData.objects[PLAYER_SLOTS[stat.ordinal()]] = data;
+        playerData.dirty = true;
     }
 
     /**
@@ -88,7 +127,7 @@ public class StatsData {
     public Object get(PlayerStat stat, Object defaultValue) {
         if (!isSync) return defaultValue;
         if (stat == PlayerStat.UUID) return uuid;
-        return playerData.getOrDefault(stat, defaultValue);
+        return playerData.get(stat.getClassType(), PLAYER_SLOTS[stat.ordinal()], defaultValue);
     }
 
     /**
@@ -101,9 +140,10 @@ public class StatsData {
      */
     public void add(String weaponTitle, WeaponStat stat, int data) {
         if (!isSync) return;
-        if (!stat.getClassType().isInstance(data)) throw new IllegalArgumentException("Tried to give invalid data for stat " + stat + " " + data);
-        weaponData.putIfAbsent(weaponTitle, new HashMap<>());
-        weaponData.get(weaponTitle).compute(stat, (key, value) -> value == null ? data : (int) value + data);
+        if (stat.getClassType() != Integer.class) throw new IllegalArgumentException("Tried to give invalid data for stat " + stat + " " + data);
+        Row row = getWeaponRow(weaponTitle);
+        row.ints[WEAPON_SLOTS[stat.ordinal()]] += data;
+        row.dirty = true;
     }
 
     /**
@@ -116,9 +156,30 @@ public class StatsData {
      */
     public void add(String weaponTitle, WeaponStat stat, float data) {
         if (!isSync) return;
-        if (!stat.getClassType().isInstance(data)) throw new IllegalArgumentException("Tried to give invalid data for stat " + stat + " " + data);
-        weaponData.putIfAbsent(weaponTitle, new HashMap<>());
-        weaponData.get(weaponTitle).compute(stat, (key, value) -> value == null ? data : (float) value + data);
+        if (stat.getClassType() != Float.class) throw new IllegalArgumentException("Tried to give invalid data for stat " + stat + " " + data);
+        Row row = getWeaponRow(weaponTitle);
+        row.floats[WEAPON_SLOTS[stat.ordinal()]] += data;
+        row.dirty = true;
+    }
+
+    /**
+     * Sets the weapon's weapon stat to the given value, if the given value is
+     * bigger than the current value (e.g. longest distance hit).
+     * Doesn't do anything if this hasn't yet been synced with database.
+     *
+     * @param weaponTitle the weapon title
+     * @param stat the stat
+     * @param data the new value
+     */
+    public void max(String weaponTitle, WeaponStat stat, float data) {
+        if (!isSync) return;
+        if (stat.getClassType() != Float.class) throw new IllegalArgumentException("Tried to give invalid data for stat " + stat + " " + data);
+        Row row = getWeaponRow(weaponTitle);
+        int slot = WEAPON_SLOTS[stat.ordinal()];
+        if (data > row.floats[slot]) {
+            row.floats[slot] = data;
+            row.dirty = true;
+        }
     }
 
     /**
@@ -129,11 +190,16 @@ public class StatsData {
      * @param weaponTitle the weapon title
      * @param stat the stat
      * @param compute the BiFunction
+     * @see #max(String, WeaponStat, float)
      */
     public void set(String weaponTitle, WeaponStat stat, BiFunction<WeaponStat, Object, Float> compute) {
         if (!isSync) return;
-        weaponData.putIfAbsent(weaponTitle, new HashMap<>());
-        weaponData.get(weaponTitle).compute(stat, compute);
+        if (stat.getClassType() != Float.class) throw new IllegalArgumentException("Tried to compute non float stat " + stat);
+        Row row = getWeaponRow(weaponTitle);
+        int slot = WEAPON_SLOTS[stat.ordinal()];
+        Float value = compute.apply(stat, row.get(Float.class, slot, null));
+        row.floats[slot] = value == null ? 0.0f : value;
+        row.dirty = true;
     }
 
     /**
@@ -146,9 +212,10 @@ public class StatsData {
      */
     public void set(String weaponTitle, WeaponStat stat, String data) {
         if (!isSync) return;
-        if (!stat.getClassType().isInstance(data)) throw new IllegalArgumentException("Tried to give invalid data for stat " + stat + " " + data);
-        weaponData.putIfAbsent(weaponTitle, new HashMap<>());
-        weaponData.get(weaponTitle).put(stat, data);
+        if (stat.getClassType() != String.class) throw new IllegalArgumentException("Tried to give invalid data for stat " + stat + " " + data);
+        Row row = getWeaponRow(weaponTitle);
+        row.objects[WEAPON_SLOTS[stat.ordinal()]] = data;
+        row.dirty = true;
     }
 
     /**
@@ -159,17 +226,15 @@ public class StatsData {
      * @param stat the stat
      * @param data the data to add
      */
+    @SuppressWarnings("unchecked")
     public void addToSet(String weaponTitle, WeaponStat stat, String data) {
         if (!isSync) return;
         if (stat.getClassType() != Set.class) throw new IllegalArgumentException("Tried to add to set when stat wasn't set " + stat + " " + data);
-        weaponData.putIfAbsent(weaponTitle, new HashMap<>());
-        Map<WeaponStat, Object> dataMap = weaponData.get(weaponTitle);
-        Object mapData = dataMap.get(stat);
-        if (mapData == null) {
-            dataMap.put(stat, new HashSet<>(Collections.singleton(data)));
-            return;
-        }
-        ((Set<String>) mapData).add(data);
+        Row row = getWeaponRow(weaponTitle);
+        int slot = WEAPON_SLOTS[stat.ordinal()];
+        if (row.objects[slot] == null) row.objects[slot] = new HashSet<String>();
+        ((Set<String>) row.objects[slot]).add(data);
+        row.dirty = true;
     }
 
     /**
@@ -180,13 +245,15 @@ public class StatsData {
      * @param stat the stat
      * @param data the data to remove
      */
+    @SuppressWarnings("unchecked")
     public void removeFromSet(String weaponTitle, WeaponStat stat, String data) {
         if (!isSync) return;
         if (stat.getClassType() != Set.class) throw new IllegalArgumentException("Tried to remove from set when stat wasn't set " + stat + " " + data);
-        Map<WeaponStat, Object> dataMap = weaponData.get(weaponTitle);
-        if (dataMap == null || !dataMap.containsKey(stat)) return;
-        Set<String> dataSet = (Set<String>) dataMap.get(stat);
-        dataSet.remove(data);
+        Row row = weaponData.get(weaponTitle);
+        if (row == null) return;
+        Set<String> dataSet = (Set<String>) row.objects[WEAPON_SLOTS[stat.ordinal()]];
+        if (dataSet != null && dataSet.remove(data))
+            row.dirty = true;
     }
 
     /**
@@ -224,10 +291,57 @@ public class StatsData {
         if (stat == WeaponStat.UUID) return uuid;
         if (stat == WeaponStat.WEAPON_TITLE) return weaponTitle;
 
-        Map<WeaponStat, Object> data = weaponData.get(weaponTitle);
-        if (data == null) return defaultValue;
+        Row row = weaponData.get(weaponTitle);
+        if (row == null) return defaultValue;
+
+        return row.get(stat.getClassType(), WEAPON_SLOTS[stat.ordinal()], defaultValue);
+    }
+
+    /**
+     * @return true if the player stats changed since {@link #clearDirty()}
+     */
+    public boolean isPlayerDirty() {
+        return isSync && playerData.dirty;
+    }
+
+    /**
+     * Returns the titles of the weapons whose stats changed since
+     * {@link #clearDirty()}.
+     *
+     * @return the non-null set of weapon titles
+     */
+    public Set<String> getDirtyWeapons() {
+        if (!isSync) return Collections.emptySet();
+
+        Set<String> dirty = new HashSet<>();
+        for (Map.Entry<String, Row> entry : weaponData.entrySet()) {
+            if (entry.getValue().dirty) dirty.add(entry.getKey());
+        }
+        return dirty;
+    }
+
+    /**
+     * @return true if any stat changed since {@link #clearDirty()}
+     */
+    public boolean isDirty() {
+        if (!isSync) return false;
+        if (playerData.dirty) return true;
+        for (Row row : weaponData.values()) {
+            if (row.dirty) return true;
+        }
+        return false;
+    }
 
-        return data.getOrDefault(stat, defaultValue);
+    /**
+     * Marks every stat as saved. Called after the changed stats have been
+     * queued to be written to the database.
+     */
+    public void clearDirty() {
+        if (!isSync) return;
+        playerData.dirty = false;
+        for (Row row : weaponData.values()) {
+            row.dirty = false;
+        }
     }
 
     /**
@@ -242,37 +356,117 @@ public class StatsData {
         if (playerData == null) throw new IllegalArgumentException("Tried to set null value for player data");
         if (weaponData == null) throw new IllegalArgumentException("Tried to set null value for weapon data");
 
-        this.playerData = playerData;
-        this.weaponData = weaponData;
+        Row player = new Row(PLAYER_INTS, PLAYER_FLOATS, PLAYER_OBJECTS);
+        for (Map.Entry<PlayerStat, Object> entry : playerData.entrySet()) {
+            player.set(entry.getKey().getClassType(), PLAYER_SLOTS[entry.getKey().ordinal()], entry.getValue());
+        }
+
+        Map<String, Row> weapons = new HashMap<>();
+        for (Map.Entry<String, Map<WeaponStat, Object>> weapon : weaponData.entrySet()) {
+            Row row = new Row(WEAPON_INTS, WEAPON_FLOATS, WEAPON_OBJECTS);
+            row.weaponTitle = weapon.getKey();
+            for (Map.Entry<WeaponStat, Object> entry : weapon.getValue().entrySet()) {
+                row.set(entry.getKey().getClassType(), WEAPON_SLOTS[entry.getKey().ordinal()], entry.getValue());
+            }
+            weapons.put(weapon.getKey(), row);
+        }
+
+        this.playerData = player;
+        this.weaponData = weapons;
         isSync = true;
     }
 
     public List<String> getPlayerData() {
         if (!isSync) return null;
-        if (playerData.isEmpty()) return null;
         List<String> data = new ArrayList<>();
-        for (Map.Entry<PlayerStat, Object> entry : playerData.entrySet()) {
-            data.add("" + GOLD + entry.getKey() + ": " + GRAY + entry.getValue());
+        for (PlayerStat stat : PlayerStat.VALUES) {
+            if (stat == PlayerStat.UUID) continue;
+            Object value = playerData.get(stat.getClassType(), PLAYER_SLOTS[stat.ordinal()], null);
+            if (value != null) data.add("" + GOLD + stat + ": " + GRAY + value);
         }
-        return data;
+        return data.isEmpty() ? null : data;
     }
 
     public List<String> getWeaponData(String weapon) {
         if (!isSync) return null;
-        Map<WeaponStat, Object> data = weaponData.get(weapon);
-        if (data == null || data.isEmpty()) return null;
+        Row row = weaponData.get(weapon);
+        if (row == null) return null;
         List<String> dataList = new ArrayList<>();
-        for (Map.Entry<WeaponStat, Object> entry : data.entrySet()) {
-            dataList.add("" + GOLD + entry.getKey() + ": " + GRAY + entry.getValue());
+        for (WeaponStat stat : WeaponStat.VALUES) {
+            if (stat == WeaponStat.UUID || stat == WeaponStat.WEAPON_TITLE) continue;
+            Object value = row.get(stat.getClassType(), WEAPON_SLOTS[stat.ordinal()], null);
+            if (value != null) dataList.add("" + GOLD + stat + ": " + GRAY + value);
         }
-        return dataList;
+        return dataList.isEmpty() ? null : dataList;
+    }
+
+    private Row getWeaponRow(String weaponTitle) {
+        Row row = lastWeapon;
+        if (row != null && row.weaponTitle.equals(weaponTitle))
+            return row;
+
+        row = weaponData.get(weaponTitle);
+        if (row == null) {
+            row = new Row(WEAPON_INTS, WEAPON_FLOATS, WEAPON_OBJECTS);
+            row.weaponTitle = weaponTitle;
+            weaponData.put(weaponTitle, row);
+        }
+        return lastWeapon = row;
     }
 
     @Override
     public String toString() {
-        return "StatsData{" +
-                "playerData=" + playerData +
-                ", weaponData=" + weaponData +
-                '}';
+        StringBuilder builder = new StringBuilder("StatsData{playerData=").append(getPlayerData()).append(", weaponData={");
+        if (isSync) {
+            for (String weapon : weaponData.keySet()) {
+                builder.append(weapon).append('=').append(getWeaponData(weapon)).append(", ");
+            }
+        }
+        return builder.append("}}").toString();
+    }
+
+    /**
+     * The stats of the player, or of 1 weapon.
+     */
+    private static final class Row {
+
+        private final int[] ints;
+        private final float[] floats;
+        private final Object[] objects;
+        private String weaponTitle;
+        private boolean dirty;
+
+        private Row(int ints, int floats, int objects) {
+            this.ints = new int[ints];
+            this.floats = new float[floats];
+            this.objects = new Object[objects];
+        }
+
+        /**
+         * Returns the boxed value of the slot, or the default value when the
+         * slot is 0 or null.
+         */
+        private Object get(Class<?> type, int slot, Object defaultValue) {
+            if (type == Integer.class) {
+                int value = ints[slot];
+                return value == 0 ? defaultValue : value;
+            } else if (type == Float.class) {
+                float value = floats[slot];
+                return value == 0.0f ? defaultValue : value;
+            } else {
+                Object value = objects[slot];
+                return value == null ? defaultValue : value;
+            }
+        }
+
+        private void set(Class<?> type, int slot, Object value) {
+            if (type == Integer.class) {
+                ints[slot] = ((Number) value).intValue();
+            } else if (type == Float.class) {
+                floats[slot] = ((Number) value).floatValue();
+            } else {
+                objects[slot] = value;
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,209 @@
+package me.deecaad.weaponmechanics.wrappers;
+
+import me.deecaad.core.utils.ReflectionUtil;
+import me.deecaad.weaponmechanics.utils.CustomTag;
+import org.bukkit.Bukkit;
+import org.bukkit.NamespacedKey;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Caches the decoded {@link CustomTag tags} of 1 weapon item while it is
+ * being used by a {@link HandData}. Every tag is read from the item's meta
+ * once, {@link CustomTag} reads and writes on the same item are served from
+ * memory, and all changes are written back to the item in 1 meta update when
+ * {@link #flush()} is called.
+ *
+ * <p>Bukkit returns a new {@link ItemStack} every time an item is taken from
+ * an inventory, so states are bound to the exact item instance they were
+ * read from. Other instances of the same item always read the real meta,
+ * which is why states should be flushed before giving control back to the
+ * server (end of the tick, end of the shot, etc.).
+ *
+ * <p>Only the tags which change while shooting are cached. This class is
+ * only used on 1.14+ servers, from the main server thread.
+ */
+public final class WeaponState {
+
+    // Tags which are cached, the index of each tag is its slot
+    private static final CustomTag[] TAGS = {CustomTag.WEAPON_TITLE, CustomTag.AMMO_LEFT, CustomTag.AMMO_TYPE_INDEX,
+            CustomTag.SELECTIVE_FIRE, CustomTag.FIREARM_ACTION_STATE, CustomTag.DURABILITY};
+    private static final int[] SLOTS = new int[CustomTag.values().length];
+    private static final int TITLE = 0;
+
+    private static final Map<ItemStack, WeaponState> CACHED = new IdentityHashMap<>();
+
+    static {
+        Arrays.fill(SLOTS, -1);
+        for (int i = 0; i < TAGS.length; i++)
+            SLOTS[TAGS[i].ordinal()] = i;
+    }
+
+    private final ItemStack item;
+    private String title;
+    private final int[] values = new int[TAGS.length];
+
+    // Bit masks, indexed by slot
+    private int present;
+    private int dirty;
+
+    private WeaponState(ItemStack item, ItemMeta meta) {
+        this.item = item;
+
+        PersistentDataContainer nbt = meta.getPersistentDataContainer();
+        NamespacedKey titleKey = CustomTag.WEAPON_TITLE.getNamespacedKey();
+        if (nbt.has(titleKey, PersistentDataType.STRING)) {
+            title = nbt.get(titleKey, PersistentDataType.STRING);
+            present |= 1 << TITLE;
+        }
+
+        for (int i = TITLE + 1; i < TAGS.length; i++) {
+            NamespacedKey key = TAGS[i].getNamespacedKey();
+            if (nbt.has(key, PersistentDataType.INTEGER)) {
+                values[i] = nbt.get(key, PersistentDataType.INTEGER);
+                present |= 1 << i;
+            }
+        }
+    }
+
+    /**
+     * Reads the state of the given item, and caches it until {@link #flush()}
+     * is called. If the item is already cached, the cached state is returned.
+     *
+     * @param item The non-null weapon item.
+     * @return The cached state, or null if the item cannot be cached.
+     */
+    @Nullable
+    public static WeaponState cache(@NotNull ItemStack item) {
+        WeaponState state = CACHED.get(item);
+        if (state != null)
+            return state;
+
+        // PersistentDataContainer was added in 1.14, and off thread calls
+        // would race with the main thread
+        if (ReflectionUtil.getMCVersion() < 14 || !Bukkit.isPrimaryThread())
+            return null;
+
+        ItemMeta meta = item.getItemMeta();
+        if (meta == null)
+            return null;
+
+        state = new WeaponState(item, meta);
+        CACHED.put(item, state);
+        return state;
+    }
+
+    /**
+     * Returns the cached state of the given item instance, if the given tag
+     * is cached.
+     *
+     * @param item The item to get the state of.
+     * @param tag  The non-null tag being accessed.
+     * @return The cached state, or null.
+     */
+    @Nullable
+    public static WeaponState getCached(ItemStack item, @NotNull CustomTag tag) {
+        if (CACHED.isEmpty() || SLOTS[tag.ordinal()] == -1 || !Bukkit.isPrimaryThread())
+            return null;
+
+        return CACHED.get(item);
+    }
+
+    /**
+     * @return The non-null item this state was read from.
+     */
+    @NotNull
+    public ItemStack getItem() {
+        return item;
+    }
+
+    public boolean has(@NotNull CustomTag tag) {
+        return (present & (1 << SLOTS[tag.ordinal()])) != 0;
+    }
+
+    public String getString(@NotNull CustomTag tag) {
+        return SLOTS[tag.ordinal()] == TITLE ? title : null;
+    }
+
+    public void setString(@NotNull CustomTag tag, String value) {
+        if (SLOTS[tag.ordinal()] != TITLE)
+            throw new IllegalArgumentException(tag + " is not a cached string");
+
+        title = value;
+        mark(TITLE, value != null);
+    }
+
+    public int getInteger(@NotNull CustomTag tag) {
+        int slot = SLOTS[tag.ordinal()];
+        return slot == TITLE || (present & (1 << slot)) == 0 ? 0 : values[slot];
+    }
+
+    public void setInteger(@NotNull CustomTag tag, int value) {
+        int slot = SLOTS[tag.ordinal()];
+        if (slot == TITLE)
+            throw new IllegalArgumentException(tag + " is not a cached integer");
+
+        values[slot] = value;
+        mark(slot, true);
+    }
+
+    public void remove(@NotNull CustomTag tag) {
+        int slot = SLOTS[tag.ordinal()];
+        if (slot == TITLE)
+            title = null;
+        mark(slot, false);
+    }
+
+    private void mark(int slot, boolean isPresent) {
+        if (isPresent)
+            present |= 1 << slot;
+        else
+            present &= ~(1 << slot);
+        dirty |= 1 << slot;
+    }
+
+    /**
+     * Writes every changed tag back to the item in 1 meta update, and stops
+     * caching the item. Tags which were not changed are left untouched, so
+     * changes made to the item by other plugins are not overridden.
+     */
+    public void flush() {
+        if (CACHED.get(item) == this)
+            CACHED.remove(item);
+
+        if (dirty == 0)
+            return;
+
+        // The item may have been consumed while it was cached
+        ItemMeta meta = item.getItemMeta();
+        if (meta == null) {
+            dirty = 0;
+            return;
+        }
+
+        PersistentDataContainer nbt = meta.getPersistentDataContainer();
+        for (int i = 0; i < TAGS.length; i++) {
+            if ((dirty & (1 << i)) == 0)
+                continue;
+
+            NamespacedKey key = TAGS[i].getNamespacedKey();
+            if ((present & (1 << i)) == 0)
+                nbt.remove(key);
+            else if (i == TITLE)
+                nbt.set(key, PersistentDataType.STRING, title);
+            else
+                nbt.set(key, PersistentDataType.INTEGER, values[i]);
+        }
+
+        item.setItemMeta(meta);
+        dirty = 0;
+    }
+}
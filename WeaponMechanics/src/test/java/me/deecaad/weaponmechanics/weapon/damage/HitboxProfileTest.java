@@ -0,0 +1,55 @@
+package me.deecaad.weaponmechanics.weapon.damage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HitboxProfileTest {
+
+    private static final double MIN_Y = 64.0;
+
+    @ParameterizedTest
+    @CsvSource({
+            "0.0, 1.0, 0.0, 0.0, 2.0, 65.99, BODY",  // ELDER_GUARDIAN
+            "0.0, 1.0, 0.0, 0.0, 2.0, 64.0, BODY",
+            "0.0, 0.5, 0.5, 0.0, 1.6, 65.5, BODY",   // SKELETON_HORSE
+            "0.0, 0.5, 0.5, 0.0, 1.6, 64.5, LEGS",
+            "0.0, 0.5, 0.5, 0.0, 1.6, 64.1, LEGS",
+            "0.3, 0.0, 0.7, 0.0, 1.0, 64.9, HEAD",   // No BODY
+            "0.3, 0.0, 0.7, 0.0, 1.0, 64.5, LEGS",
+            "0.1, 0.2, 0.3, 0.4, 1.0, 64.95, HEAD",
+            "0.1, 0.2, 0.3, 0.4, 1.0, 64.8, BODY",
+            "0.1, 0.2, 0.3, 0.4, 1.0, 64.5, LEGS",
+            "0.1, 0.2, 0.3, 0.4, 1.0, 64.2, FEET",
+            "0.0, 0.0, 0.0, 0.0, 1.8, 65.0, ",       // Not configured
+    })
+    public void test_getVerticalPoint(double head, double body, double legs, double feet, double height, double hitY, DamagePoint expected) {
+        HitboxProfile profile = new HitboxProfile(head, body, legs, feet, false, false);
+
+        assertEquals(expected, profile.getVerticalPoint(hitY, MIN_Y + height, height));
+    }
+
+    @Test
+    public void test_default() {
+        assertEquals(DamagePoint.BODY, HitboxProfile.DEFAULT.getVerticalPoint(65.99, MIN_Y + 2.0, 2.0));
+        assertEquals(DamagePoint.BODY, HitboxProfile.DEFAULT.getVerticalPoint(MIN_Y, MIN_Y + 2.0, 2.0));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "65.9, HEAD",
+            "65.5, BODY", // Boundaries belong to the lower point
+            "65.0, BODY",
+            "64.75, LEGS",
+            "64.5, LEGS",
+            "64.25, FEET",
+            "64.1, FEET",
+    })
+    public void test_witherSkeleton(double hitY, DamagePoint expected) {
+        HitboxProfile profile = new HitboxProfile(0.25, 0.375, 0.25, 0.125, true, false);
+
+        assertEquals(expected, profile.getVerticalPoint(hitY, MIN_Y + 2.0, 2.0));
+    }
+}
@@ -0,0 +1,135 @@
+package me.deecaad.weaponmechanics.weapon.explode.exposures;
+
+import me.deecaad.core.compatibility.HitBox;
+import me.deecaad.core.utils.VectorUtil;
+import org.bukkit.util.Vector;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExposureBatchTest {
+
+    private static final double ACCURACY = 0.3;
+
+    @ParameterizedTest
+    @CsvSource({
+            "1, 12, 0.3",
+            "2, 12, 0.1",
+            "3, 12, 0.6",
+            "4, 60, 0.2",  // Too big for the snapshot
+            "5, 60, 0.05", // Too big for the snapshot
+    })
+    public void test_sameAsRay(long seed, int size, double solidChance) {
+        Random random = new Random(seed);
+        Blocks blocks = new Blocks(random, solidChance);
+        Vector origin = randomPoint(random, size);
+
+        ExposureBatch batch = new ExposureBatch(blocks, origin.getX(), origin.getY(), origin.getZ(), ACCURACY);
+        int entities = 20;
+        int[] successful = new int[entities];
+        int[] total = new int[entities];
+        for (int i = 0; i < entities; i++) {
+            int index = batch.addEntity();
+
+            // Like OptimizedExposure, which has rays with different weights
+            for (int ray = 0; ray < 9; ray++) {
+                Vector target = randomPoint(random, size);
+                int hitWeight = ray == 8 ? 4 : 1;
+                int missWeight = ray == 8 ? 0 : 1;
+                batch.addRay(index, target.getX(), target.getY(), target.getZ(), hitWeight, missWeight);
+
+                if (isObstructed(blocks, origin, target)) {
+                    total[index] += missWeight;
+                } else {
+                    successful[index] += hitWeight;
+                    total[index] += hitWeight;
+                }
+            }
+        }
+
+        double[] exposures = batch.trace();
+        assertEquals(entities, exposures.length);
+        for (int i = 0; i < entities; i++)
+            assertEquals(total[i] == 0 ? 0.0 : (double) successful[i] / total[i], exposures[i], "Entity " + i);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "10",
+            "50", // Too big for the snapshot
+    })
+    public void test_reusedSnapshot(int size) {
+        Vector origin = new Vector(0.5, 0.5, 0.5);
+        Vector target = new Vector(size - 0.5, size - 0.5, size - 0.5);
+
+        // The first batch fills the snapshot of this thread with solid blocks
+        ExposureBatch solid = new ExposureBatch((x, y, z) -> new HitBox(x, y, z, x + 1, y + 1, z + 1), origin.getX(), origin.getY(), origin.getZ(), ACCURACY);
+        solid.addRay(solid.addEntity(), target.getX(), target.getY(), target.getZ(), 1, 1);
+        assertEquals(0.0, solid.trace()[0]);
+
+        ExposureBatch empty = new ExposureBatch((x, y, z) -> null, origin.getX(), origin.getY(), origin.getZ(), ACCURACY);
+        empty.addRay(empty.addEntity(), target.getX(), target.getY(), target.getZ(), 1, 1);
+        assertEquals(1.0, empty.trace()[0]);
+    }
+
+    /**
+     * Same as <code>new Ray(world, origin, end).trace(TraceCollision.BLOCK, ACCURACY)</code>
+     * hitting at least 1 block. Ray needs a running server, so its loop is
+     * copied here.
+     */
+    private static boolean isObstructed(Blocks blocks, Vector origin, Vector end) {
+        double directionLength = end.clone().subtract(origin).length();
+        double step = ACCURACY / directionLength;
+        if (step > 1.0)
+            return false;
+
+        for (double i = step; i <= 1; i += step) {
+            Vector point = VectorUtil.lerp(origin, end, i);
+            HitBox hitBox = blocks.getHitBox(point.getBlockX(), point.getBlockY(), point.getBlockZ());
+            if (hitBox != null && hitBox.collides(point))
+                return true;
+        }
+        return false;
+    }
+
+    private static Vector randomPoint(Random random, int size) {
+        return new Vector(random.nextDouble() * size, random.nextDouble() * size, random.nextDouble() * size);
+    }
+
+    /**
+     * Random full blocks and bottom slabs, which are the same every time
+     * they are resolved.
+     */
+    private static final class Blocks implements ExposureBatch.BlockBoxes {
+
+        private static final HitBox AIR = new HitBox(0, 0, 0, 0, 0, 0);
+
+        private final Random random;
+        private final double solidChance;
+        private final Map<Vector, HitBox> blocks = new HashMap<>();
+
+        private Blocks(Random random, double solidChance) {
+            this.random = random;
+            this.solidChance = solidChance;
+        }
+
+        @Override
+        public HitBox getHitBox(int x, int y, int z) {
+            HitBox hitBox = blocks.computeIfAbsent(new Vector(x, y, z), k -> {
+                double roll = random.nextDouble();
+                if (roll < solidChance / 2)
+                    return new HitBox(x, y, z, x + 1, y + 1, z + 1);
+                else if (roll < solidChance)
+                    return new HitBox(x, y, z, x + 1, y + 0.5, z + 1);
+                else
+                    return AIR;
+            });
+            return hitBox == AIR ? null : hitBox;
+        }
+    }
+}